@@ -0,0 +1,145 @@
+package com.acolyptos.minimart.benchmarks;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.codecs.pojo.PojoCodecProvider;
+import org.bson.io.BasicOutputBuffer;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import com.acolyptos.minimart.database.codecs.ModelCodecProvider;
+import com.acolyptos.minimart.models.Role;
+import com.acolyptos.minimart.models.Supplier;
+import com.acolyptos.minimart.models.User;
+import com.mongodb.MongoClientSettings;
+
+/*
+ * Cost of encoding and decoding one model document to and from BSON bytes,
+ * as the driver does for every insert and every document of a cursor.
+ *
+ * "pojo" is the previous code path, the automatic PojoCodecProvider, and
+ * "model" the hand-written codecs of ModelCodecProvider. User and Supplier
+ * are compared because the POJO codec cannot handle Product and Manager.
+ *
+ * Run from this directory after `mvn install -DskipTests` in the root:
+ *   mvn package && java -jar target/benchmarks.jar CodecBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark {
+  private static final EncoderContext ENCODER_CONTEXT = EncoderContext.builder().build();
+  private static final DecoderContext DECODER_CONTEXT = DecoderContext.builder().build();
+
+  private Codec<User> pojoUserCodec;
+  private Codec<User> modelUserCodec;
+  private Codec<Supplier> pojoSupplierCodec;
+  private Codec<Supplier> modelSupplierCodec;
+
+  private User user;
+  private Supplier supplier;
+  private byte[] userBytes;
+  private byte[] supplierBytes;
+
+  @Setup
+  public void setup() {
+    CodecRegistry pojo = CodecRegistries.fromRegistries(
+      MongoClientSettings.getDefaultCodecRegistry(),
+      CodecRegistries.fromProviders(PojoCodecProvider.builder()
+        .automatic(true)
+        .register("com.acolyptos.minimart.models")
+        .build())
+    );
+    CodecRegistry model = CodecRegistries.fromRegistries(
+      MongoClientSettings.getDefaultCodecRegistry(),
+      CodecRegistries.fromProviders(new ModelCodecProvider())
+    );
+
+    pojoUserCodec = pojo.get(User.class);
+    modelUserCodec = model.get(User.class);
+    pojoSupplierCodec = pojo.get(Supplier.class);
+    modelSupplierCodec = model.get(Supplier.class);
+
+    user = new User("johndoe", "$2a$10$N9qo8uLOickgx2ZMRZoMyeIjZAgcfl7p92ldGxad68LJZdL17lhWy",
+      Role.EMPLOYEE);
+    user.setId(new ObjectId());
+    supplier = new Supplier("Acme Trading", "12 Market Street, Springfield", "555-0100",
+      "orders@acme.example");
+    supplier.setId(new ObjectId());
+
+    userBytes = encode(modelUserCodec, user);
+    supplierBytes = encode(modelSupplierCodec, supplier);
+  }
+
+  private static <T> byte[] encode(Codec<T> codec, T value) {
+    BasicOutputBuffer buffer = new BasicOutputBuffer(256);
+    try (BsonBinaryWriter writer = new BsonBinaryWriter(buffer)) {
+      codec.encode(writer, value, ENCODER_CONTEXT);
+    }
+    return buffer.toByteArray();
+  }
+
+  private static <T> T decode(Codec<T> codec, byte[] bytes) {
+    try (BsonBinaryReader reader = new BsonBinaryReader(ByteBuffer.wrap(bytes))) {
+      return codec.decode(reader, DECODER_CONTEXT);
+    }
+  }
+
+  @Benchmark
+  public byte[] userEncodePojo() {
+    return encode(pojoUserCodec, user);
+  }
+
+  @Benchmark
+  public byte[] userEncodeModel() {
+    return encode(modelUserCodec, user);
+  }
+
+  @Benchmark
+  public User userDecodePojo() {
+    return decode(pojoUserCodec, userBytes);
+  }
+
+  @Benchmark
+  public User userDecodeModel() {
+    return decode(modelUserCodec, userBytes);
+  }
+
+  @Benchmark
+  public byte[] supplierEncodePojo() {
+    return encode(pojoSupplierCodec, supplier);
+  }
+
+  @Benchmark
+  public byte[] supplierEncodeModel() {
+    return encode(modelSupplierCodec, supplier);
+  }
+
+  @Benchmark
+  public Supplier supplierDecodePojo() {
+    return decode(pojoSupplierCodec, supplierBytes);
+  }
+
+  @Benchmark
+  public Supplier supplierDecodeModel() {
+    return decode(modelSupplierCodec, supplierBytes);
+  }
+}
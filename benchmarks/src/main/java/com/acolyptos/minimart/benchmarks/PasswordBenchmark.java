@@ -0,0 +1,53 @@
+package com.acolyptos.minimart.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import com.acolyptos.minimart.utilities.PasswordUtility;
+
+/*
+ * BCrypt throughput per thread at several costs. "check" is the work of
+ * one login and bounds the logins per second a core can serve, "hash" the
+ * work of one registration or rehash.
+ *
+ * Run from this directory after `mvn install -DskipTests` in the root:
+ *   mvn package && java -jar target/benchmarks.jar PasswordBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class PasswordBenchmark {
+  private static final String PASSWORD = "securePassword";
+
+  @Param({"4", "8", "10", "12"})
+  private int cost;
+
+  private String hash;
+
+  @Setup
+  public void setup() {
+    hash = PasswordUtility.hashPassword(PASSWORD, cost);
+  }
+
+  @Benchmark
+  public String hash() {
+    return PasswordUtility.hashPassword(PASSWORD, cost);
+  }
+
+  @Benchmark
+  public boolean check() {
+    return PasswordUtility.checkPassword(PASSWORD, hash);
+  }
+}
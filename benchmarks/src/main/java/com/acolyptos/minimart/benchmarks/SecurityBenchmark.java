@@ -0,0 +1,105 @@
+package com.acolyptos.minimart.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.SecretKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import com.acolyptos.minimart.utilities.JwtUtility;
+import com.acolyptos.minimart.utilities.VerifiedToken;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+
+/*
+ * Throughput of the token operations on the request path, per thread.
+ *
+ * "issue" and the JwtUtility calls go through the application code, whose
+ * verification is served from the verified-token cache after the first
+ * call. "parseFreshParser" is the previous path, which built a parser and
+ * checked the signature on every call, and "parseSharedParser" is the cost
+ * of a cache miss.
+ *
+ * Run from this directory after `mvn install -DskipTests` in the root, with
+ * the GC profiler for the allocation rate per operation:
+ *   mvn package && java -jar target/benchmarks.jar SecurityBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SecurityBenchmark {
+  private static final String USER_ID = "67d23928622cd64ddeac2355";
+  private static final String ROLE = "EMPLOYEE";
+  private static final String SECRET_KEY = "benchmark-secret-key-of-at-least-256-bits";
+
+  private JwtUtility jwtUtility;
+  private String token;
+
+  private SecretKey key;
+  private JwtParser sharedParser;
+  private String localToken;
+
+  @Setup
+  public void setup() {
+    jwtUtility = new JwtUtility(SECRET_KEY, 10_000);
+    token = jwtUtility.generateToken(USER_ID, ROLE);
+
+    key = Keys.hmacShaKeyFor(SECRET_KEY.getBytes(StandardCharsets.UTF_8));
+    sharedParser = Jwts.parser().verifyWith(key).build();
+    localToken = Jwts.builder()
+      .subject(USER_ID)
+      .claim("role", ROLE)
+      .issuedAt(new Date())
+      .expiration(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)))
+      .signWith(key, Jwts.SIG.HS256)
+      .compact();
+  }
+
+  @Benchmark
+  public String issue() {
+    return jwtUtility.generateToken(USER_ID, ROLE);
+  }
+
+  @Benchmark
+  public VerifiedToken verifyToken() {
+    return jwtUtility.verifyToken(token);
+  }
+
+  @Benchmark
+  public boolean validateToken() {
+    return jwtUtility.validateToken(token);
+  }
+
+  @Benchmark
+  public Map<String, String> extractUserIdAndRole() {
+    return jwtUtility.extraceUserIdAndRole(token);
+  }
+
+  @Benchmark
+  public Claims parseFreshParser() {
+    return Jwts.parser()
+      .verifyWith(key)
+      .build()
+      .parseSignedClaims(localToken)
+      .getPayload();
+  }
+
+  @Benchmark
+  public Claims parseSharedParser() {
+    return sharedParser.parseSignedClaims(localToken).getPayload();
+  }
+}
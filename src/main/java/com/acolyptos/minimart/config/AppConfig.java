@@ -0,0 +1,143 @@
+package com.acolyptos.minimart.config;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import io.github.cdimascio.dotenv.Dotenv;
+import io.github.cdimascio.dotenv.DotenvEntriesFilter;
+import io.github.cdimascio.dotenv.DotenvEntry;
+
+/*
+ * The configuration of the application, read once at startup.
+ *
+ * Values come from the .env file in the working directory, overridden by
+ * environment variables of the same name, overridden in turn by system
+ * properties of the same name, for example -DSERVER_PORT=9090. The result
+ * is an immutable snapshot: later changes to the file, the environment or
+ * the system properties are not seen.
+ *
+ * Every component reads its settings through the typed getters, which
+ * reject a malformed value with the name of its key, so a bad setting
+ * stops the startup instead of surfacing on the first request.
+ */
+public final class AppConfig {
+  // Shortest HS256 key, in bytes, that jjwt accepts.
+  private static final int MIN_SECRET_KEY_BYTES = 32;
+
+  private final Map<String, String> values;
+
+  /*
+   * @param values - The configuration values keyed by their name.
+   */
+  public AppConfig(Map<String, String> values) {
+    this.values = Map.copyOf(values);
+  }
+
+  /*
+   * Reads the .env file, the environment and the system properties.
+   *
+   * @return A new AppConfig.
+   */
+  public static AppConfig load() {
+    Map<String, String> values = new HashMap<>();
+
+    Dotenv dotenv = Dotenv.configure().ignoreIfMissing().load();
+    for (DotenvEntry entry : dotenv.entries(DotenvEntriesFilter.DECLARED_IN_ENV_FILE)) {
+      values.put(entry.getKey(), entry.getValue());
+    }
+    values.putAll(System.getenv());
+    for (String name : System.getProperties().stringPropertyNames()) {
+      values.put(name, System.getProperty(name));
+    }
+
+    return new AppConfig(values);
+  }
+
+  /*
+   * Checks the values the server cannot start without.
+   *
+   * @throws IllegalArgumentException if MONGO_URI, DB_NAME or SECRET_KEY is
+   * missing, or SECRET_KEY is too short for HS256.
+   */
+  public void validate() {
+    getRequired("MONGO_URI");
+    getRequired("DB_NAME");
+    if (getRequired("SECRET_KEY").getBytes(StandardCharsets.UTF_8).length < MIN_SECRET_KEY_BYTES) {
+      throw new IllegalArgumentException(
+        "SECRET_KEY should be at least " + MIN_SECRET_KEY_BYTES + " bytes long."
+      );
+    }
+  }
+
+  /*
+   * @return The value of the key, or the default when it is not set.
+   */
+  public String getString(String key, String defaultValue) {
+    String value = values.get(key);
+    return value == null ? defaultValue : value;
+  }
+
+  /*
+   * @throws IllegalArgumentException if the key is not set or is blank.
+   */
+  public String getRequired(String key) {
+    String value = values.get(key);
+    if (value == null || value.isBlank()) {
+      throw new IllegalArgumentException("Missing configuration value " + key + ".");
+    }
+    return value;
+  }
+
+  /*
+   * @throws IllegalArgumentException if the value is not an integer.
+   */
+  public int getInt(String key, int defaultValue) {
+    String value = values.get(key);
+    if (value == null) {
+      return defaultValue;
+    }
+    try {
+      return Integer.parseInt(value.trim());
+    } catch (NumberFormatException exception) {
+      throw invalid(key, value, "an integer");
+    }
+  }
+
+  /*
+   * @throws IllegalArgumentException if the value is not an integer.
+   */
+  public long getLong(String key, long defaultValue) {
+    String value = values.get(key);
+    if (value == null) {
+      return defaultValue;
+    }
+    try {
+      return Long.parseLong(value.trim());
+    } catch (NumberFormatException exception) {
+      throw invalid(key, value, "an integer");
+    }
+  }
+
+  /*
+   * @throws IllegalArgumentException if the value is neither true nor false.
+   */
+  public boolean getBoolean(String key, boolean defaultValue) {
+    String value = values.get(key);
+    if (value == null) {
+      return defaultValue;
+    }
+    if (value.trim().equalsIgnoreCase("true")) {
+      return true;
+    }
+    if (value.trim().equalsIgnoreCase("false")) {
+      return false;
+    }
+    throw invalid(key, value, "true or false");
+  }
+
+  private static IllegalArgumentException invalid(String key, String value, String expected) {
+    return new IllegalArgumentException(
+      "Invalid configuration value " + key + "=" + value + ", expected " + expected + "."
+    );
+  }
+}
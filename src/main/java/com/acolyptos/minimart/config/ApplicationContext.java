@@ -0,0 +1,387 @@
+package com.acolyptos.minimart.config;
+
+import java.io.IOException;
+import org.bson.Document;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.acolyptos.minimart.database.AsyncResults;
+import com.acolyptos.minimart.database.DatabaseProvider;
+import com.acolyptos.minimart.database.IndexRegistry;
+import com.acolyptos.minimart.database.MongoDB;
+import com.acolyptos.minimart.handlers.LogoutHandler;
+import com.acolyptos.minimart.handlers.MetricsHandler;
+import com.acolyptos.minimart.handlers.ProductListHandler;
+import com.acolyptos.minimart.handlers.ProductRegisterHandler;
+import com.acolyptos.minimart.handlers.TokenRefreshHandler;
+import com.acolyptos.minimart.handlers.UserLoginHandler;
+import com.acolyptos.minimart.handlers.UserRegisterHandler;
+import com.acolyptos.minimart.models.Category;
+import com.acolyptos.minimart.models.Employee;
+import com.acolyptos.minimart.models.LoginResponse;
+import com.acolyptos.minimart.models.Manager;
+import com.acolyptos.minimart.models.Product;
+import com.acolyptos.minimart.models.ProductRegistrationRequest;
+import com.acolyptos.minimart.models.ProductRegistrationResponse;
+import com.acolyptos.minimart.models.RefreshTokenRequest;
+import com.acolyptos.minimart.models.Supplier;
+import com.acolyptos.minimart.models.User;
+import com.acolyptos.minimart.models.UserRegistrationRequest;
+import com.acolyptos.minimart.models.UserRegistrationResponse;
+import com.acolyptos.minimart.repositories.AsyncCategoryRepository;
+import com.acolyptos.minimart.repositories.AsyncProductRepository;
+import com.acolyptos.minimart.repositories.AsyncSupplierRepository;
+import com.acolyptos.minimart.repositories.CategoryRepository;
+import com.acolyptos.minimart.repositories.EmployeeRepository;
+import com.acolyptos.minimart.repositories.ManagerRepository;
+import com.acolyptos.minimart.repositories.ProductRepository;
+import com.acolyptos.minimart.repositories.SupplierRepository;
+import com.acolyptos.minimart.repositories.UserRepository;
+import com.acolyptos.minimart.server.AuthMode;
+import com.acolyptos.minimart.server.AuthenticationFilter;
+import com.acolyptos.minimart.server.LoginRateLimiter;
+import com.acolyptos.minimart.server.MetricsRegistry;
+import com.acolyptos.minimart.server.SessionAuthenticator;
+import com.acolyptos.minimart.server.TokenAuthenticator;
+import com.acolyptos.minimart.services.AsyncCategoryService;
+import com.acolyptos.minimart.services.AsyncProductService;
+import com.acolyptos.minimart.services.AsyncSupplierService;
+import com.acolyptos.minimart.services.CategoryService;
+import com.acolyptos.minimart.services.EmployeeService;
+import com.acolyptos.minimart.services.ManagerService;
+import com.acolyptos.minimart.services.PasswordHasher;
+import com.acolyptos.minimart.services.ProductService;
+import com.acolyptos.minimart.services.SupplierService;
+import com.acolyptos.minimart.services.UserService;
+import com.acolyptos.minimart.utilities.JsonUtility;
+import com.acolyptos.minimart.utilities.JwtUtility;
+import com.mongodb.client.MongoDatabase;
+
+/*
+ * Composition root of the application.
+ *
+ * Builds the single MongoDB provider and one instance of every repository,
+ * service and handler, wired through their constructors and configured
+ * from one AppConfig. Nothing else in the server creates these objects.
+ *
+ * warmUp() runs the one-time work of every request path before the port
+ * opens: resolving the model codecs, opening the first pooled connections,
+ * creating the indexes of every repository, loading the usernames used for
+ * duplicate checks, deriving the JWT key, seeding BCrypt's SecureRandom and
+ * resolving the Jackson (de)serializers.
+ * The first requests after a deploy then pay none of it.
+ */
+public class ApplicationContext {
+  private static final Logger LOG = LoggerFactory.getLogger(ApplicationContext.class);
+
+  // Enough calls for the cheap paths to leave the interpreter.
+  private static final int WARM_UP_ITERATIONS = 200;
+
+  private final AppConfig config;
+  private final DatabaseProvider database;
+  private final MetricsRegistry metricsRegistry = new MetricsRegistry();
+  private final JsonUtility json;
+  private final JwtUtility jwtUtility;
+  private final IndexRegistry indexRegistry = new IndexRegistry();
+  private final PasswordHasher passwordHasher;
+  private final LoginRateLimiter loginRateLimiter;
+  private final TokenAuthenticator tokenAuthenticator;
+  private final AuthenticationFilter authenticationFilter;
+
+  private final UserRepository userRepository;
+  private final EmployeeRepository employeeRepository;
+  private final ManagerRepository managerRepository;
+  private final ProductRepository productRepository;
+  private final CategoryRepository categoryRepository;
+  private final SupplierRepository supplierRepository;
+
+  private final UserService userService;
+  private final EmployeeService employeeService;
+  private final ManagerService managerService;
+  private final ProductService productService;
+  private final CategoryService categoryService;
+  private final SupplierService supplierService;
+
+  private final AsyncProductService asyncProductService;
+  private final AsyncCategoryService asyncCategoryService;
+  private final AsyncSupplierService asyncSupplierService;
+
+  private final UserLoginHandler userLoginHandler;
+  private final TokenRefreshHandler tokenRefreshHandler;
+  private final LogoutHandler logoutHandler;
+  private final UserRegisterHandler userRegisterHandler;
+  private final ProductRegisterHandler productRegisterHandler;
+  private final ProductListHandler productListHandler;
+  private final MetricsHandler metricsHandler;
+
+  /*
+   * Wires the application on top of the given database.
+   *
+   * @param config - The configuration every component reads its settings from.
+   *
+   * @param database - The provider every repository reads its collection from.
+   */
+  public ApplicationContext(AppConfig config, DatabaseProvider database) {
+    this.config = config;
+    this.database = database;
+    MongoDatabase mongoDatabase = database.getDatabase();
+
+    this.userRepository = new UserRepository(
+      mongoDatabase.getCollection("users", User.class)
+    );
+    this.employeeRepository = new EmployeeRepository(
+      mongoDatabase.getCollection("employees", Employee.class)
+    );
+    this.managerRepository = new ManagerRepository(
+      mongoDatabase.getCollection("managers", Manager.class)
+    );
+    this.productRepository = new ProductRepository(
+      mongoDatabase.getCollection("products", Product.class)
+    );
+    this.categoryRepository = new CategoryRepository(
+      mongoDatabase.getCollection("categories", Category.class)
+    );
+    this.supplierRepository = new SupplierRepository(
+      mongoDatabase.getCollection("suppliers", Supplier.class)
+    );
+
+    // Every repository declares the indexes of its queries, warmUp()
+    // creates them before the usernames are loaded.
+    userRepository.registerIndexes(indexRegistry);
+    employeeRepository.registerIndexes(indexRegistry);
+    managerRepository.registerIndexes(indexRegistry);
+    productRepository.registerIndexes(indexRegistry);
+    categoryRepository.registerIndexes(indexRegistry);
+    supplierRepository.registerIndexes(indexRegistry);
+    metricsRegistry.register(indexRegistry);
+    if (database instanceof MongoDB) {
+      metricsRegistry.register(((MongoDB) database).getConnectionPoolMetrics());
+    }
+
+    // BCrypt runs on its own pool so a burst of logins cannot take the
+    // cores of the other routes.
+    this.passwordHasher = PasswordHasher.fromConfig(config);
+    metricsRegistry.register(passwordHasher);
+
+    this.userService = new UserService(userRepository, passwordHasher);
+    this.employeeService = new EmployeeService(employeeRepository);
+    this.managerService = new ManagerService(managerRepository);
+    this.productService = new ProductService(productRepository);
+    this.categoryService = new CategoryService(categoryRepository);
+    this.supplierService = new SupplierService(supplierRepository);
+
+    // The same collections on the reactive driver, for the handlers that
+    // overlap their queries.
+    com.mongodb.reactivestreams.client.MongoDatabase asyncDatabase =
+      database.getAsyncDatabase();
+    this.asyncProductService = new AsyncProductService(new AsyncProductRepository(
+      asyncDatabase.getCollection("products", Product.class)
+    ));
+    this.asyncCategoryService = new AsyncCategoryService(new AsyncCategoryRepository(
+      asyncDatabase.getCollection("categories", Category.class)
+    ));
+    this.asyncSupplierService = new AsyncSupplierService(new AsyncSupplierRepository(
+      asyncDatabase.getCollection("suppliers", Supplier.class)
+    ));
+
+    this.loginRateLimiter = LoginRateLimiter.fromConfig(config);
+    metricsRegistry.register(loginRateLimiter);
+
+    this.json = JsonUtility.fromConfig(config);
+    this.jwtUtility = JwtUtility.fromConfig(config);
+    this.tokenAuthenticator = AuthMode.createFromConfig(config, jwtUtility);
+    if (tokenAuthenticator instanceof SessionAuthenticator) {
+      metricsRegistry.register(((SessionAuthenticator) tokenAuthenticator).getSessionStore());
+    }
+    this.authenticationFilter = new AuthenticationFilter(tokenAuthenticator);
+
+    this.userLoginHandler = new UserLoginHandler(
+      userService, loginRateLimiter, tokenAuthenticator, json
+    );
+    this.tokenRefreshHandler = new TokenRefreshHandler(jwtUtility, json);
+    this.logoutHandler = new LogoutHandler(tokenAuthenticator, jwtUtility, json);
+    this.userRegisterHandler = new UserRegisterHandler(
+      userService, employeeService, managerService, json
+    );
+    this.productRegisterHandler = new ProductRegisterHandler(
+      asyncCategoryService, asyncProductService, asyncSupplierService, json
+    );
+    this.productListHandler = new ProductListHandler(productService, json);
+    this.metricsHandler = new MetricsHandler(metricsRegistry, json);
+  }
+
+  /*
+   * Creates the context on the MongoDB of the configuration, after checking
+   * the values the server cannot start without.
+   *
+   * @throws IllegalArgumentException if a required value is missing.
+   */
+  public static ApplicationContext create(AppConfig config) {
+    config.validate();
+    return new ApplicationContext(config, new MongoDB(config));
+  }
+
+  /*
+   * Runs every warm-up step and logs how long each one took. A failing step
+   * is logged and skipped, it only means the first request pays for it.
+   */
+  public void warmUp() {
+    long startedAt = System.nanoTime();
+
+    warmUpStep("codecs", this::warmUpCodecs);
+    warmUpStep("mongodb", this::warmUpConnectionPool);
+    warmUpStep("indexes", indexRegistry::apply);
+    warmUpStep("usernames", userService::loadUsernames);
+    warmUpStep("jwt", this::warmUpJwt);
+    warmUpStep("bcrypt", this::warmUpBcrypt);
+    warmUpStep("jackson", this::warmUpJackson);
+
+    LOG.info("Warm-up finished in " + elapsedMillis(startedAt) + "ms.");
+  }
+
+  private void warmUpCodecs() {
+    CodecRegistry codecRegistry = database.getDatabase().getCodecRegistry();
+    for (Class<?> model : new Class<?>[] {
+      User.class, Employee.class, Manager.class,
+      Product.class, Category.class, Supplier.class
+    }) {
+      codecRegistry.get(model);
+    }
+  }
+
+  /*
+   * A ping makes the driver discover the server and open its first pooled
+   * connection, including the TLS and authentication handshakes. The sync
+   * and the reactive client each have their own pool.
+   */
+  private void warmUpConnectionPool() {
+    database.getDatabase().runCommand(new Document("ping", 1));
+    AsyncResults.first(database.getAsyncDatabase().runCommand(new Document("ping", 1))).join();
+  }
+
+  private void warmUpJwt() {
+    for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+      String token = jwtUtility.generateToken("warm-up", "EMPLOYEE");
+      jwtUtility.validateToken(token);
+      jwtUtility.verifyRefreshToken(jwtUtility.generateRefreshToken("warm-up", "EMPLOYEE"));
+    }
+  }
+
+  /*
+   * A single round is enough here, the cost is in seeding SecureRandom and
+   * in the key schedule itself, not in the JIT.
+   */
+  private void warmUpBcrypt() {
+    String hash = passwordHasher.hashPassword("warm-up");
+    passwordHasher.checkPassword("warm-up", hash);
+  }
+
+  private void warmUpJackson() throws IOException {
+    String user = "{\"username\":\"warm-up\",\"password\":\"warm-up\"}";
+    String registration = "{\"name\":\"Warm Up\",\"email\":\"warm@up.local\","
+      + "\"username\":\"warm-up\",\"password\":\"warm-up\",\"role\":\"employee\"}";
+    String product = "{\"name\":\"Warm Up\",\"categoryName\":\"Warm Up\","
+      + "\"supplierName\":\"Warm Up\",\"stock\":1,\"price\":1.0}";
+    String refresh = "{\"refreshToken\":\"warm-up\"}";
+
+    for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+      json.getUserReader().<User>readValue(user);
+      json.getUserRegistrationReader().<UserRegistrationRequest>readValue(registration);
+      json.getProductRegistrationReader().<ProductRegistrationRequest>readValue(product);
+      json.getRefreshTokenReader().<RefreshTokenRequest>readValue(refresh);
+
+      json.getLoginResponseWriter().writeValueAsBytes(
+        new LoginResponse("warm-up", "warm-up", "warm-up")
+      );
+      json.getUserRegistrationResponseWriter().writeValueAsBytes(
+        new UserRegistrationResponse("warm-up", "warm-up", "warm-up", null)
+      );
+      json.getProductRegistrationResponseWriter().writeValueAsBytes(
+        new ProductRegistrationResponse("warm-up", "warm-up")
+      );
+    }
+  }
+
+  private void warmUpStep(String name, WarmUpStep step) {
+    long startedAt = System.nanoTime();
+    try {
+      step.run();
+      LOG.info("Warmed up " + name + " in " + elapsedMillis(startedAt) + "ms.");
+    } catch (IOException | RuntimeException exception) {
+      LOG.warn("Warm-up of " + name + " failed: " + exception.getMessage());
+    }
+  }
+
+  private static long elapsedMillis(long startedAt) {
+    return (System.nanoTime() - startedAt) / 1_000_000;
+  }
+
+  @FunctionalInterface
+  private interface WarmUpStep {
+    void run() throws IOException;
+  }
+
+  public AppConfig getConfig() { return config; }
+
+  public DatabaseProvider getDatabase() { return database; }
+
+  public MetricsRegistry getMetricsRegistry() { return metricsRegistry; }
+
+  public IndexRegistry getIndexRegistry() { return indexRegistry; }
+
+  public JsonUtility getJsonUtility() { return json; }
+
+  public JwtUtility getJwtUtility() { return jwtUtility; }
+
+  public PasswordHasher getPasswordHasher() { return passwordHasher; }
+
+  public LoginRateLimiter getLoginRateLimiter() { return loginRateLimiter; }
+
+  public TokenAuthenticator getTokenAuthenticator() { return tokenAuthenticator; }
+
+  public AuthenticationFilter getAuthenticationFilter() { return authenticationFilter; }
+
+  public UserRepository getUserRepository() { return userRepository; }
+
+  public EmployeeRepository getEmployeeRepository() { return employeeRepository; }
+
+  public ManagerRepository getManagerRepository() { return managerRepository; }
+
+  public ProductRepository getProductRepository() { return productRepository; }
+
+  public CategoryRepository getCategoryRepository() { return categoryRepository; }
+
+  public SupplierRepository getSupplierRepository() { return supplierRepository; }
+
+  public UserService getUserService() { return userService; }
+
+  public EmployeeService getEmployeeService() { return employeeService; }
+
+  public ManagerService getManagerService() { return managerService; }
+
+  public ProductService getProductService() { return productService; }
+
+  public CategoryService getCategoryService() { return categoryService; }
+
+  public SupplierService getSupplierService() { return supplierService; }
+
+  public AsyncProductService getAsyncProductService() { return asyncProductService; }
+
+  public AsyncCategoryService getAsyncCategoryService() { return asyncCategoryService; }
+
+  public AsyncSupplierService getAsyncSupplierService() { return asyncSupplierService; }
+
+  public UserLoginHandler getUserLoginHandler() { return userLoginHandler; }
+
+  public TokenRefreshHandler getTokenRefreshHandler() { return tokenRefreshHandler; }
+
+  public LogoutHandler getLogoutHandler() { return logoutHandler; }
+
+  public UserRegisterHandler getUserRegisterHandler() { return userRegisterHandler; }
+
+  public ProductRegisterHandler getProductRegisterHandler() { return productRegisterHandler; }
+
+  public ProductListHandler getProductListHandler() { return productListHandler; }
+
+  public MetricsHandler getMetricsHandler() { return metricsHandler; }
+}
@@ -0,0 +1,119 @@
+package com.acolyptos.minimart.database;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import com.acolyptos.minimart.exceptions.DatabaseException;
+import com.mongodb.MongoException;
+import com.mongodb.MongoQueryException;
+import com.mongodb.MongoTimeoutException;
+import com.mongodb.MongoWriteConcernException;
+import com.mongodb.MongoWriteException;
+
+/*
+ * Turns the publishers of the reactive driver into CompletableFutures.
+ *
+ * The futures complete on the threads of the driver, so the stages that
+ * follow them must not block. A failed query or write completes the future
+ * with a DatabaseException, worded like the ones the sync repositories
+ * throw.
+ */
+public final class AsyncResults {
+
+  private AsyncResults() {}
+
+  /*
+   * @param publisher - A publisher of at most one item, such as find().first().
+   *
+   * @return A future of the item, or of null when the publisher is empty.
+   */
+  public static <T> CompletableFuture<T> first(Publisher<T> publisher) {
+    return toList(publisher).thenApply(items -> items.isEmpty() ? null : items.get(0));
+  }
+
+  /*
+   * @param publisher - The publisher to read, such as a find() cursor.
+   *
+   * @return A future of every item, in the order they were published.
+   */
+  public static <T> CompletableFuture<List<T>> toList(Publisher<T> publisher) {
+    CollectingSubscriber<T> subscriber = new CollectingSubscriber<>();
+    publisher.subscribe(subscriber);
+    return subscriber.result;
+  }
+
+  /*
+   * Unwraps the CompletionException of a failed stage.
+   *
+   * @param throwable - The failure a stage completed with.
+   *
+   * @return The exception that made the stage fail.
+   */
+  public static Throwable unwrap(Throwable throwable) {
+    if (throwable instanceof CompletionException && throwable.getCause() != null) {
+      return throwable.getCause();
+    }
+    return throwable;
+  }
+
+  /*
+   * Maps a failure of the driver to the DatabaseException of the sync
+   * repositories.
+   */
+  static DatabaseException toDatabaseException(Throwable throwable) {
+    if (throwable instanceof DatabaseException) {
+      return (DatabaseException) throwable;
+    }
+    if (throwable instanceof MongoWriteException) {
+      MongoWriteException exception = (MongoWriteException) throwable;
+      return new DatabaseException(
+        "Write Error: " + exception.getError().getMessage(), exception
+      );
+    }
+    if (throwable instanceof MongoWriteConcernException) {
+      return new DatabaseException("Write concern error: " + throwable.getMessage(), throwable);
+    }
+    if (throwable instanceof MongoQueryException) {
+      return new DatabaseException("Query Execution Failed: " + throwable.getMessage(), throwable);
+    }
+    if (throwable instanceof MongoTimeoutException) {
+      return new DatabaseException("Database Timeout: " + throwable.getMessage(), throwable);
+    }
+    if (throwable instanceof MongoException) {
+      return new DatabaseException("MongoDB Error: " + throwable.getMessage(), throwable);
+    }
+    return new DatabaseException("Unexpected error: " + throwable.getMessage(), throwable);
+  }
+
+  /*
+   * Requests every item up front, the driver fetches them in batches.
+   */
+  private static final class CollectingSubscriber<T> implements Subscriber<T> {
+    private final CompletableFuture<List<T>> result = new CompletableFuture<>();
+    private final List<T> items = new ArrayList<>();
+
+    @Override
+    public void onSubscribe(Subscription subscription) {
+      subscription.request(Long.MAX_VALUE);
+    }
+
+    @Override
+    public void onNext(T item) {
+      items.add(item);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      result.completeExceptionally(toDatabaseException(throwable));
+    }
+
+    @Override
+    public void onComplete() {
+      result.complete(items);
+    }
+  }
+}
@@ -0,0 +1,115 @@
+package com.acolyptos.minimart.database;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import com.acolyptos.minimart.server.MetricsSource;
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckOutStartedEvent;
+import com.mongodb.event.ConnectionCheckedInEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionClosedEvent;
+import com.mongodb.event.ConnectionCreatedEvent;
+import com.mongodb.event.ConnectionPoolCreatedEvent;
+import com.mongodb.event.ConnectionPoolListener;
+
+/*
+ * Counts what happens in the connection pools of the sync and the reactive
+ * MongoClient, one per client and server, so the metrics endpoint shows
+ * when requests wait for a pooled connection rather than for MongoDB
+ * itself.
+ *
+ * A request is in the wait queue from the start of its checkout until it
+ * gets a connection or gives up. The checkout latency is that wait.
+ */
+public class ConnectionPoolMetrics implements ConnectionPoolListener, MetricsSource {
+  private final AtomicInteger maxSize = new AtomicInteger();
+  private final AtomicInteger open = new AtomicInteger();
+  private final AtomicInteger checkedOut = new AtomicInteger();
+  private final AtomicInteger waiting = new AtomicInteger();
+
+  private final LongAdder checkouts = new LongAdder();
+  private final LongAdder checkoutTimeouts = new LongAdder();
+  private final LongAdder checkoutFailures = new LongAdder();
+  private final LongAdder checkoutNanos = new LongAdder();
+  private final LongAccumulator maxCheckoutNanos = new LongAccumulator(Math::max, 0);
+  private final LongAccumulator maxWaiting = new LongAccumulator(Math::max, 0);
+
+  @Override
+  public void connectionPoolCreated(ConnectionPoolCreatedEvent event) {
+    maxSize.set(event.getSettings().getMaxSize());
+  }
+
+  @Override
+  public void connectionCreated(ConnectionCreatedEvent event) {
+    open.incrementAndGet();
+  }
+
+  @Override
+  public void connectionClosed(ConnectionClosedEvent event) {
+    open.decrementAndGet();
+  }
+
+  @Override
+  public void connectionCheckOutStarted(ConnectionCheckOutStartedEvent event) {
+    maxWaiting.accumulate(waiting.incrementAndGet());
+  }
+
+  @Override
+  public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+    waiting.decrementAndGet();
+    checkedOut.incrementAndGet();
+
+    long elapsed = event.getElapsedTime(TimeUnit.NANOSECONDS);
+    checkouts.increment();
+    checkoutNanos.add(elapsed);
+    maxCheckoutNanos.accumulate(elapsed);
+  }
+
+  @Override
+  public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+    waiting.decrementAndGet();
+    if (event.getReason() == ConnectionCheckOutFailedEvent.Reason.TIMEOUT) {
+      checkoutTimeouts.increment();
+    } else {
+      checkoutFailures.increment();
+    }
+  }
+
+  @Override
+  public void connectionCheckedIn(ConnectionCheckedInEvent event) {
+    checkedOut.decrementAndGet();
+  }
+
+  @Override
+  public String getMetricsName() {
+    return "mongoPool";
+  }
+
+  /*
+   * The maximum wait queue and checkout latency are reset on every snapshot
+   * so that they describe the interval since the previous scrape.
+   */
+  @Override
+  public Map<String, Number> snapshotMetrics() {
+    long checkoutCount = checkouts.sum();
+    long averageCheckout = checkoutCount == 0 ? 0 : checkoutNanos.sum() / checkoutCount;
+
+    Map<String, Number> metrics = new LinkedHashMap<>();
+    metrics.put("maxSizePerServer", maxSize.get());
+    metrics.put("open", open.get());
+    metrics.put("checkedOut", checkedOut.get());
+    metrics.put("waitQueue", waiting.get());
+    metrics.put("waitQueueMax", maxWaiting.getThenReset());
+    metrics.put("checkouts", checkoutCount);
+    metrics.put("checkoutTimeouts", checkoutTimeouts.sum());
+    metrics.put("checkoutFailures", checkoutFailures.sum());
+    metrics.put("checkoutAvgMicros", TimeUnit.NANOSECONDS.toMicros(averageCheckout));
+    metrics.put("checkoutMaxMicros",
+      TimeUnit.NANOSECONDS.toMicros(maxCheckoutNanos.getThenReset()));
+    return metrics;
+  }
+}
@@ -9,5 +9,10 @@ public interface DatabaseProvider {
 
   MongoClient getMongoClient();
 
+  /*
+   * The same database on the reactive driver, for the async repositories.
+   */
+  com.mongodb.reactivestreams.client.MongoDatabase getAsyncDatabase();
+
   void closeConnection();
 }
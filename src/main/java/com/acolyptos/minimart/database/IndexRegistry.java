@@ -0,0 +1,136 @@
+package com.acolyptos.minimart.database;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.acolyptos.minimart.server.MetricsSource;
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+
+/*
+ * The indexes every repository needs, declared once and created at startup.
+ *
+ * Repositories add their indexes in registerIndexes(), before the server
+ * opens its port, and apply() creates them one after the other. Creating an
+ * index that already exists with the same keys and options is a no-op on
+ * the server, so apply() can run on every start. An index that cannot be
+ * built, for example a unique index over duplicate values or one that
+ * conflicts with an existing index of the same name, is logged and
+ * skipped, the queries on it then fall back to a collection scan.
+ *
+ * The time each index took is logged and kept for the metrics endpoint,
+ * under "<collection>.<index>Millis".
+ */
+public class IndexRegistry implements MetricsSource {
+  private static final Logger LOG = LoggerFactory.getLogger(IndexRegistry.class);
+
+  private final List<IndexDefinition> definitions = new ArrayList<>();
+  private final Map<String, Number> buildMillis = new LinkedHashMap<>();
+  private int failed;
+
+  /*
+   * Declares a unique ascending index on the field.
+   */
+  public void unique(MongoCollection<?> collection, String field) {
+    add(collection, Indexes.ascending(field), new IndexOptions().unique(true));
+  }
+
+  /*
+   * Declares a secondary ascending index on the field.
+   */
+  public void ascending(MongoCollection<?> collection, String field) {
+    add(collection, Indexes.ascending(field), new IndexOptions());
+  }
+
+  /*
+   * @param collection - The collection the index belongs to.
+   *
+   * @param keys - The keys of the index, see Indexes.
+   *
+   * @param options - The options of the index.
+   */
+  public synchronized void add(MongoCollection<?> collection, Bson keys, IndexOptions options) {
+    definitions.add(new IndexDefinition(collection, keys, options));
+  }
+
+  /*
+   * Creates every declared index and logs how long each one took.
+   *
+   * @return The number of indexes that could not be created.
+   */
+  public synchronized int apply() {
+    Map<String, Set<String>> existingByCollection = new LinkedHashMap<>();
+    failed = 0;
+
+    for (IndexDefinition definition : definitions) {
+      String collectionName = definition.collection.getNamespace().getCollectionName();
+      try {
+        Set<String> existing = existingByCollection.computeIfAbsent(
+          collectionName, name -> indexNames(definition.collection)
+        );
+        long startedAt = System.nanoTime();
+        String indexName = definition.collection.createIndex(definition.keys, definition.options);
+        long elapsed = (System.nanoTime() - startedAt) / 1_000_000;
+
+        buildMillis.put(collectionName + "." + indexName, elapsed);
+        if (existing.contains(indexName)) {
+          LOG.info("Index " + collectionName + "." + indexName + " already exists, checked in "
+            + elapsed + "ms.");
+        } else {
+          existing.add(indexName);
+          LOG.info("Built index " + collectionName + "." + indexName + " in " + elapsed + "ms.");
+        }
+
+      } catch (MongoException exception) {
+        failed++;
+        LOG.error("Index on " + collectionName + " " + definition.keys.toBsonDocument()
+          + " failed: " + exception.getMessage());
+      }
+    }
+
+    return failed;
+  }
+
+  private static Set<String> indexNames(MongoCollection<?> collection) {
+    Set<String> names = new HashSet<>();
+    for (Document index : collection.listIndexes()) {
+      names.add(index.getString("name"));
+    }
+    return names;
+  }
+
+  @Override
+  public String getMetricsName() {
+    return "indexes";
+  }
+
+  @Override
+  public synchronized Map<String, Number> snapshotMetrics() {
+    Map<String, Number> metrics = new LinkedHashMap<>();
+    metrics.put("declared", definitions.size());
+    metrics.put("failed", failed);
+    buildMillis.forEach((name, millis) -> metrics.put(name + "Millis", millis));
+    return metrics;
+  }
+
+  private static final class IndexDefinition {
+    private final MongoCollection<?> collection;
+    private final Bson keys;
+    private final IndexOptions options;
+
+    IndexDefinition(MongoCollection<?> collection, Bson keys, IndexOptions options) {
+      this.collection = collection;
+      this.keys = keys;
+      this.options = options;
+    }
+  }
+}
@@ -2,47 +2,57 @@ package com.acolyptos.minimart.database;
 
 import org.bson.codecs.configuration.CodecRegistries;
 import org.bson.codecs.configuration.CodecRegistry;
-import org.bson.codecs.pojo.PojoCodecProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import com.acolyptos.minimart.config.AppConfig;
+import com.acolyptos.minimart.database.codecs.ModelCodecProvider;
 import com.mongodb.MongoClientSettings;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
 import com.mongodb.client.MongoDatabase;
-import io.github.cdimascio.dotenv.Dotenv;
 
 public class MongoDB implements DatabaseProvider {
 
   private static MongoClient mongoClient;
   private static MongoDatabase mongoDatabase;
+  private static com.mongodb.reactivestreams.client.MongoClient asyncClient;
+  private static com.mongodb.reactivestreams.client.MongoDatabase asyncDatabase;
 
-  private final static Dotenv DOTENV = Dotenv.load();
-  private final static String DB_NAME = DOTENV.get("DB_NAME");
-  private final static String URI = DOTENV.get("MONGO_URI");
+  // Outlives a closed client, so the counters are not lost on reconnect.
+  private static final ConnectionPoolMetrics POOL_METRICS = new ConnectionPoolMetrics();
 
   private final static Logger LOGGER = LoggerFactory.getLogger(MongoDB.class);
 
-  public MongoDB() {
+  /*
+   * Connects to MONGO_URI and DB_NAME of the configuration. Only the first
+   * instance connects, every later one shares its client.
+   *
+   * The sync and the reactive client are built from the same settings, so
+   * each has a pool of up to MONGO_MAX_POOL_SIZE connections per server.
+   */
+  public MongoDB(AppConfig config) {
     if (mongoClient == null) {
-      CodecRegistry pojoCodecRegistry = CodecRegistries
-      .fromProviders(PojoCodecProvider.builder()
-        .automatic(true)
-        .register("com.acolyptos.minimart.models")
-        .build()
-      );
-
+      String uri = config.getRequired("MONGO_URI");
+      // The models are read and written by hand-written codecs, the
+      // driver's own codecs cover everything else.
       CodecRegistry codecRegistry = CodecRegistries.fromRegistries(
         MongoClientSettings.getDefaultCodecRegistry(),
-        CodecRegistries.fromProviders(pojoCodecRegistry)
+        CodecRegistries.fromProviders(new ModelCodecProvider())
       );
 
-      MongoClientSettings settings = MongoClientSettings.builder()
-      .applyConnectionString(new com.mongodb.ConnectionString(URI))
+      // The pool options go first, so the connection string can still
+      // override any of them.
+      MongoClientSettings settings = MongoPoolOptions.fromConfig(config)
+      .applyTo(MongoClientSettings.builder())
+      .applyConnectionString(new com.mongodb.ConnectionString(uri))
+      .applyToConnectionPoolSettings(pool -> pool.addConnectionPoolListener(POOL_METRICS))
       .codecRegistry(codecRegistry)
       .build();
 
       mongoClient = MongoClients.create(settings);
-      mongoDatabase = mongoClient.getDatabase(DB_NAME);
+      mongoDatabase = mongoClient.getDatabase(config.getRequired("DB_NAME"));
+      asyncClient = com.mongodb.reactivestreams.client.MongoClients.create(settings);
+      asyncDatabase = asyncClient.getDatabase(config.getRequired("DB_NAME"));
     }
   }
 
@@ -66,6 +76,26 @@ public class MongoDB implements DatabaseProvider {
     return mongoClient;
   }
 
+  /*
+   * Retrieves the database on the reactive client. It has its own pool,
+   * built from the same settings as the one of the sync client.
+   *
+   * @return The connected reactive MongoDatabase instance
+   */
+  @Override
+  public com.mongodb.reactivestreams.client.MongoDatabase getAsyncDatabase() {
+    return asyncDatabase;
+  }
+
+  /*
+   * Retrieves the counters of the connection pools of the client.
+   *
+   * @return The ConnectionPoolMetrics registered on the client.
+   */
+  public ConnectionPoolMetrics getConnectionPoolMetrics() {
+    return POOL_METRICS;
+  }
+
   /*
    * Closes the MongoDB client if it's open
    */
@@ -73,8 +103,11 @@ public class MongoDB implements DatabaseProvider {
   public void closeConnection() {
     if (mongoClient != null) {
       mongoClient.close();
+      asyncClient.close();
       mongoClient = null;
       mongoDatabase = null;
+      asyncClient = null;
+      asyncDatabase = null;
       LOGGER.info("MongoDB connection closed.");
     }
   }
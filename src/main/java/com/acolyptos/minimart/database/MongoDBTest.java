@@ -2,44 +2,47 @@ package com.acolyptos.minimart.database;
 
 import org.bson.codecs.configuration.CodecRegistries;
 import org.bson.codecs.configuration.CodecRegistry;
-import org.bson.codecs.pojo.PojoCodecProvider;
+import com.acolyptos.minimart.config.AppConfig;
+import com.acolyptos.minimart.database.codecs.ModelCodecProvider;
 import com.mongodb.MongoClientSettings;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
 import com.mongodb.client.MongoDatabase;
-import io.github.cdimascio.dotenv.Dotenv;
 
 public class MongoDBTest implements DatabaseProvider {
 
   private static MongoClient mongoClient;
   private static MongoDatabase mongoDatabase;
-
-  private final static Dotenv DOTENV = Dotenv.load();
-  private final static String DB_NAME = DOTENV.get("TEST_DB_NAME");
-  private final static String URI = DOTENV.get("MONGO_URI");
-
+  private static com.mongodb.reactivestreams.client.MongoClient asyncClient;
+  private static com.mongodb.reactivestreams.client.MongoDatabase asyncDatabase;
 
   public MongoDBTest() {
-    if (mongoClient == null) {
-      CodecRegistry pojoCodecRegistry = CodecRegistries
-      .fromProviders(PojoCodecProvider.builder()
-        .automatic(true)
-        .register("com.acolyptos.minimart.models")
-        .build()
-      );
+    this(AppConfig.load());
+  }
 
+  /*
+   * Connects to MONGO_URI and TEST_DB_NAME of the configuration. Only the first
+   * instance connects, every later one shares its client.
+   */
+  public MongoDBTest(AppConfig config) {
+    if (mongoClient == null) {
+      String uri = config.getRequired("MONGO_URI");
+      // The models are read and written by hand-written codecs, the
+      // driver's own codecs cover everything else.
       CodecRegistry codecRegistry = CodecRegistries.fromRegistries(
         MongoClientSettings.getDefaultCodecRegistry(),
-        CodecRegistries.fromProviders(pojoCodecRegistry)
+        CodecRegistries.fromProviders(new ModelCodecProvider())
       );
 
       MongoClientSettings settings = MongoClientSettings.builder()
-      .applyConnectionString(new com.mongodb.ConnectionString(URI))
+      .applyConnectionString(new com.mongodb.ConnectionString(uri))
       .codecRegistry(codecRegistry)
       .build();
 
       mongoClient = MongoClients.create(settings);
-      mongoDatabase = mongoClient.getDatabase(DB_NAME);
+      mongoDatabase = mongoClient.getDatabase(config.getRequired("TEST_DB_NAME"));
+      asyncClient = com.mongodb.reactivestreams.client.MongoClients.create(settings);
+      asyncDatabase = asyncClient.getDatabase(config.getRequired("TEST_DB_NAME"));
     }
   }
 
@@ -53,12 +56,20 @@ public class MongoDBTest implements DatabaseProvider {
     return mongoClient;
   }
 
+  @Override
+  public com.mongodb.reactivestreams.client.MongoDatabase getAsyncDatabase() {
+    return asyncDatabase;
+  }
+
   @Override
   public void closeConnection() {
     if (mongoClient != null) {
       mongoClient.close();
+      asyncClient.close();
       mongoClient = null;
       mongoDatabase = null;
+      asyncClient = null;
+      asyncDatabase = null;
     }
   }
 }
@@ -0,0 +1,143 @@
+package com.acolyptos.minimart.database;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import com.acolyptos.minimart.config.AppConfig;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoCompressor;
+
+/*
+ * Holds the connection pool, socket and compression settings of the
+ * MongoClient. They are applied before the connection string, so an option
+ * that the connection string also sets keeps the value of the connection
+ * string.
+ */
+public class MongoPoolOptions {
+  private final int maxPoolSize;
+  private final int minPoolSize;
+  private final long maxWaitMillis;
+  private final long connectTimeoutMillis;
+  private final long readTimeoutMillis;
+  private final List<String> compressors;
+
+  /*
+   * @param maxPoolSize - The most connections per server.
+   *
+   * @param minPoolSize - The connections kept open per server when idle.
+   *
+   * @param maxWaitMillis - The longest wait for a free connection.
+   *
+   * @param connectTimeoutMillis - The longest wait to open a connection.
+   *
+   * @param readTimeoutMillis - The longest wait for a reply, 0 for no limit.
+   *
+   * @param compressors - The wire compressors, in order of preference. Only
+   * zlib is supported, the driver needs snappy-java or zstd-jni on the
+   * classpath for the others and the pom includes neither.
+   *
+   * @throws IllegalArgumentException if a setting is out of range or a
+   * compressor is not zlib.
+   */
+  public MongoPoolOptions(
+    int maxPoolSize,
+    int minPoolSize,
+    long maxWaitMillis,
+    long connectTimeoutMillis,
+    long readTimeoutMillis,
+    List<String> compressors
+  ) {
+    if (maxPoolSize <= 0) {
+      throw new IllegalArgumentException("Max pool size should be greater than 0.");
+    }
+    if (minPoolSize < 0 || minPoolSize > maxPoolSize) {
+      throw new IllegalArgumentException("Min pool size should be between 0 and the max pool size.");
+    }
+    if (maxWaitMillis < 0 || connectTimeoutMillis < 0 || readTimeoutMillis < 0) {
+      throw new IllegalArgumentException("Timeouts should not be negative.");
+    }
+    for (String compressor : compressors) {
+      if (!compressor.equals("zlib")) {
+        throw new IllegalArgumentException(
+          "Unsupported compressor " + compressor + " in MONGO_COMPRESSORS, only zlib is available."
+        );
+      }
+    }
+
+    this.maxPoolSize = maxPoolSize;
+    this.minPoolSize = minPoolSize;
+    this.maxWaitMillis = maxWaitMillis;
+    this.connectTimeoutMillis = connectTimeoutMillis;
+    this.readTimeoutMillis = readTimeoutMillis;
+    this.compressors = List.copyOf(compressors);
+  }
+
+  /*
+   * Reads the pool settings from the configuration.
+   *
+   * MONGO_MAX_POOL_SIZE - Connections per server, 100 by default.
+   * MONGO_MIN_POOL_SIZE - Connections kept open per server, 0 by default.
+   * MONGO_MAX_WAIT_MILLIS - Longest wait for a free connection, 5000 by default.
+   * MONGO_CONNECT_TIMEOUT_MILLIS - Longest wait to connect, 10000 by default.
+   * MONGO_READ_TIMEOUT_MILLIS - Longest wait for a reply, 0 (no limit) by default.
+   * MONGO_COMPRESSORS - zlib to compress the wire protocol, none by default.
+   *
+   * @param config - The configuration of the application.
+   *
+   * @return The MongoPoolOptions built from the configuration.
+   */
+  public static MongoPoolOptions fromConfig(AppConfig config) {
+    int maxPoolSize = config.getInt("MONGO_MAX_POOL_SIZE", 100);
+    int minPoolSize = config.getInt("MONGO_MIN_POOL_SIZE", 0);
+    long maxWaitMillis = config.getLong("MONGO_MAX_WAIT_MILLIS", 5000);
+    long connectTimeoutMillis = config.getLong("MONGO_CONNECT_TIMEOUT_MILLIS", 10_000);
+    long readTimeoutMillis = config.getLong("MONGO_READ_TIMEOUT_MILLIS", 0);
+
+    List<String> compressors = new ArrayList<>();
+    for (String compressor : config.getString("MONGO_COMPRESSORS", "").split(",")) {
+      if (!compressor.isBlank()) {
+        compressors.add(compressor.trim().toLowerCase());
+      }
+    }
+
+    return new MongoPoolOptions(
+      maxPoolSize,
+      minPoolSize,
+      maxWaitMillis,
+      connectTimeoutMillis,
+      readTimeoutMillis,
+      compressors
+    );
+  }
+
+  /*
+   * Applies the settings to the builder, before its connection string.
+   */
+  public MongoClientSettings.Builder applyTo(MongoClientSettings.Builder builder) {
+    List<MongoCompressor> compressorList = compressors.isEmpty()
+      ? List.of()
+      : List.of(MongoCompressor.createZlibCompressor());
+
+    return builder
+      .applyToConnectionPoolSettings(pool -> pool
+        .maxSize(maxPoolSize)
+        .minSize(minPoolSize)
+        .maxWaitTime(maxWaitMillis, TimeUnit.MILLISECONDS))
+      .applyToSocketSettings(socket -> socket
+        .connectTimeout(connectTimeoutMillis, TimeUnit.MILLISECONDS)
+        .readTimeout(readTimeoutMillis, TimeUnit.MILLISECONDS))
+      .compressorList(compressorList);
+  }
+
+  public int getMaxPoolSize() { return maxPoolSize; }
+
+  public int getMinPoolSize() { return minPoolSize; }
+
+  public long getMaxWaitMillis() { return maxWaitMillis; }
+
+  public long getConnectTimeoutMillis() { return connectTimeoutMillis; }
+
+  public long getReadTimeoutMillis() { return readTimeoutMillis; }
+
+  public List<String> getCompressors() { return compressors; }
+}
@@ -0,0 +1,93 @@
+package com.acolyptos.minimart.database.codecs;
+
+import org.bson.BsonInvalidOperationException;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.types.ObjectId;
+
+/*
+ * Reads and writes single field values for the model codecs.
+ *
+ * The readers are called after readName(). A null value is read as null,
+ * or 0 for the numbers. Numbers are read from any numeric BSON type as long
+ * as no precision is lost, so a stock written as a double by another client
+ * still decodes.
+ */
+final class BsonFields {
+  private BsonFields() {}
+
+  static String readString(BsonReader reader) {
+    if (reader.getCurrentBsonType() == BsonType.NULL) {
+      reader.readNull();
+      return null;
+    }
+    return reader.readString();
+  }
+
+  static ObjectId readObjectId(BsonReader reader) {
+    if (reader.getCurrentBsonType() == BsonType.NULL) {
+      reader.readNull();
+      return null;
+    }
+    return reader.readObjectId();
+  }
+
+  static int readInt(BsonReader reader) {
+    switch (reader.getCurrentBsonType()) {
+      case INT32:
+        return reader.readInt32();
+      case INT64:
+        long longValue = reader.readInt64();
+        if ((int) longValue != longValue) {
+          throw new BsonInvalidOperationException(longValue + " does not fit in an int.");
+        }
+        return (int) longValue;
+      case DOUBLE:
+        double doubleValue = reader.readDouble();
+        if ((int) doubleValue != doubleValue) {
+          throw new BsonInvalidOperationException(doubleValue + " is not an int.");
+        }
+        return (int) doubleValue;
+      case NULL:
+        reader.readNull();
+        return 0;
+      default:
+        throw new BsonInvalidOperationException(
+          "Expected a number, found " + reader.getCurrentBsonType() + "."
+        );
+    }
+  }
+
+  static double readDouble(BsonReader reader) {
+    switch (reader.getCurrentBsonType()) {
+      case DOUBLE:
+        return reader.readDouble();
+      case INT32:
+        return reader.readInt32();
+      case INT64:
+        return reader.readInt64();
+      case DECIMAL128:
+        return reader.readDecimal128().doubleValue();
+      case NULL:
+        reader.readNull();
+        return 0;
+      default:
+        throw new BsonInvalidOperationException(
+          "Expected a number, found " + reader.getCurrentBsonType() + "."
+        );
+    }
+  }
+
+  static void writeString(BsonWriter writer, String name, String value) {
+    if (value != null) {
+      writer.writeString(name, value);
+    }
+  }
+
+  static void writeObjectId(BsonWriter writer, String name, ObjectId value) {
+    if (value != null) {
+      writer.writeObjectId(name, value);
+    }
+  }
+}
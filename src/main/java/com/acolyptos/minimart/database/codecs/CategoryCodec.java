@@ -0,0 +1,50 @@
+package com.acolyptos.minimart.database.codecs;
+
+import org.bson.BsonReader;
+import org.bson.BsonWriter;
+import org.bson.types.ObjectId;
+import com.acolyptos.minimart.models.Category;
+
+/*
+ * Codec of the "categories" collection.
+ */
+final class CategoryCodec extends ModelCodec<Category> {
+  CategoryCodec() {
+    super(Category.class);
+  }
+
+  @Override
+  Category newInstance() {
+    return new Category();
+  }
+
+  @Override
+  ObjectId getId(Category value) {
+    return value.getId();
+  }
+
+  @Override
+  void setId(Category value, ObjectId id) {
+    value.setId(id);
+  }
+
+  @Override
+  void encodeFields(BsonWriter writer, Category value) {
+    BsonFields.writeString(writer, "name", value.getName());
+    BsonFields.writeString(writer, "details", value.getDetails());
+  }
+
+  @Override
+  boolean decodeField(BsonReader reader, String name, Category value) {
+    switch (name) {
+      case "name":
+        value.setName(BsonFields.readString(reader));
+        return true;
+      case "details":
+        value.setDetails(BsonFields.readString(reader));
+        return true;
+      default:
+        return false;
+    }
+  }
+}
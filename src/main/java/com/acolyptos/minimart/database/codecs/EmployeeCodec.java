@@ -0,0 +1,54 @@
+package com.acolyptos.minimart.database.codecs;
+
+import org.bson.BsonReader;
+import org.bson.BsonWriter;
+import org.bson.types.ObjectId;
+import com.acolyptos.minimart.models.Employee;
+
+/*
+ * Codec of the "employees" collection.
+ */
+final class EmployeeCodec extends ModelCodec<Employee> {
+  EmployeeCodec() {
+    super(Employee.class);
+  }
+
+  @Override
+  Employee newInstance() {
+    return new Employee();
+  }
+
+  @Override
+  ObjectId getId(Employee value) {
+    return value.getId();
+  }
+
+  @Override
+  void setId(Employee value, ObjectId id) {
+    value.setId(id);
+  }
+
+  @Override
+  void encodeFields(BsonWriter writer, Employee value) {
+    BsonFields.writeString(writer, "name", value.getName());
+    BsonFields.writeString(writer, "email", value.getEmail());
+    BsonFields.writeObjectId(writer, "userId", value.getUserId());
+  }
+
+  @Override
+  boolean decodeField(BsonReader reader, String name, Employee value) {
+    switch (name) {
+      case "name":
+        value.setName(BsonFields.readString(reader));
+        return true;
+      case "email":
+        value.setEmail(BsonFields.readString(reader));
+        return true;
+      case "userId":
+        value.setUserId(BsonFields.readObjectId(reader));
+        return true;
+      default:
+        return false;
+    }
+  }
+}
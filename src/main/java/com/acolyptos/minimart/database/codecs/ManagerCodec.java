@@ -0,0 +1,55 @@
+package com.acolyptos.minimart.database.codecs;
+
+import org.bson.BsonReader;
+import org.bson.BsonWriter;
+import org.bson.types.ObjectId;
+import com.acolyptos.minimart.models.Manager;
+
+/*
+ * Codec of the "managers" collection. Manager has no empty
+ * constructor, the fields are set after it is created.
+ */
+final class ManagerCodec extends ModelCodec<Manager> {
+  ManagerCodec() {
+    super(Manager.class);
+  }
+
+  @Override
+  Manager newInstance() {
+    return new Manager(null, null, null);
+  }
+
+  @Override
+  ObjectId getId(Manager value) {
+    return value.getId();
+  }
+
+  @Override
+  void setId(Manager value, ObjectId id) {
+    value.setId(id);
+  }
+
+  @Override
+  void encodeFields(BsonWriter writer, Manager value) {
+    BsonFields.writeString(writer, "name", value.getName());
+    BsonFields.writeString(writer, "email", value.getEmail());
+    BsonFields.writeObjectId(writer, "userId", value.getUserId());
+  }
+
+  @Override
+  boolean decodeField(BsonReader reader, String name, Manager value) {
+    switch (name) {
+      case "name":
+        value.setName(BsonFields.readString(reader));
+        return true;
+      case "email":
+        value.setEmail(BsonFields.readString(reader));
+        return true;
+      case "userId":
+        value.setUserId(BsonFields.readObjectId(reader));
+        return true;
+      default:
+        return false;
+    }
+  }
+}
@@ -0,0 +1,110 @@
+package com.acolyptos.minimart.database.codecs;
+
+import org.bson.BsonObjectId;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonValue;
+import org.bson.BsonWriter;
+import org.bson.codecs.CollectibleCodec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.types.ObjectId;
+
+/*
+ * Base of the hand-written codecs of the model classes.
+ *
+ * Encoding writes the _id and then every field that is not null, in a
+ * fixed order, which is what the POJO codec wrote before. Decoding reads
+ * the document in a single pass straight into a new instance: each field
+ * name is matched with a switch and a field the model does not know is
+ * skipped without being decoded. No intermediate map or document is built.
+ *
+ * As a CollectibleCodec, the codec lets insertOne assign a new ObjectId to
+ * the instance itself before it is written, as the POJO codec did.
+ */
+abstract class ModelCodec<T> implements CollectibleCodec<T> {
+  static final String ID = "_id";
+
+  private final Class<T> encoderClass;
+
+  ModelCodec(Class<T> encoderClass) {
+    this.encoderClass = encoderClass;
+  }
+
+  /*
+   * @return An empty instance that decode() fills in.
+   */
+  abstract T newInstance();
+
+  abstract ObjectId getId(T value);
+
+  abstract void setId(T value, ObjectId id);
+
+  /*
+   * Writes every field but the _id.
+   */
+  abstract void encodeFields(BsonWriter writer, T value);
+
+  /*
+   * Reads the value of the field into the instance.
+   *
+   * @return false if the model has no such field, the value is then skipped.
+   */
+  abstract boolean decodeField(BsonReader reader, String name, T value);
+
+  @Override
+  public final void encode(BsonWriter writer, T value, EncoderContext encoderContext) {
+    writer.writeStartDocument();
+    ObjectId id = getId(value);
+    if (id != null) {
+      writer.writeObjectId(ID, id);
+    }
+    encodeFields(writer, value);
+    writer.writeEndDocument();
+  }
+
+  @Override
+  public final T decode(BsonReader reader, DecoderContext decoderContext) {
+    T value = newInstance();
+
+    reader.readStartDocument();
+    while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+      String name = reader.readName();
+      if (ID.equals(name)) {
+        setId(value, BsonFields.readObjectId(reader));
+      } else if (!decodeField(reader, name, value)) {
+        reader.skipValue();
+      }
+    }
+    reader.readEndDocument();
+
+    return value;
+  }
+
+  @Override
+  public final Class<T> getEncoderClass() {
+    return encoderClass;
+  }
+
+  @Override
+  public final T generateIdIfAbsentFromDocument(T document) {
+    if (getId(document) == null) {
+      setId(document, new ObjectId());
+    }
+    return document;
+  }
+
+  @Override
+  public final boolean documentHasId(T document) {
+    return getId(document) != null;
+  }
+
+  @Override
+  public final BsonValue getDocumentId(T document) {
+    ObjectId id = getId(document);
+    if (id == null) {
+      throw new IllegalStateException("The document does not contain an _id.");
+    }
+    return new BsonObjectId(id);
+  }
+}
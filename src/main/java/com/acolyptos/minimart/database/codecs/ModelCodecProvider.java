@@ -0,0 +1,34 @@
+package com.acolyptos.minimart.database.codecs;
+
+import java.util.Map;
+import org.bson.codecs.Codec;
+import org.bson.codecs.configuration.CodecProvider;
+import org.bson.codecs.configuration.CodecRegistry;
+import com.acolyptos.minimart.models.Category;
+import com.acolyptos.minimart.models.Employee;
+import com.acolyptos.minimart.models.Manager;
+import com.acolyptos.minimart.models.Product;
+import com.acolyptos.minimart.models.Supplier;
+import com.acolyptos.minimart.models.User;
+
+/*
+ * Provides the hand-written codecs of the models stored in MongoDB, in
+ * place of the reflective PojoCodecProvider. The codecs are stateless and
+ * built once.
+ */
+public class ModelCodecProvider implements CodecProvider {
+  private static final Map<Class<?>, Codec<?>> CODECS = Map.of(
+    User.class, new UserCodec(),
+    Employee.class, new EmployeeCodec(),
+    Manager.class, new ManagerCodec(),
+    Product.class, new ProductCodec(),
+    Category.class, new CategoryCodec(),
+    Supplier.class, new SupplierCodec()
+  );
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> Codec<T> get(Class<T> clazz, CodecRegistry registry) {
+    return (Codec<T>) CODECS.get(clazz);
+  }
+}
@@ -0,0 +1,62 @@
+package com.acolyptos.minimart.database.codecs;
+
+import org.bson.BsonReader;
+import org.bson.BsonWriter;
+import org.bson.types.ObjectId;
+import com.acolyptos.minimart.models.Product;
+
+/*
+ * Codec of the "products" collection.
+ */
+final class ProductCodec extends ModelCodec<Product> {
+  ProductCodec() {
+    super(Product.class);
+  }
+
+  @Override
+  Product newInstance() {
+    return new Product();
+  }
+
+  @Override
+  ObjectId getId(Product value) {
+    return value.getId();
+  }
+
+  @Override
+  void setId(Product value, ObjectId id) {
+    value.setId(id);
+  }
+
+  @Override
+  void encodeFields(BsonWriter writer, Product value) {
+    BsonFields.writeString(writer, "name", value.getName());
+    BsonFields.writeObjectId(writer, "categoryId", value.getCategoryId());
+    BsonFields.writeObjectId(writer, "supplierId", value.getSupplierId());
+    writer.writeInt32("stock", value.getStock());
+    writer.writeDouble("price", value.getPrice());
+  }
+
+  @Override
+  boolean decodeField(BsonReader reader, String name, Product value) {
+    switch (name) {
+      case "name":
+        value.setName(BsonFields.readString(reader));
+        return true;
+      case "categoryId":
+        value.setCategory(BsonFields.readObjectId(reader));
+        return true;
+      case "supplierId":
+        value.setSupplier(BsonFields.readObjectId(reader));
+        return true;
+      case "stock":
+        value.setStock(BsonFields.readInt(reader));
+        return true;
+      case "price":
+        value.setPrice(BsonFields.readDouble(reader));
+        return true;
+      default:
+        return false;
+    }
+  }
+}
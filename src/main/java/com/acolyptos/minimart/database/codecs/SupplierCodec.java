@@ -0,0 +1,58 @@
+package com.acolyptos.minimart.database.codecs;
+
+import org.bson.BsonReader;
+import org.bson.BsonWriter;
+import org.bson.types.ObjectId;
+import com.acolyptos.minimart.models.Supplier;
+
+/*
+ * Codec of the "suppliers" collection.
+ */
+final class SupplierCodec extends ModelCodec<Supplier> {
+  SupplierCodec() {
+    super(Supplier.class);
+  }
+
+  @Override
+  Supplier newInstance() {
+    return new Supplier();
+  }
+
+  @Override
+  ObjectId getId(Supplier value) {
+    return value.getId();
+  }
+
+  @Override
+  void setId(Supplier value, ObjectId id) {
+    value.setId(id);
+  }
+
+  @Override
+  void encodeFields(BsonWriter writer, Supplier value) {
+    BsonFields.writeString(writer, "name", value.getName());
+    BsonFields.writeString(writer, "address", value.getAddress());
+    BsonFields.writeString(writer, "contactNumber", value.getContactNumber());
+    BsonFields.writeString(writer, "email", value.getEmail());
+  }
+
+  @Override
+  boolean decodeField(BsonReader reader, String name, Supplier value) {
+    switch (name) {
+      case "name":
+        value.setName(BsonFields.readString(reader));
+        return true;
+      case "address":
+        value.setAddress(BsonFields.readString(reader));
+        return true;
+      case "contactNumber":
+        value.setContactNumber(BsonFields.readString(reader));
+        return true;
+      case "email":
+        value.setEmail(BsonFields.readString(reader));
+        return true;
+      default:
+        return false;
+    }
+  }
+}
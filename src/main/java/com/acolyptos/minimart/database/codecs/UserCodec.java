@@ -0,0 +1,58 @@
+package com.acolyptos.minimart.database.codecs;
+
+import org.bson.BsonReader;
+import org.bson.BsonWriter;
+import org.bson.types.ObjectId;
+import com.acolyptos.minimart.models.Role;
+import com.acolyptos.minimart.models.User;
+
+/*
+ * Codec of the "users" collection. The role is stored by its name.
+ */
+final class UserCodec extends ModelCodec<User> {
+  UserCodec() {
+    super(User.class);
+  }
+
+  @Override
+  User newInstance() {
+    return new User();
+  }
+
+  @Override
+  ObjectId getId(User value) {
+    return value.getId();
+  }
+
+  @Override
+  void setId(User value, ObjectId id) {
+    value.setId(id);
+  }
+
+  @Override
+  void encodeFields(BsonWriter writer, User value) {
+    BsonFields.writeString(writer, "username", value.getUsername());
+    BsonFields.writeString(writer, "password", value.getPassword());
+    if (value.getRole() != null) {
+      writer.writeString("role", value.getRole().name());
+    }
+  }
+
+  @Override
+  boolean decodeField(BsonReader reader, String name, User value) {
+    switch (name) {
+      case "username":
+        value.setUsername(BsonFields.readString(reader));
+        return true;
+      case "password":
+        value.setPassword(BsonFields.readString(reader));
+        return true;
+      case "role":
+        String role = BsonFields.readString(reader);
+        value.setRole(role == null ? null : Role.valueOf(role));
+        return true;
+      default:
+        return false;
+    }
+  }
+}
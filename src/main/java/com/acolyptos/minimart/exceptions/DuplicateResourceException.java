@@ -0,0 +1,10 @@
+package com.acolyptos.minimart.exceptions;
+
+/*
+ * Thrown when an insert is refused by a unique index.
+ */
+public class DuplicateResourceException extends RuntimeException {
+  public DuplicateResourceException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
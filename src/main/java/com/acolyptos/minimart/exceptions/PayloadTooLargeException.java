@@ -0,0 +1,14 @@
+package com.acolyptos.minimart.exceptions;
+
+import java.io.IOException;
+
+/*
+ * Thrown while reading a request body that is larger than the limit of its
+ * route. It is an IOException because it surfaces from the body stream,
+ * in the middle of parsing.
+ */
+public class PayloadTooLargeException extends IOException {
+  public PayloadTooLargeException(String message) {
+    super(message);
+  }
+}
@@ -1,6 +1,10 @@
 package com.acolyptos.minimart.exceptions;
 
 public class ServiceException extends RuntimeException {
+  public ServiceException(String message) {
+    super(message);
+  }
+
   public ServiceException(String message, Throwable cause) {
     super(message, cause);
   }
@@ -0,0 +1,18 @@
+package com.acolyptos.minimart.exceptions;
+
+/*
+ * Thrown when a bounded resource is saturated and the work was not started.
+ * The request can be retried after the given number of seconds.
+ */
+public class ServiceUnavailableException extends RuntimeException {
+  private final int retryAfterSeconds;
+
+  public ServiceUnavailableException(String message, int retryAfterSeconds) {
+    super(message);
+    this.retryAfterSeconds = retryAfterSeconds;
+  }
+
+  public int getRetryAfterSeconds() {
+    return retryAfterSeconds;
+  }
+}
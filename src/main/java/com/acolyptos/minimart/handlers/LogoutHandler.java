@@ -0,0 +1,82 @@
+package com.acolyptos.minimart.handlers;
+
+import java.io.IOException;
+import com.acolyptos.minimart.exceptions.PayloadTooLargeException;
+import com.acolyptos.minimart.models.RefreshTokenRequest;
+import com.acolyptos.minimart.server.RequestBody;
+import com.acolyptos.minimart.server.ResponseWriter;
+import com.acolyptos.minimart.server.TokenAuthenticator;
+import com.acolyptos.minimart.server.UserPrincipal;
+import com.acolyptos.minimart.utilities.JsonUtility;
+import com.acolyptos.minimart.utilities.JwtUtility;
+import com.acolyptos.minimart.utilities.VerifiedToken;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import io.jsonwebtoken.JwtException;
+
+/*
+ * Revokes the access token of the request and, when the mode has refresh
+ * tokens, the refresh token sent in the body. Runs behind the
+ * AuthenticationFilter, which has already resolved the access token.
+ */
+public class LogoutHandler implements HttpHandler {
+  private final TokenAuthenticator authenticator;
+  private final JwtUtility jwtUtility;
+  private final JsonUtility json;
+
+  /*
+   * @param authenticator - Revokes the access token of the configured mode.
+   *
+   * @param jwtUtility - Verifies and revokes the refresh token of the JWT mode.
+   *
+   * @param json - Reads the refresh token from the body.
+   */
+  public LogoutHandler(
+    TokenAuthenticator authenticator,
+    JwtUtility jwtUtility,
+    JsonUtility json
+  ) {
+    this.authenticator = authenticator;
+    this.jwtUtility = jwtUtility;
+    this.json = json;
+  }
+
+  @Override
+  public void handle(HttpExchange exchange) throws IOException {
+    try {
+      UserPrincipal principal = UserPrincipal.from(exchange);
+      if (principal == null || principal.getToken() == null) {
+        ResponseWriter.send(exchange, 401, "Missing or invalid bearer token.");
+        return;
+      }
+
+      VerifiedToken refreshToken = null;
+      if (authenticator.supportsRefresh()) {
+        RefreshTokenRequest request = RequestBody.read(
+          exchange, json.getRefreshTokenReader()
+        );
+
+        refreshToken = jwtUtility.verifyRefreshToken(request.getRefreshToken());
+        if (!principal.getUserId().equals(refreshToken.getUserId())) {
+          ResponseWriter.send(exchange, 403, "Refresh token belongs to another user.");
+          return;
+        }
+      }
+
+      authenticator.revoke(principal.getToken());
+      if (refreshToken != null) {
+        jwtUtility.revokeToken(refreshToken);
+      }
+
+      ResponseWriter.sendEmpty(exchange, 204);
+
+    } catch (PayloadTooLargeException exception) {
+      ResponseWriter.send(exchange, 413, exception.getMessage());
+    } catch (JsonProcessingException exception) {
+      ResponseWriter.send(exchange, 400, "Invalid JSON Format: " + exception.getMessage());
+    } catch (JwtException | IllegalArgumentException exception) {
+      ResponseWriter.send(exchange, 401, "Invalid refresh token: " + exception.getMessage());
+    }
+  }
+}
@@ -0,0 +1,28 @@
+package com.acolyptos.minimart.handlers;
+
+import java.io.IOException;
+import com.acolyptos.minimart.server.MetricsRegistry;
+import com.acolyptos.minimart.server.ResponseWriter;
+import com.acolyptos.minimart.utilities.JsonUtility;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+/*
+ * Reports the counters of every registered MetricsSource as JSON.
+ */
+public class MetricsHandler implements HttpHandler {
+  private final MetricsRegistry metricsRegistry;
+  private final JsonUtility json;
+
+  public MetricsHandler(MetricsRegistry metricsRegistry, JsonUtility json) {
+    this.metricsRegistry = metricsRegistry;
+    this.json = json;
+  }
+
+  @Override
+  public void handle(HttpExchange exchange) throws IOException {
+    byte[] responseByte = json.getMapper().writeValueAsBytes(metricsRegistry.snapshot());
+    ResponseWriter.send(exchange, 200, responseByte);
+  }
+
+}
@@ -0,0 +1,65 @@
+package com.acolyptos.minimart.handlers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Objects;
+import org.bson.types.ObjectId;
+import com.acolyptos.minimart.models.Product;
+import com.acolyptos.minimart.server.ResponseWriter;
+import com.acolyptos.minimart.services.ProductService;
+import com.acolyptos.minimart.utilities.JsonUtility;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+/*
+ * Lists every product as a JSON array. The products are written onto the
+ * response while the database cursor is read, so the list is never held in
+ * memory as a whole.
+ */
+public class ProductListHandler implements HttpHandler {
+  private final ProductService productService;
+  private final JsonUtility json;
+
+  public ProductListHandler(ProductService productService, JsonUtility json) {
+    this.productService = Objects.requireNonNull(productService, "Product Service cannot be null.");
+    this.json = Objects.requireNonNull(json, "JsonUtility cannot be null.");
+  }
+
+  @Override
+  public void handle(HttpExchange exchange) throws IOException {
+    ResponseWriter.stream(exchange, 200, json.getMapper(), generator -> {
+      generator.writeStartArray();
+      try {
+        productService.forEachProduct(product -> writeProduct(generator, product));
+      } catch (UncheckedIOException exception) {
+        throw exception.getCause();
+      }
+      generator.writeEndArray();
+    });
+  }
+
+  private void writeProduct(JsonGenerator generator, Product product) {
+    try {
+      generator.writeStartObject();
+      writeObjectId(generator, "id", product.getId());
+      generator.writeStringField("name", product.getName());
+      writeObjectId(generator, "categoryId", product.getCategoryId());
+      writeObjectId(generator, "supplierId", product.getSupplierId());
+      generator.writeNumberField("stock", product.getStock());
+      generator.writeNumberField("price", product.getPrice());
+      generator.writeEndObject();
+    } catch (IOException exception) {
+      throw new UncheckedIOException(exception);
+    }
+  }
+
+  private void writeObjectId(JsonGenerator generator, String field, ObjectId id)
+      throws IOException {
+    if (id == null) {
+      generator.writeNullField(field);
+    } else {
+      generator.writeStringField(field, id.toHexString());
+    }
+  }
+}
@@ -1,63 +1,62 @@
 package com.acolyptos.minimart.handlers;
 
 import java.io.IOException;
-import java.io.OutputStream;
-import java.nio.charset.StandardCharsets;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import org.bson.types.ObjectId;
 import com.acolyptos.minimart.exceptions.DatabaseException;
+import com.acolyptos.minimart.exceptions.PayloadTooLargeException;
 import com.acolyptos.minimart.models.Category;
 import com.acolyptos.minimart.models.ProductRegistrationRequest;
+import com.acolyptos.minimart.models.ProductRegistrationResponse;
 import com.acolyptos.minimart.models.Supplier;
-import com.acolyptos.minimart.services.CategoryService;
-import com.acolyptos.minimart.services.ProductService;
-import com.acolyptos.minimart.services.SupplierService;
+import com.acolyptos.minimart.server.RequestBody;
+import com.acolyptos.minimart.server.ResponseWriter;
+import com.acolyptos.minimart.services.AsyncCategoryService;
+import com.acolyptos.minimart.services.AsyncProductService;
+import com.acolyptos.minimart.services.AsyncSupplierService;
+import com.acolyptos.minimart.utilities.JsonUtility;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 
-
-
+/*
+ * Registers a product under a category and a supplier given by name.
+ *
+ * The category and the supplier are looked up on the async services at the
+ * same time, so the request waits for one round trip to MongoDB instead of
+ * two. The handler thread still waits for the result, the filters around it
+ * expect the exchange to be answered when handle() returns.
+ */
 public class ProductRegisterHandler implements HttpHandler {
-  private final ProductService productService;
-  private final CategoryService categoryService;
-  private final SupplierService supplierService;
-  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final AsyncProductService productService;
+  private final AsyncCategoryService categoryService;
+  private final AsyncSupplierService supplierService;
+  private final JsonUtility json;
 
   public ProductRegisterHandler(
-    CategoryService categoryService, 
-    ProductService productService, 
-    SupplierService supplierService
+    AsyncCategoryService categoryService, 
+    AsyncProductService productService, 
+    AsyncSupplierService supplierService,
+    JsonUtility json
   ) {
     this.categoryService = Objects.requireNonNull(categoryService, "Category Service cannot be null.");
     this.productService = Objects.requireNonNull(productService, "Product Service cannot be null.");
     this.supplierService = Objects.requireNonNull(supplierService, "Supplier Service cannot be null.");
-  }
-
-  public ProductRegisterHandler () {
-    this.categoryService = new CategoryService();
-    this.productService = new ProductService();
-    this.supplierService = new SupplierService();
+    this.json = Objects.requireNonNull(json, "JsonUtility cannot be null.");
   }
 
   @Override
   public void handle(HttpExchange exchange) throws IOException {
-    if ("POST".equalsIgnoreCase(exchange.getRequestMethod())) {
-      handleAddProduct(exchange);
-    } else {
-      sendResponse(exchange, 405, "Method not Allowed. Expected POST.");
-    }
+    handleAddProduct(exchange);
   }
 
   private void handleAddProduct(HttpExchange exchange) throws IOException {
 
     try {
-      ProductRegistrationRequest requestProduct = objectMapper.readValue(
-        exchange.getRequestBody(), 
-        ProductRegistrationRequest.class
+      ProductRegistrationRequest requestProduct = RequestBody.read(
+        exchange, json.getProductRegistrationReader()
       );
 
       validateInputRequest(
@@ -68,65 +67,75 @@ public class ProductRegisterHandler implements HttpHandler {
         requestProduct.getPrice()
       );
 
+      CompletableFuture<Category> categoryLookup =
+        categoryService.getCategoryByName(requestProduct.getCategoryName());
+      CompletableFuture<Supplier> supplierLookup =
+        supplierService.getSupplierByName(requestProduct.getSupplierName());
 
-      Category category = categoryService.getCategoryByName(requestProduct.getCategoryName());
+      Category category = await(categoryLookup);
       if (category == null) {
-        sendResponse(exchange, 400, "Category not found.");
+        ResponseWriter.send(exchange, 400, "Category not found.");
         return;
       }
 
-      Supplier supplier = supplierService.getSupplierByName(requestProduct.getSupplierName());
+      Supplier supplier = await(supplierLookup);
       if (supplier == null) {
-        sendResponse(exchange, 400, "Supplier not found.");
+        ResponseWriter.send(exchange, 400, "Supplier not found.");
         return;
       }
 
-      ObjectId productId =  productService.insertProduct(
+      ObjectId productId = await(productService.insertProduct(
         requestProduct.getName(), 
         category.getId(), 
         supplier.getId(),
         requestProduct.getStock(), 
         requestProduct.getPrice()
-      );
+      ));
 
       if (productId == null) {
-        sendResponse(exchange, 400, "Product was not created successfully.");
+        ResponseWriter.send(exchange, 400, "Product was not created successfully.");
         return;
       } else {
-        Map<String, Object> responseMap = new HashMap<>();
-        responseMap.put("message", "Product " + requestProduct.getName() + " successfully created.");
-        responseMap.put("productId", productId);
-        String jsonResponse = objectMapper.writeValueAsString(responseMap);
-
-        sendResponse(exchange, 201, jsonResponse);
+        ProductRegistrationResponse response = new ProductRegistrationResponse(
+          "Product " + requestProduct.getName() + " successfully created.",
+          productId.toHexString()
+        );
+        byte[] jsonResponse = json.getProductRegistrationResponseWriter()
+          .writeValueAsBytes(response);
+
+        ResponseWriter.send(exchange, 201, jsonResponse);
     }
 
- 
     } catch (DatabaseException exception) {
-      sendResponse(exchange, 500, "Internal Server Error: " + exception.getMessage());
+      ResponseWriter.send(exchange, 500, "Internal Server Error: " + exception.getMessage());
 
     } catch (IllegalArgumentException exception) {
-      sendResponse(exchange, 400, "Validation Error: " + exception.getMessage());
+      ResponseWriter.send(exchange, 400, "Validation Error: " + exception.getMessage());
+
+    } catch (PayloadTooLargeException exception) {
+      ResponseWriter.send(exchange, 413, exception.getMessage());
 
     } catch (JsonProcessingException exception) {
-      sendResponse(exchange, 400, "Invalid JSON Format: " + exception.getMessage());
+      ResponseWriter.send(exchange, 400, "Invalid JSON Format: " + exception.getMessage());
 
     } catch (Exception exception) {
       System.err.println("Unexpected error: " + exception.getMessage());
-      sendResponse(exchange, 500, "Internal Server Error.");
+      ResponseWriter.send(exchange, 500, "Internal Server Error.");
     }
   }
 
-  private void sendResponse(HttpExchange exchange, int statusCode, String response)
-      throws IOException {
-
-    byte[] responseByte = response.getBytes(StandardCharsets.UTF_8);
-
-    exchange.getResponseHeaders().set("Content-Type", "application/json");
-    exchange.sendResponseHeaders(statusCode, responseByte.length);
-
-    try (OutputStream os = exchange.getResponseBody()) {
-      os.write(responseByte);
+  /*
+   * Waits for the future and rethrows its failure as it was thrown, so the
+   * catch blocks of handleAddProduct() see the same exceptions as before.
+   */
+  private static <T> T await(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException exception) {
+      if (exception.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) exception.getCause();
+      }
+      throw exception;
     }
   }
 
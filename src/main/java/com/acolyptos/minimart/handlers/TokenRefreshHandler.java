@@ -0,0 +1,64 @@
+package com.acolyptos.minimart.handlers;
+
+import java.io.IOException;
+import com.acolyptos.minimart.exceptions.PayloadTooLargeException;
+import com.acolyptos.minimart.models.LoginResponse;
+import com.acolyptos.minimart.models.RefreshTokenRequest;
+import com.acolyptos.minimart.server.RequestBody;
+import com.acolyptos.minimart.server.ResponseWriter;
+import com.acolyptos.minimart.utilities.JsonUtility;
+import com.acolyptos.minimart.utilities.JwtUtility;
+import com.acolyptos.minimart.utilities.VerifiedToken;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import io.jsonwebtoken.JwtException;
+
+/*
+ * Trades a refresh token for a new access token and a new refresh token,
+ * without a password check and without a database call.
+ *
+ * A refresh token can be used once: it is revoked by the exchange, so a
+ * stolen token that was already used is refused, and of two concurrent
+ * refreshes with the same token only one succeeds.
+ */
+public class TokenRefreshHandler implements HttpHandler {
+  private final JwtUtility jwtUtility;
+  private final JsonUtility json;
+
+  public TokenRefreshHandler(JwtUtility jwtUtility, JsonUtility json) {
+    this.jwtUtility = jwtUtility;
+    this.json = json;
+  }
+
+  @Override
+  public void handle(HttpExchange exchange) throws IOException {
+    try {
+      RefreshTokenRequest request = RequestBody.read(
+        exchange, json.getRefreshTokenReader()
+      );
+
+      VerifiedToken refreshToken = jwtUtility.verifyRefreshToken(request.getRefreshToken());
+      if (!jwtUtility.revokeToken(refreshToken)) {
+        ResponseWriter.send(exchange, 401, "Refresh token has already been used.");
+        return;
+      }
+
+      LoginResponse response = new LoginResponse(
+        "Token refreshed",
+        jwtUtility.generateToken(refreshToken.getUserId(), refreshToken.getRole()),
+        jwtUtility.generateRefreshToken(refreshToken.getUserId(), refreshToken.getRole())
+      );
+
+      byte[] jsonResponse = json.getLoginResponseWriter().writeValueAsBytes(response);
+      ResponseWriter.send(exchange, 200, jsonResponse);
+
+    } catch (PayloadTooLargeException exception) {
+      ResponseWriter.send(exchange, 413, exception.getMessage());
+    } catch (JsonProcessingException exception) {
+      ResponseWriter.send(exchange, 400, "Invalid JSON Format: " + exception.getMessage());
+    } catch (JwtException | IllegalArgumentException exception) {
+      ResponseWriter.send(exchange, 401, "Invalid refresh token: " + exception.getMessage());
+    }
+  }
+}
@@ -1,34 +1,51 @@
 package com.acolyptos.minimart.handlers;
 
 import java.io.IOException;
-import java.io.OutputStream;
-import java.nio.charset.StandardCharsets;
-import java.util.HashMap;
-import java.util.Map;
+import java.net.InetSocketAddress;
 import com.acolyptos.minimart.exceptions.AuthenticationException;
 import com.acolyptos.minimart.exceptions.DatabaseException;
+import com.acolyptos.minimart.exceptions.PayloadTooLargeException;
+import com.acolyptos.minimart.exceptions.ServiceUnavailableException;
+import com.acolyptos.minimart.models.LoginResponse;
 import com.acolyptos.minimart.models.User;
+import com.acolyptos.minimart.server.LoginRateLimiter;
+import com.acolyptos.minimart.server.RequestBody;
+import com.acolyptos.minimart.server.ResponseWriter;
+import com.acolyptos.minimart.server.TokenAuthenticator;
 import com.acolyptos.minimart.services.UserService;
-import com.acolyptos.minimart.utilities.JwtUtility;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.acolyptos.minimart.utilities.JsonUtility;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 
 /*
  * Handles user login requests via HTTP.
  * This class implements HttpHandler Interface.
+ *
+ * Every attempt is charged to the LoginRateLimiter before the password is
+ * checked, and refused with 429 when its address or username is over the
+ * limit.
  */
 public class UserLoginHandler implements HttpHandler {
   private final UserService userService;
-  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final LoginRateLimiter rateLimiter;
+  private final TokenAuthenticator authenticator;
+  private final JsonUtility json;
 
-  public UserLoginHandler(UserService userService) {
+  public UserLoginHandler(
+    UserService userService,
+    LoginRateLimiter rateLimiter,
+    TokenAuthenticator authenticator,
+    JsonUtility json
+  ) {
     this.userService = userService;
+    this.rateLimiter = rateLimiter;
+    this.authenticator = authenticator;
+    this.json = json;
   }
 
   /*
-   * Handles HTTP requests and determines if it is a POST request.
-   * Calls `handleLogin()` if valid, else send a 400 error response.
+   * Handles POST requests routed to the login endpoint.
+   * The RouteTable already rejects other methods with 405.
    *
    * @param exchange - The HTTP request/response object.
    *
@@ -36,52 +53,61 @@ public class UserLoginHandler implements HttpHandler {
    */
   @Override
   public void handle(HttpExchange exchange) throws IOException {
-    if ("POST".equalsIgnoreCase(exchange.getRequestMethod())) {
-      handleLogin(exchange);
-    } else {
-      sendResponse(exchange, 400, "Method Not Allowed.");
-    }
+    handleLogin(exchange);
   }
 
   private void handleLogin(HttpExchange exchange) throws IOException {
     try {
       // Parse incoming JSON request
-      User userLoginRequest = objectMapper.readValue(exchange.getRequestBody(), User.class);
+      User userLoginRequest = RequestBody.read(
+        exchange, json.getUserReader()
+      );
+
+      // Refuse the attempt before it costs a BCrypt check
+      if (userLoginRequest.getUsername() != null) {
+        InetSocketAddress remoteAddress = exchange.getRemoteAddress();
+        int retryAfterSeconds = rateLimiter.tryAcquire(
+          remoteAddress == null ? null : remoteAddress.getAddress(),
+          userLoginRequest.getUsername()
+        );
+        if (retryAfterSeconds > 0) {
+          exchange.getResponseHeaders().set("Retry-After", String.valueOf(retryAfterSeconds));
+          ResponseWriter.send(exchange, 429, "Too many login attempts.");
+          return;
+        }
+      }
 
       // Authenticate the user
       User authenticatedUser = userService.authenticateUser(userLoginRequest.getUsername(),
           userLoginRequest.getPassword());
 
-      // Prepare or Generate JWT Token
-      String token = JwtUtility.generateToken(authenticatedUser.getId().toString(),
-          authenticatedUser.getRole().toString());
+      // Prepare or Generate the token of the configured AuthMode
+      String token = authenticator.issueToken(authenticatedUser.getId().toString(),
+          authenticatedUser.getRole());
+      String refreshToken = authenticator.issueRefreshToken(authenticatedUser.getId().toString(),
+          authenticatedUser.getRole());
 
       // Prepare a response
-      Map<String, String> responseMap = new HashMap<>();
-      responseMap.put("message", "Login Successfull");
-      responseMap.put("token", token);
+      LoginResponse response = new LoginResponse("Login Successfull", token, refreshToken);
 
-      String jsonResponse = objectMapper.writeValueAsString(responseMap);
-      sendResponse(exchange, 200, jsonResponse);
+      byte[] jsonResponse = json.getLoginResponseWriter().writeValueAsBytes(response);
+      ResponseWriter.send(exchange, 200, jsonResponse);
 
+    } catch (PayloadTooLargeException exception) {
+      ResponseWriter.send(exchange, 413, exception.getMessage());
     } catch (IllegalArgumentException exception) {
-      sendResponse(exchange, 400, "Missing Field: " + exception.getMessage());
+      ResponseWriter.send(exchange, 400, "Missing Field: " + exception.getMessage());
+    } catch (ServiceUnavailableException exception) {
+      exchange.getResponseHeaders().set(
+        "Retry-After", String.valueOf(exception.getRetryAfterSeconds())
+      );
+      ResponseWriter.send(exchange, 503, exception.getMessage());
     } catch (AuthenticationException exception) {
-      sendResponse(exchange, 401, "Failed in Authenticating User: " + exception.getMessage());
+      ResponseWriter.send(exchange, 401, "Failed in Authenticating User: " + exception.getMessage());
     } catch (DatabaseException exception) {
-      sendResponse(exchange, 500, "Internal Server Error: " + exception.getMessage());
+      ResponseWriter.send(exchange, 500, "Internal Server Error: " + exception.getMessage());
     } catch (Exception exception) {
-      sendResponse(exchange, 400, "Invalid Request: " + exception.getMessage());
+      ResponseWriter.send(exchange, 400, "Invalid Request: " + exception.getMessage());
     }
   }
-
-  private void sendResponse(HttpExchange exchange, int statusCode, String response) throws IOException {
-    exchange.getResponseHeaders().set("Content-Type", "application/json");
-    exchange.sendResponseHeaders(statusCode, response.getBytes(StandardCharsets.UTF_8).length);
-
-    try (OutputStream os = exchange.getResponseBody()) {
-      os.write(response.getBytes(StandardCharsets.UTF_8));
-    }
-  }
-
 }
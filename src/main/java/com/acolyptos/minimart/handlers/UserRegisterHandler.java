@@ -1,19 +1,21 @@
 package com.acolyptos.minimart.handlers;
 
 import java.io.IOException;
-import java.io.OutputStream;
-import java.nio.charset.StandardCharsets;
-import java.util.HashMap;
-import java.util.Map;
 import org.bson.types.ObjectId;
+import com.acolyptos.minimart.exceptions.AuthenticationException;
 import com.acolyptos.minimart.exceptions.DatabaseException;
+import com.acolyptos.minimart.exceptions.PayloadTooLargeException;
+import com.acolyptos.minimart.exceptions.ServiceUnavailableException;
 import com.acolyptos.minimart.models.Role;
 import com.acolyptos.minimart.models.UserRegistrationRequest;
+import com.acolyptos.minimart.models.UserRegistrationResponse;
+import com.acolyptos.minimart.server.RequestBody;
+import com.acolyptos.minimart.server.ResponseWriter;
 import com.acolyptos.minimart.services.EmployeeService;
 import com.acolyptos.minimart.services.ManagerService;
 import com.acolyptos.minimart.services.UserService;
+import com.acolyptos.minimart.utilities.JsonUtility;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 
@@ -28,14 +30,11 @@ public class UserRegisterHandler implements HttpHandler {
   private final UserService userService;
   private final EmployeeService employeeService;
   private final ManagerService managerService;
-  private final ObjectMapper objectMapper = new ObjectMapper();
-
-  private ObjectId employeeId;
-  private ObjectId managerId;
+  private final JsonUtility json;
 
   /*
-   * Handles HTTP requests and determines if it is a POST request.
-   * Calls `handleRegisterUser()` if valid, else return 400 error.
+   * Handles POST requests routed to the registration endpoint.
+   * The RouteTable already rejects other methods with 405.
    *
    * @param exchange - The HTTP request/response object.
    * 
@@ -43,22 +42,23 @@ public class UserRegisterHandler implements HttpHandler {
    */
   @Override
   public void handle(HttpExchange exchange) throws IOException {
-    if ("POST".equalsIgnoreCase(exchange.getRequestMethod())) {
-      handleRegisterUser(exchange);
-
-    } else {
-      sendResponse(exchange, 400, "Method not Allowed.");
-    }
+    handleRegisterUser(exchange);
   }
 
   /*
    * Initializes the UserRegisterHandler and establishes the access to
    * UserService, EmployeeService, and ManagerService
    */
-  public UserRegisterHandler(UserService userService, EmployeeService employeeService, ManagerService managerService) {
+  public UserRegisterHandler(
+    UserService userService,
+    EmployeeService employeeService,
+    ManagerService managerService,
+    JsonUtility json
+  ) {
     this.userService = userService;
     this.employeeService = employeeService;
     this.managerService = managerService;
+    this.json = json;
   }
 
   /*
@@ -72,66 +72,62 @@ public class UserRegisterHandler implements HttpHandler {
   private void handleRegisterUser(HttpExchange exchange) throws IOException {
     try {
       // Using a dedicated object instance to handle the request
-      UserRegistrationRequest request = objectMapper.readValue(exchange.getRequestBody(),
-          UserRegistrationRequest.class);
+      UserRegistrationRequest request = RequestBody.read(
+        exchange, json.getUserRegistrationReader()
+      );
 
       // Split the value to the user and employee/manager then process these request
+      // The handler is shared by every request, so the ids stay local.
       ObjectId userId = userService.createUser(request.getUsername(), request.getPassword(), request.getRole());
+      String employeeHexId = null;
+      String managerHexId = null;
 
       if (request.getRole().equalsIgnoreCase(Role.EMPLOYEE.toString())) {
-        employeeId = employeeService.createEmployee(request.getName(), request.getEmail(), userId);
+        employeeHexId = employeeService
+          .createEmployee(request.getName(), request.getEmail(), userId)
+          .toHexString();
 
       } else if (request.getRole().equalsIgnoreCase(Role.MANAGER.toString())) {
-        managerId = managerService.createManager(request.getName(), request.getEmail(), userId);
+        managerHexId = managerService
+          .createManager(request.getName(), request.getEmail(), userId)
+          .toHexString();
       }
 
       // Prepare a response JSON to the client
-      Map<String, String> responseMap = new HashMap<>();
-      responseMap.put("message", "User successfully created");
-      responseMap.put("userId", userId.toHexString());
 
-      if (request.getRole().equalsIgnoreCase(Role.EMPLOYEE.toString())) {
-        responseMap.put("employeeId", employeeId.toHexString());
+      UserRegistrationResponse response = new UserRegistrationResponse(
+        "User successfully created", userId.toHexString(), employeeHexId, managerHexId
+      );
 
-      } else if (request.getRole().equalsIgnoreCase(Role.MANAGER.toString())) {
-        responseMap.put("managerId", managerId.toHexString());
-      }
+      byte[] jsonResponse = json.getUserRegistrationResponseWriter()
+        .writeValueAsBytes(response);
+      ResponseWriter.send(exchange, 201, jsonResponse);
+
+    } catch (ServiceUnavailableException exception) {
+      exchange.getResponseHeaders().set(
+        "Retry-After", String.valueOf(exception.getRetryAfterSeconds())
+      );
+      ResponseWriter.send(exchange, 503, exception.getMessage());
 
-      String jsonResponse = objectMapper.writeValueAsString(responseMap);
-      sendResponse(exchange, 201, jsonResponse);
+    } catch (AuthenticationException exception) {
+      ResponseWriter.send(exchange, 409, exception.getMessage());
 
     } catch (DatabaseException exception) {
-      sendResponse(exchange, 500, "Internal Server Error: " + exception.getMessage());
+      ResponseWriter.send(exchange, 500, "Internal Server Error: " + exception.getMessage());
 
     } catch (IllegalArgumentException exception) {
-      sendResponse(exchange, 400, "Validation Error: " + exception.getMessage());
+      ResponseWriter.send(exchange, 400, "Validation Error: " + exception.getMessage());
+
+    } catch (PayloadTooLargeException exception) {
+      ResponseWriter.send(exchange, 413, exception.getMessage());
 
     } catch (JsonProcessingException exception) {
-      sendResponse(exchange, 400, "Invalid JSON Format: " + exception.getMessage());
+      ResponseWriter.send(exchange, 400, "Invalid JSON Format: " + exception.getMessage());
 
     } catch (Exception exception) {
       System.err.println("Unexpected error: " + exception.getMessage());
-      sendResponse(exchange, 500, "Internal Server Error.");
+      ResponseWriter.send(exchange, 500, "Internal Server Error.");
     }
   }
 
-  /*
-   * Processes the JSON reponse content based on the result of the handler
-   *
-   * @params exchange - The request/response object
-   *
-   * @params statusCode - The code that will be set to the headers
-   *
-   * @params response - The body of the HTTP response that will be sent
-   *
-   * @throws IOException if the error in processing response occurs
-   */
-  private void sendResponse(HttpExchange exchange, int statusCode, String response) throws IOException {
-    exchange.getResponseHeaders().set("Content-Type", "application/json");
-    exchange.sendResponseHeaders(statusCode, response.getBytes(StandardCharsets.UTF_8).length);
-
-    try (OutputStream os = exchange.getResponseBody()) {
-      os.write(response.getBytes(StandardCharsets.UTF_8));
-    }
-  }
 }
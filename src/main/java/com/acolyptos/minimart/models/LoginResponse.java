@@ -0,0 +1,36 @@
+package com.acolyptos.minimart.models;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/*
+ * Response of a login or a token refresh. The refresh token is left out of
+ * the JSON when none was issued.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class LoginResponse {
+  private final String message;
+  private final String token;
+  private final String refreshToken;
+
+  public LoginResponse(String message, String token) {
+    this(message, token, null);
+  }
+
+  public LoginResponse(String message, String token, String refreshToken) {
+    this.message = message;
+    this.token = token;
+    this.refreshToken = refreshToken;
+  }
+
+  public String getMessage() {
+    return message;
+  }
+
+  public String getToken() {
+    return token;
+  }
+
+  public String getRefreshToken() {
+    return refreshToken;
+  }
+}
@@ -35,6 +35,9 @@ public class Product {
     this.price = price;
   }
 
+  public ObjectId getId () { return id; }
+  public void setId (ObjectId id) { this.id = id; }
+
   public String getName () { return name; }
   public void setName (String name) { this.name = name; }
 
@@ -0,0 +1,19 @@
+package com.acolyptos.minimart.models;
+
+public class ProductRegistrationResponse {
+  private final String message;
+  private final String productId;
+
+  public ProductRegistrationResponse(String message, String productId) {
+    this.message = message;
+    this.productId = productId;
+  }
+
+  public String getMessage() {
+    return message;
+  }
+
+  public String getProductId() {
+    return productId;
+  }
+}
@@ -0,0 +1,16 @@
+package com.acolyptos.minimart.models;
+
+public class RefreshTokenRequest {
+
+  private String refreshToken;
+
+  public RefreshTokenRequest () {}
+
+  public String getRefreshToken() {
+    return refreshToken;
+  }
+
+  public void setRefreshToken(String refreshToken) {
+    this.refreshToken = refreshToken;
+  }
+}
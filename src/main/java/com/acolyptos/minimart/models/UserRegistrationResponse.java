@@ -0,0 +1,43 @@
+package com.acolyptos.minimart.models;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/*
+ * Response of a registration. Only one of employeeId and managerId is set,
+ * depending on the role, and the other one is left out of the JSON.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserRegistrationResponse {
+  private final String message;
+  private final String userId;
+  private final String employeeId;
+  private final String managerId;
+
+  public UserRegistrationResponse(
+    String message,
+    String userId,
+    String employeeId,
+    String managerId
+  ) {
+    this.message = message;
+    this.userId = userId;
+    this.employeeId = employeeId;
+    this.managerId = managerId;
+  }
+
+  public String getMessage() {
+    return message;
+  }
+
+  public String getUserId() {
+    return userId;
+  }
+
+  public String getEmployeeId() {
+    return employeeId;
+  }
+
+  public String getManagerId() {
+    return managerId;
+  }
+}
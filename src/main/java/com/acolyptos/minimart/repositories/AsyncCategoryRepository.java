@@ -0,0 +1,70 @@
+package com.acolyptos.minimart.repositories;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.bson.types.ObjectId;
+import com.acolyptos.minimart.database.AsyncResults;
+import com.acolyptos.minimart.exceptions.ResourceNotFoundException;
+import com.acolyptos.minimart.models.Category;
+import com.mongodb.client.model.Filters;
+import com.mongodb.reactivestreams.client.MongoCollection;
+
+/*
+ * The CategoryRepository on the reactive driver. No thread waits while a
+ * query is in flight, each method returns at once with a future that fails
+ * with the same exceptions the sync repository throws: a
+ * ResourceNotFoundException when nothing matches and a DatabaseException
+ * when MongoDB fails.
+ */
+public class AsyncCategoryRepository {
+  private final MongoCollection<Category> categoryCollection;
+
+  public AsyncCategoryRepository (MongoCollection<Category> categoryCollection) {
+    this.categoryCollection = categoryCollection;
+  }
+
+  public CompletableFuture<Void> insertCategory (Category category) {
+    return AsyncResults.first(categoryCollection.insertOne(category))
+      .thenApply(result -> null);
+  }
+
+  public CompletableFuture<Category> getCategoryById (ObjectId id) {
+    return AsyncResults.first(categoryCollection.find(Filters.eq("_id", id)).first())
+      .thenApply(category -> {
+        if (category == null) {
+          throw new ResourceNotFoundException("Category with id: " + id + " not found.");
+        }
+        return category;
+      });
+  }
+
+  public CompletableFuture<Category> getCategoryByName (String name) {
+    return AsyncResults.first(categoryCollection.find(Filters.eq("name", name)).first())
+      .thenApply(category -> {
+        if (category == null) {
+          throw new ResourceNotFoundException("Category with name: " + name + " not found.");
+        }
+        return category;
+      });
+  }
+
+  public CompletableFuture<List<Category>> getAllCategories () {
+    return AsyncResults.toList(categoryCollection.find())
+      .thenApply(categories -> {
+        if (categories.isEmpty()) {
+          throw new ResourceNotFoundException("No category found in the database.");
+        }
+        return categories;
+      });
+  }
+
+  public CompletableFuture<Boolean> deleteCategory (ObjectId id) {
+    return AsyncResults.first(categoryCollection.deleteOne(Filters.eq("_id", id)))
+      .thenApply(result -> {
+        if (result.getDeletedCount() == 0) {
+          throw new ResourceNotFoundException("Category not found.");
+        }
+        return true;
+      });
+  }
+}
@@ -0,0 +1,54 @@
+package com.acolyptos.minimart.repositories;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.bson.types.ObjectId;
+import com.acolyptos.minimart.database.AsyncResults;
+import com.acolyptos.minimart.exceptions.ResourceNotFoundException;
+import com.acolyptos.minimart.models.Product;
+import com.mongodb.client.model.Filters;
+import com.mongodb.reactivestreams.client.MongoCollection;
+
+/*
+ * The ProductRepository on the reactive driver, see AsyncCategoryRepository.
+ */
+public class AsyncProductRepository {
+  private final MongoCollection<Product> productCollection;
+
+  public AsyncProductRepository (MongoCollection<Product> productCollection) {
+    this.productCollection = productCollection;
+  }
+
+  public CompletableFuture<ObjectId> insertProduct (Product product) {
+    return AsyncResults.first(productCollection.insertOne(product))
+      .thenApply(result -> result.getInsertedId().asObjectId().getValue());
+  }
+
+  public CompletableFuture<Product> getProductById (ObjectId id) {
+    return AsyncResults.first(productCollection.find(Filters.eq("_id", id)).first())
+      .thenApply(product -> {
+        if (product == null) {
+          throw new ResourceNotFoundException("Product with id: " + id + " not found.");
+        }
+        return product;
+      });
+  }
+
+  public CompletableFuture<List<Product>> getProductsByCategory (ObjectId categoryId) {
+    return AsyncResults.toList(productCollection.find(Filters.eq("categoryId", categoryId)));
+  }
+
+  public CompletableFuture<List<Product>> getProductsBySupplier (ObjectId supplierId) {
+    return AsyncResults.toList(productCollection.find(Filters.eq("supplierId", supplierId)));
+  }
+
+  public CompletableFuture<Boolean> deleteProduct (ObjectId id) {
+    return AsyncResults.first(productCollection.deleteOne(Filters.eq("_id", id)))
+      .thenApply(result -> {
+        if (result.getDeletedCount() == 0) {
+          throw new ResourceNotFoundException("Product not found.");
+        }
+        return true;
+      });
+  }
+}
@@ -0,0 +1,66 @@
+package com.acolyptos.minimart.repositories;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.bson.types.ObjectId;
+import com.acolyptos.minimart.database.AsyncResults;
+import com.acolyptos.minimart.exceptions.ResourceNotFoundException;
+import com.acolyptos.minimart.models.Supplier;
+import com.mongodb.client.model.Filters;
+import com.mongodb.reactivestreams.client.MongoCollection;
+
+/*
+ * The SupplierRepository on the reactive driver, see AsyncCategoryRepository.
+ */
+public class AsyncSupplierRepository {
+  private final MongoCollection<Supplier> supplierCollection;
+
+  public AsyncSupplierRepository (MongoCollection<Supplier> supplierCollection) {
+    this.supplierCollection = supplierCollection;
+  }
+
+  public CompletableFuture<ObjectId> insertSupplier (Supplier supplier) {
+    return AsyncResults.first(supplierCollection.insertOne(supplier))
+      .thenApply(result -> result.getInsertedId().asObjectId().getValue());
+  }
+
+  public CompletableFuture<Supplier> getSupplierById (ObjectId id) {
+    return AsyncResults.first(supplierCollection.find(Filters.eq("_id", id)).first())
+      .thenApply(supplier -> {
+        if (supplier == null) {
+          throw new ResourceNotFoundException("Supplier with id: " + id + " not found.");
+        }
+        return supplier;
+      });
+  }
+
+  public CompletableFuture<Supplier> getSupplierByName (String name) {
+    return AsyncResults.first(supplierCollection.find(Filters.eq("name", name)).first())
+      .thenApply(supplier -> {
+        if (supplier == null) {
+          throw new ResourceNotFoundException("Supplier with name: " + name + " not found.");
+        }
+        return supplier;
+      });
+  }
+
+  public CompletableFuture<List<Supplier>> getAllSuppliers () {
+    return AsyncResults.toList(supplierCollection.find())
+      .thenApply(suppliers -> {
+        if (suppliers.isEmpty()) {
+          throw new ResourceNotFoundException("No suppliers found in the database.");
+        }
+        return suppliers;
+      });
+  }
+
+  public CompletableFuture<Boolean> deleteSupplier (ObjectId id) {
+    return AsyncResults.first(supplierCollection.deleteOne(Filters.eq("_id", id)))
+      .thenApply(result -> {
+        if (result.getDeletedCount() == 0) {
+          throw new ResourceNotFoundException("Supplier not found.");
+        }
+        return true;
+      });
+  }
+}
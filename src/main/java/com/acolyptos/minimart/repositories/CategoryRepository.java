@@ -5,8 +5,7 @@ import java.util.List;
 import org.bson.types.ObjectId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import com.acolyptos.minimart.database.DatabaseProvider;
-import com.acolyptos.minimart.database.MongoDB;
+import com.acolyptos.minimart.database.IndexRegistry;
 import com.acolyptos.minimart.exceptions.DatabaseException;
 import com.acolyptos.minimart.exceptions.ResourceNotFoundException;
 import com.acolyptos.minimart.models.Category;
@@ -27,11 +26,9 @@ public class CategoryRepository {
     this.categoryCollection = categoryCollection;
   }
 
-  public CategoryRepository () {
-    DatabaseProvider database = new MongoDB();
-    this.categoryCollection = database
-      .getDatabase()
-      .getCollection("categories", Category.class);
+  // Products reference their category by name, which must be unique.
+  public void registerIndexes (IndexRegistry registry) {
+    registry.unique(categoryCollection, "name");
   }
 
   public void insertCategory (Category category) {
@@ -3,8 +3,7 @@ package com.acolyptos.minimart.repositories;
 import java.util.ArrayList;
 import java.util.List;
 import org.bson.types.ObjectId;
-import com.acolyptos.minimart.database.DatabaseProvider;
-import com.acolyptos.minimart.database.MongoDB;
+import com.acolyptos.minimart.database.IndexRegistry;
 import com.acolyptos.minimart.exceptions.DatabaseException;
 import com.acolyptos.minimart.exceptions.ResourceNotFoundException;
 import com.acolyptos.minimart.models.Employee;
@@ -26,21 +25,20 @@ import com.mongodb.client.result.InsertOneResult;
 public class EmployeeRepository {
   private final MongoCollection<Employee> employeeCollection;
 
-  /*
-   * Initializes the EmployeeRepository and establishes a connection to
-   * the "employees" collection.
-   */
-  public EmployeeRepository() {
-    DatabaseProvider mongoDB = new MongoDB();
-    this.employeeCollection = mongoDB
-      .getDatabase()
-      .getCollection("employees", Employee.class);
-  }
-
   public EmployeeRepository(MongoCollection<Employee> employeeCollection) {
     this.employeeCollection = employeeCollection;
   }
 
+  /*
+   * Declares the index on the employee name. People may share a name, so
+   * unlike the usernames it is not unique.
+   *
+   * @param registry - The registry that creates the indexes at startup.
+   */
+  public void registerIndexes(IndexRegistry registry) {
+    registry.ascending(employeeCollection, "name");
+  }
+
   /*
    * Inserts new employee into the MongoDB collection.
    *
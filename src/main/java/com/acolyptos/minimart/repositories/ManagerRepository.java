@@ -3,8 +3,7 @@ package com.acolyptos.minimart.repositories;
 import java.util.ArrayList;
 import java.util.List;
 import org.bson.types.ObjectId;
-import com.acolyptos.minimart.database.DatabaseProvider;
-import com.acolyptos.minimart.database.MongoDB;
+import com.acolyptos.minimart.database.IndexRegistry;
 import com.acolyptos.minimart.exceptions.DatabaseException;
 import com.acolyptos.minimart.exceptions.ResourceNotFoundException;
 import com.acolyptos.minimart.models.Manager;
@@ -31,12 +30,13 @@ public class ManagerRepository {
   }
 
   /*
-   * Initializes the ManagerRepository and estableshes a connection to
-   * the "managers" colloection.
+   * Declares the index on the manager name. People may share a name, so
+   * unlike the usernames it is not unique.
+   *
+   * @param registry - The registry that creates the indexes at startup.
    */
-  public ManagerRepository() {
-    DatabaseProvider mongoDB = new MongoDB();
-    this.managerCollection = mongoDB.getDatabase().getCollection("managers", Manager.class);
+  public void registerIndexes(IndexRegistry registry) {
+    registry.ascending(managerCollection, "name");
   }
 
   /*
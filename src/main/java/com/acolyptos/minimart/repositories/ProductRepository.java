@@ -2,9 +2,9 @@ package com.acolyptos.minimart.repositories;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 import org.bson.types.ObjectId;
-import com.acolyptos.minimart.database.DatabaseProvider;
-import com.acolyptos.minimart.database.MongoDB;
+import com.acolyptos.minimart.database.IndexRegistry;
 import com.acolyptos.minimart.exceptions.DatabaseException;
 import com.acolyptos.minimart.exceptions.ResourceNotFoundException;
 import com.acolyptos.minimart.models.Product;
@@ -26,11 +26,10 @@ public class ProductRepository {
     this.productCollection = productCollection;
   }
 
-  public ProductRepository () {
-    DatabaseProvider database = new MongoDB();
-    productCollection = database
-      .getDatabase()
-      .getCollection("products", Product.class);
+  // Backs the product lookups by category and by supplier.
+  public void registerIndexes (IndexRegistry registry) {
+    registry.ascending(productCollection, "categoryId");
+    registry.ascending(productCollection, "supplierId");
   }
 
   public ObjectId insertProduct (Product product) {
@@ -157,6 +156,38 @@ public class ProductRepository {
     }
   }
 
+  /*
+   * Walks every product with a database cursor, handing them over one by
+   * one instead of collecting them into a list first.
+   *
+   * @param consumer - Receives each product in natural order.
+   *
+   * @throws DatabaseException if the query fails.
+   */
+  public void forEachProduct (Consumer<Product> consumer) {
+    try {
+      productCollection.find().forEach(consumer);
+
+    } catch (MongoQueryException exception) {
+      throw new DatabaseException(
+        "Query Execution Failed: " + exception.getMessage(), 
+        exception
+      );
+
+    } catch (MongoTimeoutException exception) {
+      throw new DatabaseException(
+        "Database Timeout: " + exception.getMessage(), 
+        exception
+      );
+
+    } catch (MongoException exception) {
+      throw new DatabaseException(
+        "MongoDB Error: " + exception.getMessage(), 
+        exception
+      );
+    }
+  }
+
   public boolean deleteProduct (ObjectId id) {
     try {
       DeleteResult result = productCollection.deleteOne(Filters.eq("_id", id));
@@ -5,8 +5,7 @@ import java.util.List;
 import org.bson.types.ObjectId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import com.acolyptos.minimart.database.DatabaseProvider;
-import com.acolyptos.minimart.database.MongoDB;
+import com.acolyptos.minimart.database.IndexRegistry;
 import com.acolyptos.minimart.exceptions.DatabaseException;
 import com.acolyptos.minimart.exceptions.ResourceNotFoundException;
 import com.acolyptos.minimart.models.Supplier;
@@ -25,17 +24,15 @@ public class SupplierRepository {
   private final MongoCollection<Supplier> supplierCollection;
   private final Logger LOG = LoggerFactory.getLogger(SupplierRepository.class);
 
-  public SupplierRepository () {
-    DatabaseProvider database = new MongoDB();
-    this.supplierCollection = database
-      .getDatabase()
-      .getCollection("suppliers", Supplier.class);
-  }
-
   public SupplierRepository (MongoCollection<Supplier> supplierCollection) {
     this.supplierCollection = supplierCollection;
   }
 
+  // Products reference their supplier by name, which must be unique.
+  public void registerIndexes (IndexRegistry registry) {
+    registry.unique(supplierCollection, "name");
+  }
+
   public ObjectId insertSupplier (Supplier supplier) {
     try {
       InsertOneResult result = supplierCollection.insertOne(supplier);
@@ -2,11 +2,15 @@ package com.acolyptos.minimart.repositories;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
+import org.bson.Document;
 import org.bson.types.ObjectId;
-import com.acolyptos.minimart.database.MongoDB;
+import com.acolyptos.minimart.database.IndexRegistry;
 import com.acolyptos.minimart.exceptions.DatabaseException;
+import com.acolyptos.minimart.exceptions.DuplicateResourceException;
 import com.acolyptos.minimart.exceptions.ResourceNotFoundException;
 import com.acolyptos.minimart.models.User;
+import com.mongodb.ErrorCategory;
 import com.mongodb.MongoException;
 import com.mongodb.MongoQueryException;
 import com.mongodb.MongoTimeoutException;
@@ -15,8 +19,10 @@ import com.mongodb.MongoWriteException;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.model.Filters;
 import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Updates;
 import com.mongodb.client.result.DeleteResult;
 import com.mongodb.client.result.InsertOneResult;
+import com.mongodb.client.result.UpdateResult;
 
 /*
  * Repository class for managing User-related database operations.
@@ -25,17 +31,6 @@ import com.mongodb.client.result.InsertOneResult;
 */
 public class UserRepository {
   private final MongoCollection<User> userCollection;
-  
-  /*
-   * Initializes the UserRepository and establishes a connection to
-   * the "users" collection.
-   */
-  public UserRepository() {
-    MongoDB database = new MongoDB();
-    this.userCollection = database
-    .getDatabase()
-    .getCollection("users", User.class);
-  }
 
   public UserRepository(MongoCollection<User> userCollection) {
     this.userCollection = userCollection;
@@ -48,6 +43,8 @@ public class UserRepository {
    * 
    * @return The unique ObjectId of the inserted User.
    *
+   * @throws DuplicateResourceException if the username is already taken.
+   *
    * @throws DatabaseException if the database error occurs during insertion.
    */
   public ObjectId insertUser(User user) {
@@ -56,6 +53,12 @@ public class UserRepository {
       return result.getInsertedId().asObjectId().getValue();
 
     } catch (MongoWriteException exception) {
+      if (exception.getError().getCategory() == ErrorCategory.DUPLICATE_KEY) {
+        throw new DuplicateResourceException(
+          "Username " + user.getUsername() + " already exists.", exception
+        );
+      }
+
       // Handles issues like duplicate key errors or other data constraints
       System.err.println("Write Error " + exception.getError().getMessage());
       throw new DatabaseException(
@@ -165,6 +168,124 @@ public class UserRepository {
     }
   }
 
+  /*
+   * Checks whether a username is taken, without building a User or an
+   * exception when it is not.
+   *
+   * @param username - The username to look up.
+   *
+   * @return true if a User has this username.
+   *
+   * @throws DatabaseException if an error occurs during retrieval process.
+   */
+  public boolean usernameExists(String username) {
+    try {
+      return userCollection
+          .find(Filters.eq("username", username))
+          .projection(Projections.include("_id"))
+          .limit(1)
+          .first() != null;
+
+    } catch (MongoQueryException exception) {
+      throw new DatabaseException(
+        "Query Execution Failed: " + exception.getMessage(), exception
+      );
+
+    } catch (MongoTimeoutException exception) {
+      throw new DatabaseException(
+        "Database Timeout: " + exception.getMessage(), exception
+      );
+
+    } catch (MongoException exception) {
+      throw new DatabaseException(
+        "MongoDB Error: " + exception.getMessage(), exception
+      );
+    }
+  }
+
+  /*
+   * Passes the username of every User to the consumer, reading only that
+   * field.
+   *
+   * @param consumer - Receives each username.
+   *
+   * @throws DatabaseException if an error occurs during retrieval process.
+   */
+  public void forEachUsername(Consumer<String> consumer) {
+    try {
+      for (User user : userCollection
+          .find()
+          .projection(Projections.include("username"))) {
+        consumer.accept(user.getUsername());
+      }
+
+    } catch (MongoQueryException exception) {
+      throw new DatabaseException(
+        "Query Execution Failed: " + exception.getMessage(), exception
+      );
+
+    } catch (MongoTimeoutException exception) {
+      throw new DatabaseException(
+        "Database Timeout: " + exception.getMessage(), exception
+      );
+
+    } catch (MongoException exception) {
+      throw new DatabaseException(
+        "MongoDB Error: " + exception.getMessage(), exception
+      );
+    }
+  }
+
+  /*
+   * @return The number of users from the collection metadata, without
+   * scanning the collection.
+   *
+   * @throws DatabaseException if an error occurs while reading the count.
+   */
+  public long estimateUserCount() {
+    try {
+      return userCollection.estimatedDocumentCount();
+
+    } catch (MongoException exception) {
+      throw new DatabaseException(
+        "MongoDB Error: " + exception.getMessage(), exception
+      );
+    }
+  }
+
+  /*
+   * Declares the unique index on the username, which is what finally
+   * rejects a duplicate username.
+   *
+   * @param registry - The registry that creates the indexes at startup.
+   */
+  public void registerIndexes(IndexRegistry registry) {
+    registry.unique(userCollection, "username");
+  }
+
+  /*
+   * @return true if the unique username index exists.
+   *
+   * @throws DatabaseException if the indexes cannot be listed.
+   */
+  public boolean hasUniqueUsernameIndex() {
+    try {
+      for (Document index : userCollection.listIndexes()) {
+        Document keys = index.get("key", Document.class);
+        if (keys != null && keys.size() == 1 && keys.containsKey("username")
+            && index.getBoolean("unique", false)) {
+          return true;
+        }
+      }
+      return false;
+
+    } catch (MongoException exception) {
+      throw new DatabaseException(
+        "MongoDB Error: " + exception.getMessage(), exception
+      );
+    }
+  }
+
   /*
    * Retrieves all Employee documents stored in the database.
    * 
@@ -209,6 +330,46 @@ public class UserRepository {
     }
   }
 
+  /*
+   * Replaces the password hash of a User, only if it still holds the hash
+   * the new one was derived from. A password changed in the meantime is
+   * never overwritten.
+   *
+   * @param id - The unique ObjectId of the User.
+   *
+   * @param currentHash - The hash expected in the database.
+   *
+   * @param newHash - The hash to store.
+   *
+   * @return true if the hash was replaced, false otherwise.
+   *
+   * @throws DatabaseException if error occurs during the update.
+   */
+  public boolean updatePassword(ObjectId id, String currentHash, String newHash) {
+    try {
+      UpdateResult result = userCollection.updateOne(
+        Filters.and(Filters.eq("_id", id), Filters.eq("password", currentHash)),
+        Updates.set("password", newHash)
+      );
+
+      return result.getModifiedCount() == 1;
+    } catch (MongoWriteConcernException exception) {
+      throw new DatabaseException(
+        "Write Concern Failed: " + exception.getMessage(), exception
+      );
+
+    } catch (MongoWriteException exception) {
+      throw new DatabaseException(
+        "Write Failed: " + exception.getError().getMessage(), exception
+      );
+
+    } catch (MongoException exception) {
+      throw new DatabaseException(
+        "MongoDB Error: " + exception.getMessage(), exception
+      );
+    }
+  }
+
   /*
    * Deletes a User from the database using their unique ObjectId.
    * 
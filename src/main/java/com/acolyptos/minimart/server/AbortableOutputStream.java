@@ -0,0 +1,52 @@
+package com.acolyptos.minimart.server;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/*
+ * Response body stream that can be aborted half way. Once aborted, writes
+ * are dropped and close() fails instead of closing the stream underneath,
+ * so the exchange closes the connection without ending the body properly
+ * and the client sees an incomplete response rather than a short one.
+ */
+final class AbortableOutputStream extends FilterOutputStream {
+  private boolean aborted;
+
+  AbortableOutputStream(OutputStream out) {
+    super(out);
+  }
+
+  void abort() {
+    aborted = true;
+  }
+
+  @Override
+  public void write(int value) throws IOException {
+    if (!aborted) {
+      out.write(value);
+    }
+  }
+
+  @Override
+  public void write(byte[] bytes, int offset, int length) throws IOException {
+    if (!aborted) {
+      out.write(bytes, offset, length);
+    }
+  }
+
+  @Override
+  public void flush() throws IOException {
+    if (!aborted) {
+      out.flush();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (aborted) {
+      throw new IOException("Response aborted.");
+    }
+    out.close();
+  }
+}
@@ -0,0 +1,46 @@
+package com.acolyptos.minimart.server;
+
+import java.io.IOException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+
+/*
+ * Hands every exchange to a BoundedWorkerPool. When the pool queue is full
+ * the exchange is answered immediately with 429 and a Retry-After header,
+ * from the thread that accepted it, instead of waiting for a worker.
+ */
+public class AdmissionFilter extends Filter {
+  private static final Logger LOG = LoggerFactory.getLogger(AdmissionFilter.class);
+
+  private final BoundedWorkerPool workerPool;
+  private final String retryAfterSeconds;
+
+  public AdmissionFilter(BoundedWorkerPool workerPool, int retryAfterSeconds) {
+    this.workerPool = workerPool;
+    this.retryAfterSeconds = String.valueOf(retryAfterSeconds);
+  }
+
+  @Override
+  public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+    boolean admitted = workerPool.tryExecute(() -> {
+      try {
+        chain.doFilter(exchange);
+      } catch (IOException | RuntimeException exception) {
+        LOG.error("Unhandled error while processing exchange: " + exception.getMessage());
+        exchange.close();
+      }
+    });
+
+    if (!admitted) {
+      exchange.getResponseHeaders().set("Retry-After", retryAfterSeconds);
+      ResponseWriter.sendEmpty(exchange, 429);
+    }
+  }
+
+  @Override
+  public String description() {
+    return "Queues exchanges on a bounded worker pool and sheds load with 429.";
+  }
+}
@@ -0,0 +1,63 @@
+package com.acolyptos.minimart.server;
+
+import com.acolyptos.minimart.config.AppConfig;
+import com.acolyptos.minimart.utilities.JwtUtility;
+
+/*
+ * Describes the kind of bearer token handed out at login.
+ *
+ * JWT issues signed, self-contained tokens that any instance can verify,
+ * with refresh tokens and a revocation list for logouts. SESSION issues
+ * random opaque tokens backed by a SessionStore in this process, which
+ * skips the signature check on every request and revokes at once, but
+ * only works with a single instance or sticky routing.
+ */
+public enum AuthMode {
+  JWT,
+  SESSION;
+
+  /*
+   * Reads the mode and the session settings from the configuration.
+   *
+   * AUTH_MODE - JWT or SESSION, JWT by default.
+   * SESSION_MAX - Sessions kept before the least recently used is evicted, 100000 by default.
+   * SESSION_IDLE_TIMEOUT_SECONDS - Time without use after which a session expires, 1800 by default.
+   * SESSION_STRIPES - Independently locked parts of the store, 64 by default.
+   *
+   * @param config - The configuration of the application.
+   *
+   * @param jwtUtility - Issues and verifies the tokens of the JWT mode.
+   *
+   * @return The authenticator of the configured mode.
+   */
+  public static TokenAuthenticator createFromConfig(AppConfig config, JwtUtility jwtUtility) {
+    AuthMode mode = fromValue(config.getString("AUTH_MODE", JWT.name()));
+
+    if (mode == SESSION) {
+      return new SessionAuthenticator(new SessionStore(
+        config.getInt("SESSION_MAX", 100_000),
+        config.getLong("SESSION_IDLE_TIMEOUT_SECONDS", 1800),
+        config.getInt("SESSION_STRIPES", 64)
+      ));
+    }
+    return new JwtAuthenticator(jwtUtility);
+  }
+
+  /*
+   * Resolves the mode from its configured name, ignoring case.
+   *
+   * @param value - The configured name of the mode.
+   *
+   * @return The matching AuthMode.
+   *
+   * @throws IllegalArgumentException if the name does not match any mode.
+   */
+  public static AuthMode fromValue(String value) {
+    for (AuthMode mode : values()) {
+      if (mode.name().equalsIgnoreCase(value.trim())) {
+        return mode;
+      }
+    }
+    throw new IllegalArgumentException("Unknown auth mode: " + value);
+  }
+}
@@ -0,0 +1,61 @@
+package com.acolyptos.minimart.server;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+
+/*
+ * Resolves the Bearer token of the request once, through the
+ * TokenAuthenticator of the configured AuthMode, and stores the resulting
+ * UserPrincipal on the exchange. Requests without a valid token are
+ * answered with 401 here, so the handler and the database are never
+ * reached for them.
+ */
+public class AuthenticationFilter extends Filter {
+  private static final String BEARER = "Bearer ";
+  private static final byte[] UNAUTHORIZED =
+    "Missing or invalid bearer token.".getBytes(StandardCharsets.UTF_8);
+
+  private final TokenAuthenticator authenticator;
+
+  public AuthenticationFilter(TokenAuthenticator authenticator) {
+    this.authenticator = authenticator;
+  }
+
+  @Override
+  public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+    UserPrincipal principal = authenticate(
+      exchange.getRequestHeaders().getFirst("Authorization")
+    );
+
+    if (principal == null) {
+      exchange.getResponseHeaders().set("WWW-Authenticate", "Bearer");
+      ResponseWriter.send(exchange, 401, UNAUTHORIZED);
+      return;
+    }
+
+    exchange.setAttribute(UserPrincipal.ATTRIBUTE, principal);
+    chain.doFilter(exchange);
+  }
+
+  /*
+   * @param authorization - The Authorization header, may be null.
+   *
+   * @return The principal of a valid token, or null.
+   */
+  private UserPrincipal authenticate(String authorization) {
+    if (authorization == null
+        || !authorization.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+      return null;
+    }
+
+    String token = authorization.substring(BEARER.length()).trim();
+    return token.isEmpty() ? null : authenticator.authenticate(token);
+  }
+
+  @Override
+  public String description() {
+    return "Authenticates the request from its Bearer token.";
+  }
+}
@@ -0,0 +1,77 @@
+package com.acolyptos.minimart.server;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
+import java.util.Set;
+import com.acolyptos.minimart.models.Role;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+
+/*
+ * Restricts a route to a set of roles, checked against the role claim of
+ * the UserPrincipal. Runs after the AuthenticationFilter.
+ *
+ * The allowed roles are folded into a bitmask over Role.ordinal() when the
+ * route is registered, so the check is a single AND, with no database
+ * lookup of the User.
+ */
+public class AuthorizationFilter extends Filter {
+  private static final byte[] UNAUTHORIZED =
+    "Missing or invalid bearer token.".getBytes(StandardCharsets.UTF_8);
+  private static final byte[] FORBIDDEN =
+    "Access denied for this role.".getBytes(StandardCharsets.UTF_8);
+
+  private final int allowedRoles;
+  private final String description;
+
+  public AuthorizationFilter(Set<Role> roles) {
+    int mask = 0;
+    for (Role role : roles) {
+      mask |= bit(role);
+    }
+    this.allowedRoles = mask;
+    this.description = "Allows the roles " + roles + ".";
+  }
+
+  /*
+   * @param first - A role allowed on the route.
+   *
+   * @param rest - The other roles allowed on the route.
+   *
+   * @return A filter letting only these roles through.
+   */
+  public static AuthorizationFilter allow(Role first, Role... rest) {
+    return new AuthorizationFilter(EnumSet.of(first, rest));
+  }
+
+  @Override
+  public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+    UserPrincipal principal = UserPrincipal.from(exchange);
+
+    if (principal == null) {
+      exchange.getResponseHeaders().set("WWW-Authenticate", "Bearer");
+      ResponseWriter.send(exchange, 401, UNAUTHORIZED);
+      return;
+    }
+    if (!allows(principal.getRole())) {
+      ResponseWriter.send(exchange, 403, FORBIDDEN);
+      return;
+    }
+
+    chain.doFilter(exchange);
+  }
+
+  public boolean allows(Role role) {
+    return (allowedRoles & bit(role)) != 0;
+  }
+
+  private static int bit(Role role) {
+    return 1 << role.ordinal();
+  }
+
+  @Override
+  public String description() {
+    return description;
+  }
+}
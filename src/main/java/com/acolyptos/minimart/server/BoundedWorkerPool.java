@@ -0,0 +1,117 @@
+package com.acolyptos.minimart.server;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * A fixed pool of worker threads in front of a queue with a fixed depth.
+ * Work that does not fit in the queue is refused right away instead of
+ * waiting, so callers can shed load while latency is still low.
+ */
+public class BoundedWorkerPool implements MetricsSource {
+  private final ThreadPoolExecutor executor;
+  private final int queueCapacity;
+
+  private final LongAdder rejected = new LongAdder();
+  private final LongAdder started = new LongAdder();
+  private final LongAdder queueWaitNanos = new LongAdder();
+  private final LongAccumulator maxQueueWaitNanos = new LongAccumulator(Math::max, 0);
+
+  public BoundedWorkerPool(int workerThreads, int queueCapacity) {
+    if (workerThreads <= 0) {
+      throw new IllegalArgumentException("Worker threads should be greater than 0.");
+    }
+    if (queueCapacity <= 0) {
+      throw new IllegalArgumentException("Queue capacity should be greater than 0.");
+    }
+
+    this.queueCapacity = queueCapacity;
+    this.executor = new ThreadPoolExecutor(
+      workerThreads,
+      workerThreads,
+      0L,
+      TimeUnit.MILLISECONDS,
+      new ArrayBlockingQueue<>(queueCapacity),
+      Thread.ofPlatform().name("http-bounded-", 0).factory(),
+      new ThreadPoolExecutor.AbortPolicy()
+    );
+  }
+
+  /*
+   * Queues the task if there is room left in the pool.
+   *
+   * @param task - The work to run on one of the workers.
+   *
+   * @return true if the task was accepted, false if the queue is full.
+   */
+  public boolean tryExecute(Runnable task) {
+    long enqueuedAt = System.nanoTime();
+
+    try {
+      executor.execute(() -> {
+        long waited = System.nanoTime() - enqueuedAt;
+        started.increment();
+        queueWaitNanos.add(waited);
+        maxQueueWaitNanos.accumulate(waited);
+        task.run();
+      });
+      return true;
+
+    } catch (RejectedExecutionException exception) {
+      rejected.increment();
+      return false;
+    }
+  }
+
+  public int getQueueDepth() { return executor.getQueue().size(); }
+
+  public int getQueueCapacity() { return queueCapacity; }
+
+  public int getActiveWorkers() { return executor.getActiveCount(); }
+
+  public long getRejectedCount() { return rejected.sum(); }
+
+  /*
+   * Stops taking new work and lets the queued tasks finish.
+   */
+  public void shutdown() {
+    executor.shutdown();
+  }
+
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    return executor.awaitTermination(timeout, unit);
+  }
+
+  @Override
+  public String getMetricsName() {
+    return "workerPool";
+  }
+
+  /*
+   * The maximum queue wait is reset on every snapshot so that it describes
+   * the interval since the previous scrape.
+   */
+  @Override
+  public Map<String, Number> snapshotMetrics() {
+    long startedCount = started.sum();
+    long averageWait = startedCount == 0 ? 0 : queueWaitNanos.sum() / startedCount;
+
+    Map<String, Number> metrics = new LinkedHashMap<>();
+    metrics.put("workers", executor.getMaximumPoolSize());
+    metrics.put("activeWorkers", getActiveWorkers());
+    metrics.put("queueDepth", getQueueDepth());
+    metrics.put("queueCapacity", queueCapacity);
+    metrics.put("started", startedCount);
+    metrics.put("rejected", getRejectedCount());
+    metrics.put("queueWaitAvgMicros", TimeUnit.NANOSECONDS.toMicros(averageWait));
+    metrics.put("queueWaitMaxMicros",
+      TimeUnit.NANOSECONDS.toMicros(maxQueueWaitNanos.getThenReset()));
+    return metrics;
+  }
+}
@@ -0,0 +1,107 @@
+package com.acolyptos.minimart.server;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Connection level counters of the HTTP server: how many connections are
+ * open, how often new ones are accepted, how many requests each one carries
+ * and how long they sit idle between requests.
+ *
+ * The NIO engine reports every event itself. The JDK engine has no
+ * connection hooks, so ConnectionTrackingFilter derives the same events
+ * from the requests it sees.
+ */
+public class ConnectionMetrics implements MetricsSource {
+  private final LongAdder accepted = new LongAdder();
+  private final LongAdder closed = new LongAdder();
+  private final LongAdder closedIdle = new LongAdder();
+  private final LongAdder requests = new LongAdder();
+  private final LongAdder reusedRequests = new LongAdder();
+  private final LongAdder requestsOfClosed = new LongAdder();
+  private final LongAccumulator maxRequestsPerConnection = new LongAccumulator(Math::max, 0);
+  private final LongAdder idleNanos = new LongAdder();
+  private final LongAccumulator maxIdleNanos = new LongAccumulator(Math::max, 0);
+
+  private long lastSnapshotNanos = System.nanoTime();
+  private long lastSnapshotAccepted;
+
+  /*
+   * Records a newly accepted connection.
+   */
+  public void connectionOpened() {
+    accepted.increment();
+  }
+
+  /*
+   * Records the start of a request.
+   *
+   * @param idleNanos - How long the connection was idle since its previous
+   * response, or -1 for the first request of the connection.
+   */
+  public void requestStarted(long idleNanos) {
+    requests.increment();
+    if (idleNanos >= 0) {
+      reusedRequests.increment();
+      this.idleNanos.add(idleNanos);
+      maxIdleNanos.accumulate(idleNanos);
+    }
+  }
+
+  /*
+   * Records a closed connection.
+   *
+   * @param requestCount - The requests the connection carried.
+   *
+   * @param idle - true if it was closed by the idle timeout.
+   */
+  public void connectionClosed(long requestCount, boolean idle) {
+    closed.increment();
+    if (idle) {
+      closedIdle.increment();
+    }
+    requestsOfClosed.add(requestCount);
+    maxRequestsPerConnection.accumulate(requestCount);
+  }
+
+  @Override
+  public String getMetricsName() {
+    return "connections";
+  }
+
+  /*
+   * The accept rate covers the interval since the previous snapshot, and
+   * the maximums are reset by every snapshot, like the worker pool ones.
+   */
+  @Override
+  public synchronized Map<String, Number> snapshotMetrics() {
+    long now = System.nanoTime();
+    long acceptedCount = accepted.sum();
+    long closedCount = closed.sum();
+    long reused = reusedRequests.sum();
+
+    double seconds = (now - lastSnapshotNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+    double acceptRate = seconds <= 0 ? 0 : (acceptedCount - lastSnapshotAccepted) / seconds;
+    lastSnapshotNanos = now;
+    lastSnapshotAccepted = acceptedCount;
+
+    Map<String, Number> metrics = new LinkedHashMap<>();
+    metrics.put("open", Math.max(0, acceptedCount - closedCount));
+    metrics.put("accepted", acceptedCount);
+    metrics.put("acceptedPerSecond", Math.round(acceptRate * 100) / 100.0);
+    metrics.put("closed", closedCount);
+    metrics.put("closedIdle", closedIdle.sum());
+    metrics.put("requests", requests.sum());
+    metrics.put("reusedRequests", reused);
+    metrics.put("requestsPerConnectionAvg", closedCount == 0
+      ? 0 : Math.round(requestsOfClosed.sum() * 100.0 / closedCount) / 100.0);
+    metrics.put("requestsPerConnectionMax", maxRequestsPerConnection.getThenReset());
+    metrics.put("idleAvgMillis", reused == 0
+      ? 0 : TimeUnit.NANOSECONDS.toMillis(idleNanos.sum() / reused));
+    metrics.put("idleMaxMillis", TimeUnit.NANOSECONDS.toMillis(maxIdleNanos.getThenReset()));
+    return metrics;
+  }
+}
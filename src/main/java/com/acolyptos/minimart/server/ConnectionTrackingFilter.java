@@ -0,0 +1,124 @@
+package com.acolyptos.minimart.server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+
+/*
+ * Connection tracking and keep-alive limits for the JDK engine, which has
+ * no connection hooks of its own.
+ *
+ * A TCP connection is identified by the remote address and port of its
+ * requests. A connection is closed when a response carries Connection:
+ * close, either because keep-alive is disabled, the client asked for it or
+ * the connection reached its request limit. One that has not been seen for
+ * the idle timeout is counted as closed by the server, which drops idle
+ * connections after the same sun.net.httpserver.idleInterval.
+ */
+public class ConnectionTrackingFilter extends Filter {
+  private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  private final ConnectionMetrics metrics;
+  private final boolean keepAlive;
+  private final int maxRequestsPerConnection;
+  private final long idleTimeoutNanos;
+  private final Map<InetSocketAddress, TrackedConnection> connections = new ConcurrentHashMap<>();
+  private final AtomicLong nextSweepNanos = new AtomicLong(System.nanoTime());
+
+  /*
+   * @param metrics - The counters to report to.
+   *
+   * @param keepAlive - false to close every connection after one response.
+   *
+   * @param maxRequestsPerConnection - Requests after which the connection is
+   * closed, 0 for no limit.
+   *
+   * @param idleTimeoutSeconds - The idle timeout configured on the server.
+   */
+  public ConnectionTrackingFilter(
+    ConnectionMetrics metrics,
+    boolean keepAlive,
+    int maxRequestsPerConnection,
+    int idleTimeoutSeconds
+  ) {
+    this.metrics = metrics;
+    this.keepAlive = keepAlive;
+    this.maxRequestsPerConnection = maxRequestsPerConnection;
+    this.idleTimeoutNanos = TimeUnit.SECONDS.toNanos(idleTimeoutSeconds);
+  }
+
+  @Override
+  public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+    long now = System.nanoTime();
+    expireIdle(now);
+
+    InetSocketAddress remoteAddress = exchange.getRemoteAddress();
+    TrackedConnection connection = connections.get(remoteAddress);
+    if (connection == null) {
+      connection = new TrackedConnection();
+      connections.put(remoteAddress, connection);
+      metrics.connectionOpened();
+    }
+
+    long requests = ++connection.requests;
+    metrics.requestStarted(requests == 1 ? -1 : now - connection.lastSeenNanos);
+    connection.lastSeenNanos = now;
+
+    String requested = exchange.getRequestHeaders().getFirst("Connection");
+    boolean closing = !keepAlive
+      || (maxRequestsPerConnection > 0 && requests >= maxRequestsPerConnection)
+      || (requested != null && requested.equalsIgnoreCase("close"))
+      || "HTTP/1.0".equals(exchange.getProtocol());
+
+    if (closing) {
+      exchange.getResponseHeaders().set("Connection", "close");
+      connections.remove(remoteAddress);
+      metrics.connectionClosed(requests, false);
+    }
+
+    try {
+      chain.doFilter(exchange);
+    } finally {
+      connection.lastSeenNanos = System.nanoTime();
+    }
+  }
+
+  @Override
+  public String description() {
+    return "Tracks connections and applies keep-alive limits.";
+  }
+
+  /*
+   * Counts the connections that stayed idle for the timeout as closed. Runs
+   * at most once a second, from whichever request comes first.
+   */
+  private void expireIdle(long now) {
+    long nextSweep = nextSweepNanos.get();
+    if (now - nextSweep < 0 || !nextSweepNanos.compareAndSet(nextSweep, now + SWEEP_INTERVAL_NANOS)) {
+      return;
+    }
+
+    connections.entrySet().removeIf(entry -> {
+      TrackedConnection connection = entry.getValue();
+      if (now - connection.lastSeenNanos < idleTimeoutNanos) {
+        return false;
+      }
+      metrics.connectionClosed(connection.requests, true);
+      return true;
+    });
+  }
+
+  /*
+   * The requests of one connection are sequential, so the fields are only
+   * written by one handler thread at a time.
+   */
+  private static final class TrackedConnection {
+    private volatile long requests;
+    private volatile long lastSeenNanos = System.nanoTime();
+  }
+}
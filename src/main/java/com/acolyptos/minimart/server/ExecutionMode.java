@@ -0,0 +1,72 @@
+package com.acolyptos.minimart.server;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/*
+ * Describes which threads run the HTTP exchanges of the server.
+ *
+ * DISPATCHER keeps the JDK default where every exchange runs on the single
+ * dispatcher thread. VIRTUAL starts one virtual thread per exchange so that
+ * blocking MongoDB and BCrypt calls do not hold on to a carrier thread.
+ * PLATFORM runs exchanges on a fixed pool of platform threads and is kept
+ * as a fallback for runtimes where virtual threads misbehave. BOUNDED runs
+ * exchanges on a BoundedWorkerPool through the AdmissionFilter, which
+ * answers with 429 once the queue of the pool is full.
+ */
+public enum ExecutionMode {
+  DISPATCHER,
+  VIRTUAL,
+  PLATFORM,
+  BOUNDED;
+
+  /*
+   * Creates the executor that will be given to the HttpServer.
+   *
+   * @param workerThreads - The number of threads used by the PLATFORM mode.
+   *
+   * @return The executor, or null for DISPATCHER and BOUNDED so the HttpServer
+   * parses requests on its own dispatcher thread. BOUNDED exchanges are then
+   * moved to the worker pool by the AdmissionFilter.
+   */
+  public ExecutorService createExecutor(int workerThreads) {
+    switch (this) {
+      case VIRTUAL:
+        return Executors.newThreadPerTaskExecutor(
+          Thread.ofVirtual().name("http-virtual-", 0).factory()
+        );
+
+      case PLATFORM:
+        if (workerThreads <= 0) {
+          throw new IllegalArgumentException(
+            "Worker threads should be greater than 0."
+          );
+        }
+        return Executors.newFixedThreadPool(
+          workerThreads,
+          Thread.ofPlatform().name("http-worker-", 0).factory()
+        );
+
+      default:
+        return null;
+    }
+  }
+
+  /*
+   * Resolves the mode from its configured name, ignoring case.
+   *
+   * @param value - The configured name of the mode.
+   *
+   * @return The matching ExecutionMode.
+   *
+   * @throws IllegalArgumentException if the name does not match any mode.
+   */
+  public static ExecutionMode fromValue(String value) {
+    for (ExecutionMode mode : values()) {
+      if (mode.name().equalsIgnoreCase(value.trim())) {
+        return mode;
+      }
+    }
+    throw new IllegalArgumentException("Unknown execution mode: " + value);
+  }
+}
@@ -0,0 +1,131 @@
+package com.acolyptos.minimart.server;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.acolyptos.minimart.database.DatabaseProvider;
+import com.acolyptos.minimart.services.PasswordHasher;
+import com.sun.net.httpserver.HttpServer;
+
+/*
+ * Shutdown sequence of the server, run from the JVM shutdown hook.
+ *
+ * 1. Marks the in-flight exchanges as draining, so kept-alive connections
+ *    are closed after their current response.
+ * 2. Stops the HttpServer. This closes the listening socket at once and
+ *    waits for the active exchanges and, on the NIO engine, the queued
+ *    writes.
+ * 3. Waits for the handlers still running on the executors.
+ * 4. Stops the BCrypt pool and waits for the rehashes queued by logins,
+ *    which store their new hash in MongoDB.
+ * 5. Closes the MongoDB client, once nothing can use it anymore.
+ *
+ * Every waiting step shares one deadline, so the whole sequence takes at
+ * most the grace period plus the time needed to close the client.
+ */
+public class GracefulShutdown implements Runnable {
+  private static final Logger LOG = LoggerFactory.getLogger(GracefulShutdown.class);
+
+  private final HttpServer httpServer;
+  private final InFlightFilter inFlight;
+  private final ExecutorService executor;
+  private final BoundedWorkerPool workerPool;
+  private final PasswordHasher passwordHasher;
+  private final DatabaseProvider database;
+  private final long graceSeconds;
+
+  /*
+   * @param httpServer - The server to stop.
+   *
+   * @param inFlight - The filter tracking the exchanges being handled.
+   *
+   * @param executor - The executor of the server, null in DISPATCHER mode.
+   *
+   * @param workerPool - The pool of the BOUNDED mode, null otherwise.
+   *
+   * @param passwordHasher - The BCrypt pool, stopped after the handlers.
+   *
+   * @param database - The database provider, closed last.
+   *
+   * @param graceSeconds - The longest time given to the exchanges to finish.
+   */
+  public GracefulShutdown(
+    HttpServer httpServer,
+    InFlightFilter inFlight,
+    ExecutorService executor,
+    BoundedWorkerPool workerPool,
+    PasswordHasher passwordHasher,
+    DatabaseProvider database,
+    long graceSeconds
+  ) {
+    this.httpServer = httpServer;
+    this.inFlight = inFlight;
+    this.executor = executor;
+    this.workerPool = workerPool;
+    this.passwordHasher = passwordHasher;
+    this.database = database;
+    this.graceSeconds = graceSeconds;
+  }
+
+  @Override
+  public void run() {
+    long startedAt = System.nanoTime();
+    long deadline = startedAt + TimeUnit.SECONDS.toNanos(graceSeconds);
+    LOG.info("Shutting down, draining " + inFlight.getActiveCount() +
+      " in-flight requests within " + graceSeconds + "s.");
+
+    inFlight.beginDrain();
+    httpServer.stop(remainingSeconds(deadline));
+
+    boolean drained;
+    try {
+      drained = inFlight.awaitIdle(remainingNanos(deadline), TimeUnit.NANOSECONDS);
+
+      if (workerPool != null) {
+        workerPool.shutdown();
+        drained &= workerPool.awaitTermination(remainingNanos(deadline), TimeUnit.NANOSECONDS);
+      }
+      if (executor != null) {
+        executor.shutdown();
+        drained &= executor.awaitTermination(remainingNanos(deadline), TimeUnit.NANOSECONDS);
+      }
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      drained = false;
+    }
+
+    if (!drained) {
+      LOG.warn("Shutdown deadline reached with " + inFlight.getActiveCount() +
+        " requests still in flight.");
+    }
+
+    passwordHasher.shutdown();
+    try {
+      if (!passwordHasher.awaitTermination(remainingNanos(deadline), TimeUnit.NANOSECONDS)) {
+        LOG.warn("Shutdown deadline reached with password rehashes still running.");
+      }
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+    }
+
+    database.closeConnection();
+    LOG.info("Server stopped in " +
+      TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt) +
+      "ms and MongoDB connection is closed.");
+  }
+
+  private static long remainingNanos(long deadline) {
+    return Math.max(0, deadline - System.nanoTime());
+  }
+
+  /*
+   * HttpServer.stop takes whole seconds. Rounds up so that a short grace
+   * period still gives the exchanges a chance to finish.
+   */
+  private static int remainingSeconds(long deadline) {
+    long remaining = remainingNanos(deadline);
+    return (int) Math.min(Integer.MAX_VALUE,
+      (remaining + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+  }
+}
@@ -0,0 +1,34 @@
+package com.acolyptos.minimart.server;
+
+/*
+ * The request methods the route table can dispatch on.
+ */
+public enum HttpMethod {
+  GET,
+  POST,
+  PUT,
+  PATCH,
+  DELETE,
+  HEAD,
+  OPTIONS;
+
+  /*
+   * Resolves the method of a request without allocating.
+   *
+   * @param method - The method sent by the client.
+   *
+   * @return The matching HttpMethod, or null if the method is not supported.
+   */
+  public static HttpMethod of(String method) {
+    switch (method) {
+      case "GET": return GET;
+      case "POST": return POST;
+      case "PUT": return PUT;
+      case "PATCH": return PATCH;
+      case "DELETE": return DELETE;
+      case "HEAD": return HEAD;
+      case "OPTIONS": return OPTIONS;
+      default: return null;
+    }
+  }
+}
@@ -0,0 +1,111 @@
+package com.acolyptos.minimart.server;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+
+/*
+ * Counts the exchanges that are being handled, so a shutdown can wait for
+ * them before the resources they use are closed.
+ *
+ * Once draining has started, responses carry Connection: close so that
+ * keep-alive clients reconnect to another instance instead of sending more
+ * requests to this one.
+ *
+ * The count is an atomic on the request path. The monitor is only taken
+ * when the count drops to 0 while a shutdown is waiting for it, so requests
+ * never contend on a lock, nor pin their carrier thread in VIRTUAL mode.
+ */
+public class InFlightFilter extends Filter implements MetricsSource {
+  private final Object idle = new Object();
+  private final AtomicInteger active = new AtomicInteger();
+  private final LongAdder completed = new LongAdder();
+
+  private volatile boolean draining;
+  private volatile boolean awaitingIdle;
+
+  @Override
+  public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+    active.incrementAndGet();
+
+    try {
+      if (draining) {
+        exchange.getResponseHeaders().set("Connection", "close");
+      }
+      chain.doFilter(exchange);
+
+    } finally {
+      completed.increment();
+      if (active.decrementAndGet() == 0 && awaitingIdle) {
+        synchronized (idle) {
+          idle.notifyAll();
+        }
+      }
+    }
+  }
+
+  /*
+   * Marks the start of the shutdown. Exchanges keep being handled, but their
+   * connections are no longer kept alive.
+   */
+  public void beginDrain() {
+    draining = true;
+  }
+
+  /*
+   * Waits until no exchange is being handled.
+   *
+   * @param timeout - The longest time to wait.
+   *
+   * @param unit - The unit of the timeout.
+   *
+   * @return true if every exchange finished, false if the timeout elapsed.
+   *
+   * @throws InterruptedException if the waiting thread is interrupted.
+   */
+  public boolean awaitIdle(long timeout, TimeUnit unit) throws InterruptedException {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+
+    // Set before the count is read, so the exchange that brings it to 0
+    // either is seen here or sees the flag and notifies.
+    awaitingIdle = true;
+    synchronized (idle) {
+      while (active.get() > 0) {
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+          return false;
+        }
+        TimeUnit.NANOSECONDS.timedWait(idle, remaining);
+      }
+      return true;
+    }
+  }
+
+  public int getActiveCount() {
+    return active.get();
+  }
+
+  @Override
+  public String description() {
+    return "Tracks in-flight exchanges for graceful shutdown.";
+  }
+
+  @Override
+  public String getMetricsName() {
+    return "requests";
+  }
+
+  @Override
+  public Map<String, Number> snapshotMetrics() {
+    Map<String, Number> metrics = new LinkedHashMap<>();
+    metrics.put("inFlight", getActiveCount());
+    metrics.put("completed", completed.sum());
+    metrics.put("draining", draining ? 1 : 0);
+    return metrics;
+  }
+}
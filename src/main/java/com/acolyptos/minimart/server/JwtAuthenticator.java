@@ -0,0 +1,60 @@
+package com.acolyptos.minimart.server;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.acolyptos.minimart.models.Role;
+import com.acolyptos.minimart.utilities.JwtUtility;
+import com.acolyptos.minimart.utilities.VerifiedToken;
+import io.jsonwebtoken.JwtException;
+
+/*
+ * Signed JWT access and refresh tokens, verified through the cache of
+ * JwtUtility and revoked through its RevocationList.
+ */
+public class JwtAuthenticator implements TokenAuthenticator {
+  private static final Logger LOG = LoggerFactory.getLogger(JwtAuthenticator.class);
+
+  private final JwtUtility jwtUtility;
+
+  public JwtAuthenticator(JwtUtility jwtUtility) {
+    this.jwtUtility = jwtUtility;
+  }
+
+  @Override
+  public String issueToken(String userId, Role role) {
+    return jwtUtility.generateToken(userId, role.toString());
+  }
+
+  @Override
+  public String issueRefreshToken(String userId, Role role) {
+    return jwtUtility.generateRefreshToken(userId, role.toString());
+  }
+
+  @Override
+  public UserPrincipal authenticate(String token) {
+    try {
+      VerifiedToken verified = jwtUtility.verifyToken(token);
+      if (verified.getUserId() == null || verified.getRole() == null) {
+        return null;
+      }
+      return new UserPrincipal(verified.getUserId(), Role.valueOf(verified.getRole()), token);
+    } catch (JwtException | IllegalArgumentException exception) {
+      LOG.debug("Rejected token: " + exception.getMessage());
+      return null;
+    }
+  }
+
+  @Override
+  public void revoke(String token) {
+    try {
+      jwtUtility.revokeToken(jwtUtility.verifyToken(token));
+    } catch (JwtException | IllegalArgumentException exception) {
+      // Already invalid, nothing is left to revoke.
+    }
+  }
+
+  @Override
+  public boolean supportsRefresh() {
+    return true;
+  }
+}
@@ -0,0 +1,65 @@
+package com.acolyptos.minimart.server;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import com.acolyptos.minimart.exceptions.PayloadTooLargeException;
+
+/*
+ * Request body stream that fails once more than maxBytes have been read.
+ * Covers the bodies the Content-Length check cannot see, like chunked ones
+ * or a Content-Length that understates the body.
+ */
+final class LimitedInputStream extends FilterInputStream {
+  private final long maxBytes;
+  private long remaining;
+
+  LimitedInputStream(InputStream in, long maxBytes) {
+    super(in);
+    this.maxBytes = maxBytes;
+    this.remaining = maxBytes;
+  }
+
+  @Override
+  public int read() throws IOException {
+    int value = in.read();
+    if (value >= 0) {
+      consume(1);
+    }
+    return value;
+  }
+
+  @Override
+  public int read(byte[] bytes, int offset, int length) throws IOException {
+    // Reads one byte past the limit at most, to tell a body of exactly
+    // maxBytes from a larger one.
+    int count = in.read(bytes, offset, (int) Math.min(length, remaining + 1));
+    if (count > 0) {
+      consume(count);
+    }
+    return count;
+  }
+
+  @Override
+  public long skip(long count) throws IOException {
+    long skipped = in.skip(Math.min(count, remaining + 1));
+    if (skipped > 0) {
+      consume(skipped);
+    }
+    return skipped;
+  }
+
+  @Override
+  public boolean markSupported() {
+    return false;
+  }
+
+  private void consume(long count) throws PayloadTooLargeException {
+    remaining -= count;
+    if (remaining < 0) {
+      throw new PayloadTooLargeException(
+        "Request body is larger than " + maxBytes + " bytes."
+      );
+    }
+  }
+}
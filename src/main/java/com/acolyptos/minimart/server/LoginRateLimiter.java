@@ -0,0 +1,111 @@
+package com.acolyptos.minimart.server;
+
+import java.net.InetAddress;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import com.acolyptos.minimart.config.AppConfig;
+
+/*
+ * Limits login attempts per remote address and per username, so credential
+ * stuffing is refused before it costs a BCrypt check.
+ *
+ * The address bucket is charged first, so a client cycling through
+ * usernames is still held to its own rate.
+ */
+public class LoginRateLimiter implements MetricsSource {
+  private final TokenBucketLimiter<InetAddress> addressLimiter;
+  private final TokenBucketLimiter<String> usernameLimiter;
+
+  private final LongAdder allowed = new LongAdder();
+  private final LongAdder rejectedByAddress = new LongAdder();
+  private final LongAdder rejectedByUsername = new LongAdder();
+
+  /*
+   * @param attemptsPerAddress - Attempts a remote address may make per window.
+   *
+   * @param attemptsPerUsername - Attempts a username may receive per window.
+   *
+   * @param windowSeconds - The time in which the attempts are refilled.
+   */
+  public LoginRateLimiter(int attemptsPerAddress, int attemptsPerUsername, int windowSeconds) {
+    this.addressLimiter = new TokenBucketLimiter<>(
+      attemptsPerAddress, windowSeconds, TimeUnit.SECONDS
+    );
+    this.usernameLimiter = new TokenBucketLimiter<>(
+      attemptsPerUsername, windowSeconds, TimeUnit.SECONDS
+    );
+  }
+
+  /*
+   * Reads the limits from the configuration.
+   *
+   * LOGIN_ATTEMPTS_PER_ADDRESS - Attempts per remote address and window, 30 by default.
+   * LOGIN_ATTEMPTS_PER_USERNAME - Attempts per username and window, 10 by default.
+   * LOGIN_WINDOW_SECONDS - The window of both limits, 60 by default.
+   *
+   * @param config - The configuration of the application.
+   *
+   * @return The LoginRateLimiter built from the configuration.
+   */
+  public static LoginRateLimiter fromConfig(AppConfig config) {
+    int attemptsPerAddress = config.getInt("LOGIN_ATTEMPTS_PER_ADDRESS", 30);
+    int attemptsPerUsername = config.getInt("LOGIN_ATTEMPTS_PER_USERNAME", 10);
+    int windowSeconds = config.getInt("LOGIN_WINDOW_SECONDS", 60);
+
+    return new LoginRateLimiter(attemptsPerAddress, attemptsPerUsername, windowSeconds);
+  }
+
+  /*
+   * Charges one login attempt to the address and to the username.
+   *
+   * @param address - The remote address of the request, may be null.
+   *
+   * @param username - The username of the attempt.
+   *
+   * @return 0 if the attempt may proceed, otherwise the seconds to wait
+   * before the next one.
+   */
+  public int tryAcquire(InetAddress address, String username) {
+    long now = System.nanoTime();
+
+    if (address != null) {
+      long wait = addressLimiter.tryAcquire(address, now);
+      if (wait > 0) {
+        rejectedByAddress.increment();
+        return toRetryAfterSeconds(wait);
+      }
+    }
+
+    long wait = usernameLimiter.tryAcquire(username, now);
+    if (wait > 0) {
+      rejectedByUsername.increment();
+      return toRetryAfterSeconds(wait);
+    }
+
+    allowed.increment();
+    return 0;
+  }
+
+  private static int toRetryAfterSeconds(long waitNanos) {
+    return (int) Math.max(1, Math.min(Integer.MAX_VALUE,
+      (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1)));
+  }
+
+  @Override
+  public String getMetricsName() {
+    return "loginRateLimiter";
+  }
+
+  @Override
+  public Map<String, Number> snapshotMetrics() {
+    Map<String, Number> metrics = new LinkedHashMap<>();
+    metrics.put("allowed", allowed.sum());
+    metrics.put("rejectedByAddress", rejectedByAddress.sum());
+    metrics.put("rejectedByUsername", rejectedByUsername.sum());
+    metrics.put("trackedAddresses", addressLimiter.size());
+    metrics.put("trackedUsernames", usernameLimiter.size());
+    return metrics;
+  }
+}
@@ -0,0 +1,38 @@
+package com.acolyptos.minimart.server;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/*
+ * Keeps every MetricsSource of the application so they can be reported
+ * together by the metrics endpoint.
+ */
+public class MetricsRegistry {
+  private final List<MetricsSource> sources = new CopyOnWriteArrayList<>();
+
+  /*
+   * Adds a source to the registry.
+   *
+   * @param source - The component whose counters should be reported.
+   */
+  public void register(MetricsSource source) {
+    sources.add(source);
+  }
+
+  /*
+   * Takes a snapshot of every registered source.
+   *
+   * @return The counters of each source keyed by the source name.
+   */
+  public Map<String, Map<String, Number>> snapshot() {
+    Map<String, Map<String, Number>> result = new LinkedHashMap<>();
+
+    for (MetricsSource source : sources) {
+      result.put(source.getMetricsName(), source.snapshotMetrics());
+    }
+
+    return result;
+  }
+}
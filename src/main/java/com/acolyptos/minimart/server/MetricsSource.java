@@ -0,0 +1,21 @@
+package com.acolyptos.minimart.server;
+
+import java.util.Map;
+
+/*
+ * A component that can report its runtime counters to the metrics endpoint.
+ */
+public interface MetricsSource {
+
+  /*
+   * @return The name under which the counters are grouped.
+   */
+  String getMetricsName();
+
+  /*
+   * Takes a point-in-time copy of the counters of the component.
+   *
+   * @return The counters keyed by their name, in a stable order.
+   */
+  Map<String, Number> snapshotMetrics();
+}
@@ -0,0 +1,59 @@
+package com.acolyptos.minimart.server;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import com.sun.net.httpserver.HttpExchange;
+
+/*
+ * The path parameters of a matched route. Only the offsets of each value in
+ * the request path are kept; a value is turned into a String when a handler
+ * asks for it.
+ */
+public final class PathParameters {
+  public static final String ATTRIBUTE = "minimart.pathParameters";
+
+  static final PathParameters EMPTY = new PathParameters(new String[0], "", new int[0]);
+
+  private final String[] names;
+  private final String path;
+  private final int[] offsets;
+
+  PathParameters(String[] names, String path, int[] offsets) {
+    this.names = names;
+    this.path = path;
+    this.offsets = offsets;
+  }
+
+  /*
+   * Retrieves the parameters stored on the exchange by the RoutingHandler.
+   *
+   * @param exchange - The routed exchange.
+   *
+   * @return The parameters of the exchange, empty if the route has none.
+   */
+  public static PathParameters from(HttpExchange exchange) {
+    Object parameters = exchange.getAttribute(ATTRIBUTE);
+    return parameters instanceof PathParameters ? (PathParameters) parameters : EMPTY;
+  }
+
+  /*
+   * @param name - The name of the parameter as written in the pattern.
+   *
+   * @return The decoded value, or null if the route has no such parameter.
+   */
+  public String get(String name) {
+    for (int i = 0; i < names.length; i++) {
+      if (names[i].equals(name)) {
+        String value = path.substring(offsets[i * 2], offsets[i * 2 + 1]);
+        return value.indexOf('%') < 0
+          ? value
+          : URLDecoder.decode(value.replace("+", "%2B"), StandardCharsets.UTF_8);
+      }
+    }
+    return null;
+  }
+
+  public int size() {
+    return names.length;
+  }
+}
@@ -0,0 +1,54 @@
+package com.acolyptos.minimart.server;
+
+import java.io.IOException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.sun.net.httpserver.HttpExchange;
+
+/*
+ * Reads JSON request bodies.
+ *
+ * The body is parsed token by token from the exchange stream, which the
+ * RoutingHandler has already bounded to the limit of the route, so only
+ * the parser buffer is held in memory and an oversized body fails with
+ * PayloadTooLargeException as soon as it crosses the limit. The
+ * StreamReadConstraints of the shared JsonFactory bound the size of single
+ * strings, numbers and the nesting depth.
+ */
+public final class RequestBody {
+
+  private RequestBody() {}
+
+  /*
+   * Parses the request body into a single value.
+   *
+   * @param exchange - The request/response object.
+   *
+   * @param reader - The prebuilt reader of the expected type.
+   *
+   * @return The parsed value.
+   *
+   * @throws PayloadTooLargeException if the body is larger than the route allows.
+   *
+   * @throws JsonProcessingException if the body is not a single valid value.
+   */
+  public static <T> T read(HttpExchange exchange, ObjectReader reader) throws IOException {
+    try (JsonParser parser = reader.createParser(exchange.getRequestBody())) {
+      if (parser.nextToken() == null) {
+        throw MismatchedInputException.from(
+          parser, reader.getValueType(), "Request body is empty."
+        );
+      }
+
+      T value = reader.readValue(parser);
+
+      if (parser.nextToken() != null) {
+        throw MismatchedInputException.from(
+          parser, reader.getValueType(), "Unexpected content after the request body."
+        );
+      }
+      return value;
+    }
+  }
+}
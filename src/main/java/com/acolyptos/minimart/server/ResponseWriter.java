@@ -0,0 +1,197 @@
+package com.acolyptos.minimart.server;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+
+/*
+ * Writes JSON responses for every handler of the server.
+ *
+ * Bodies are encoded once and written straight to the exchange. Bodies of
+ * at least GZIP_THRESHOLD bytes are compressed on the fly when the client
+ * accepts gzip. Large lists are streamed with chunked encoding from a
+ * Jackson generator, so they never have to be held in memory as a whole.
+ */
+public final class ResponseWriter {
+  public static final int GZIP_THRESHOLD = 1024;
+
+  private static final Logger LOG = LoggerFactory.getLogger(ResponseWriter.class);
+  private static final int GZIP_BUFFER_SIZE = 8 * 1024;
+
+  private ResponseWriter() {}
+
+  /*
+   * Writes the body of a streamed JSON response.
+   */
+  @FunctionalInterface
+  public interface JsonBody {
+    void write(JsonGenerator generator) throws IOException;
+  }
+
+  /*
+   * Sends a text body as an application/json response.
+   *
+   * @param exchange - The request/response object.
+   *
+   * @param statusCode - The status code of the response.
+   *
+   * @param response - The body, encoded as UTF-8 exactly once.
+   *
+   * @throws IOException if the response cannot be written.
+   */
+  public static void send(HttpExchange exchange, int statusCode, String response)
+      throws IOException {
+    send(exchange, statusCode, response.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /*
+   * Sends an already encoded body as an application/json response.
+   *
+   * @param exchange - The request/response object.
+   *
+   * @param statusCode - The status code of the response.
+   *
+   * @param responseByte - The encoded body, written without being copied.
+   *
+   * @throws IOException if the response cannot be written.
+   */
+  public static void send(HttpExchange exchange, int statusCode, byte[] responseByte)
+      throws IOException {
+
+    exchange.getResponseHeaders().set("Content-Type", "application/json");
+
+    if (responseByte.length >= GZIP_THRESHOLD && acceptsGzip(exchange)) {
+      exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+      exchange.getResponseHeaders().set("Vary", "Accept-Encoding");
+      exchange.sendResponseHeaders(statusCode, 0);
+
+      try (OutputStream os = new GZIPOutputStream(exchange.getResponseBody(), GZIP_BUFFER_SIZE)) {
+        os.write(responseByte);
+      }
+      return;
+    }
+
+    exchange.sendResponseHeaders(statusCode, responseByte.length == 0 ? -1 : responseByte.length);
+
+    try (OutputStream os = exchange.getResponseBody()) {
+      os.write(responseByte);
+    }
+  }
+
+  /*
+   * Sends a response without a body.
+   *
+   * @param exchange - The request/response object.
+   *
+   * @param statusCode - The status code of the response.
+   *
+   * @throws IOException if the response cannot be written.
+   */
+  public static void sendEmpty(HttpExchange exchange, int statusCode) throws IOException {
+    exchange.sendResponseHeaders(statusCode, -1);
+    exchange.close();
+  }
+
+  /*
+   * Streams a JSON body with chunked encoding. The generator writes onto the
+   * response stream of the exchange, through gzip when the client accepts it.
+   *
+   * Once streaming has started the status code cannot change anymore. An
+   * error in the body aborts the response instead: the connection is closed
+   * without the terminating chunk, and the open JSON content is left
+   * unclosed, so the client cannot take a partial list for a complete one.
+   *
+   * @param exchange - The request/response object.
+   *
+   * @param statusCode - The status code of the response.
+   *
+   * @param objectMapper - The mapper providing the generator and its codecs.
+   *
+   * @param body - Writes the JSON content on the generator.
+   *
+   * @throws IOException if the response headers cannot be written.
+   */
+  public static void stream(
+    HttpExchange exchange,
+    int statusCode,
+    ObjectMapper objectMapper,
+    JsonBody body
+  ) throws IOException {
+    boolean gzip = acceptsGzip(exchange);
+
+    exchange.getResponseHeaders().set("Content-Type", "application/json");
+    if (gzip) {
+      exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+      exchange.getResponseHeaders().set("Vary", "Accept-Encoding");
+    }
+    exchange.sendResponseHeaders(statusCode, 0);
+
+    AbortableOutputStream responseBody = new AbortableOutputStream(exchange.getResponseBody());
+    exchange.setStreams(null, responseBody);
+    OutputStream os = gzip
+      ? new GZIPOutputStream(responseBody, GZIP_BUFFER_SIZE)
+      : responseBody;
+
+    JsonGenerator generator = objectMapper.createGenerator(os)
+      .disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+    try {
+      body.write(generator);
+      generator.close();
+    } catch (IOException | RuntimeException exception) {
+      LOG.error("Streaming of the response failed, aborting it: " + exception.getMessage(), exception);
+      responseBody.abort();
+      closeAborted(generator);
+    } finally {
+      exchange.close();
+    }
+  }
+
+  /*
+   * Closes the generator and the gzip stream underneath, so the deflater is
+   * released. The aborted stream drops their output and fails on close.
+   */
+  private static void closeAborted(JsonGenerator generator) {
+    try {
+      generator.close();
+    } catch (IOException ignored) {
+      // The response is aborted already.
+    }
+  }
+
+  /*
+   * Checks the Accept-Encoding header for gzip, honouring q=0.
+   */
+  static boolean acceptsGzip(HttpExchange exchange) {
+    String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+    if (acceptEncoding == null) {
+      return false;
+    }
+
+    for (String token : acceptEncoding.split(",")) {
+      String[] parts = token.trim().split(";");
+      String coding = parts[0].trim();
+      if (!coding.equalsIgnoreCase("gzip") && !coding.equals("*")) {
+        continue;
+      }
+
+      for (int i = 1; i < parts.length; i++) {
+        String parameter = parts[i].trim();
+        if (parameter.startsWith("q=")) {
+          try {
+            return Double.parseDouble(parameter.substring(2)) > 0;
+          } catch (NumberFormatException exception) {
+            return false;
+          }
+        }
+      }
+      return true;
+    }
+    return false;
+  }
+}
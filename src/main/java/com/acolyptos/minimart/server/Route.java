@@ -0,0 +1,54 @@
+package com.acolyptos.minimart.server;
+
+import java.util.List;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpHandler;
+
+/*
+ * A single endpoint of the route table: one method on one path pattern.
+ * Segments written as {name} in the pattern are path parameters.
+ * maxBodyBytes bounds the request body the route accepts.
+ */
+public final class Route {
+  public static final long DEFAULT_MAX_BODY_BYTES = 16 * 1024;
+
+  private final HttpMethod method;
+  private final String pattern;
+  private final HttpHandler handler;
+  private final List<Filter> filters;
+  private final long maxBodyBytes;
+  private final String[] parameterNames;
+
+  Route(
+    HttpMethod method,
+    String pattern,
+    HttpHandler handler,
+    List<Filter> filters,
+    long maxBodyBytes,
+    String[] parameterNames
+  ) {
+    this.method = method;
+    this.pattern = pattern;
+    this.handler = handler;
+    this.filters = List.copyOf(filters);
+    this.maxBodyBytes = maxBodyBytes;
+    this.parameterNames = parameterNames;
+  }
+
+  public HttpMethod getMethod() { return method; }
+
+  public String getPattern() { return pattern; }
+
+  public HttpHandler getHandler() { return handler; }
+
+  public List<Filter> getFilters() { return filters; }
+
+  public long getMaxBodyBytes() { return maxBodyBytes; }
+
+  String[] getParameterNames() { return parameterNames; }
+
+  @Override
+  public String toString() {
+    return method + " " + pattern;
+  }
+}
@@ -0,0 +1,41 @@
+package com.acolyptos.minimart.server;
+
+/*
+ * The outcome of looking up a request in the RouteTable.
+ *
+ * Results without path parameters are created once when the table is
+ * compiled and shared between requests.
+ */
+public final class RouteMatch {
+  static final RouteMatch NOT_FOUND = new RouteMatch(null, null, null);
+
+  private final Route route;
+  private final PathParameters parameters;
+  private final String allowedMethods;
+
+  RouteMatch(Route route, PathParameters parameters, String allowedMethods) {
+    this.route = route;
+    this.parameters = parameters;
+    this.allowedMethods = allowedMethods;
+  }
+
+  public boolean isFound() {
+    return route != null;
+  }
+
+  /*
+   * @return true if the path matched a pattern but not for the request method.
+   */
+  public boolean isMethodNotAllowed() {
+    return route == null && allowedMethods != null;
+  }
+
+  public Route getRoute() { return route; }
+
+  public PathParameters getParameters() { return parameters; }
+
+  /*
+   * @return The value of the Allow header for a 405 response.
+   */
+  public String getAllowedMethods() { return allowedMethods; }
+}
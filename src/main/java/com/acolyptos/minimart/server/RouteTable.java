@@ -0,0 +1,261 @@
+package com.acolyptos.minimart.server;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.StringJoiner;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpHandler;
+
+/*
+ * Routing trie keyed by path segment, with one slot per HttpMethod on each
+ * node.
+ *
+ * Routes are added while the server is being configured, then compile()
+ * freezes the table and precomputes the shared results. Lookups walk the
+ * path by index and compare segments in place, so neither regexes nor
+ * substrings are involved. Only routes with path parameters allocate, to
+ * hold the offsets of the values. Static segments win over parameters when
+ * both could match.
+ */
+public class RouteTable {
+  private final Node root = new Node();
+  private boolean compiled;
+
+  /*
+   * Adds a route to the table, accepting request bodies up to
+   * Route.DEFAULT_MAX_BODY_BYTES.
+   *
+   * @param method - The method the route answers to.
+   *
+   * @param pattern - The path, where {name} segments are path parameters.
+   *
+   * @param handler - The handler of the route.
+   *
+   * @param filters - Filters run before the handler, in order.
+   *
+   * @return The registered Route.
+   */
+  public Route add(HttpMethod method, String pattern, HttpHandler handler, Filter... filters) {
+    return add(method, pattern, Route.DEFAULT_MAX_BODY_BYTES, handler, filters);
+  }
+
+  /*
+   * Adds a route to the table.
+   *
+   * @param method - The method the route answers to.
+   *
+   * @param pattern - The path, where {name} segments are path parameters.
+   *
+   * @param maxBodyBytes - The largest request body the route accepts.
+   *
+   * @param handler - The handler of the route.
+   *
+   * @param filters - Filters run before the handler, in order.
+   *
+   * @return The registered Route.
+   *
+   * @throws IllegalArgumentException if the pattern is invalid or the same
+   * method is already registered on an equivalent pattern.
+   */
+  public Route add(
+    HttpMethod method,
+    String pattern,
+    long maxBodyBytes,
+    HttpHandler handler,
+    Filter... filters
+  ) {
+    if (compiled) {
+      throw new IllegalStateException("Route table is already compiled.");
+    }
+    if (pattern == null || !pattern.startsWith("/")) {
+      throw new IllegalArgumentException("Route pattern must start with /.");
+    }
+    if (maxBodyBytes < 0) {
+      throw new IllegalArgumentException("Body limit of " + pattern + " cannot be negative.");
+    }
+
+    Node node = root;
+    List<String> parameterNames = new ArrayList<>();
+
+    for (String segment : segmentsOf(pattern)) {
+      if (segment.startsWith("{") && segment.endsWith("}")) {
+        String name = segment.substring(1, segment.length() - 1);
+        if (name.isEmpty()) {
+          throw new IllegalArgumentException("Empty path parameter in " + pattern);
+        }
+        if (node.parameterChild == null) {
+          node.parameterChild = new Node();
+        }
+        node = node.parameterChild;
+        parameterNames.add(name);
+      } else {
+        node = node.staticChild(segment);
+      }
+    }
+
+    if (node.routes[method.ordinal()] != null) {
+      throw new IllegalArgumentException(
+        "Duplicate route " + method + " " + pattern +
+        ", already registered as " + node.routes[method.ordinal()]
+      );
+    }
+
+    Route route = new Route(
+      method, pattern, handler, Arrays.asList(filters), maxBodyBytes,
+      parameterNames.toArray(new String[0])
+    );
+    node.routes[method.ordinal()] = route;
+    return route;
+  }
+
+  /*
+   * Freezes the table and precomputes the results shared by every lookup.
+   */
+  public RouteTable compile() {
+    root.compile();
+    compiled = true;
+    return this;
+  }
+
+  /*
+   * Looks up the route of a request.
+   *
+   * @param method - The request method.
+   *
+   * @param path - The raw request path, without the query string.
+   *
+   * @return The match, a method-not-allowed result or RouteMatch.NOT_FOUND.
+   */
+  public RouteMatch match(String method, String path) {
+    if (!compiled) {
+      throw new IllegalStateException("Route table is not compiled.");
+    }
+
+    int end = path.length();
+    while (end > 1 && path.charAt(end - 1) == '/') {
+      end--;
+    }
+
+    Node node = find(root, path, 1, end, 0, null);
+    if (node == null) {
+      return RouteMatch.NOT_FOUND;
+    }
+
+    HttpMethod resolved = HttpMethod.of(method);
+    Route route = resolved == null ? null : node.routes[resolved.ordinal()];
+    if (route == null) {
+      return node.methodNotAllowed;
+    }
+
+    if (node.depthOfParameters == 0) {
+      return node.matches[resolved.ordinal()];
+    }
+
+    int[] offsets = new int[node.depthOfParameters * 2];
+    find(root, path, 1, end, 0, offsets);
+    return new RouteMatch(
+      route, new PathParameters(route.getParameterNames(), path, offsets), null
+    );
+  }
+
+  /*
+   * Walks the trie from the given segment. When offsets is not null the
+   * start and end of each parameter value are written to it.
+   */
+  private Node find(Node node, String path, int start, int end, int parameter, int[] offsets) {
+    if (start >= end) {
+      return node.hasRoutes ? node : null;
+    }
+
+    int segmentEnd = path.indexOf('/', start);
+    if (segmentEnd < 0 || segmentEnd > end) {
+      segmentEnd = end;
+    }
+    int length = segmentEnd - start;
+
+    for (Node child : node.staticChildren) {
+      if (child.segment.length() == length
+          && path.regionMatches(start, child.segment, 0, length)) {
+        Node found = find(child, path, segmentEnd + 1, end, parameter, offsets);
+        if (found != null) {
+          return found;
+        }
+      }
+    }
+
+    if (node.parameterChild != null && length > 0) {
+      Node found = find(node.parameterChild, path, segmentEnd + 1, end, parameter + 1, offsets);
+      if (found != null) {
+        if (offsets != null) {
+          offsets[parameter * 2] = start;
+          offsets[parameter * 2 + 1] = segmentEnd;
+        }
+        return found;
+      }
+    }
+
+    return null;
+  }
+
+  private static List<String> segmentsOf(String pattern) {
+    List<String> segments = new ArrayList<>();
+    for (String segment : pattern.split("/")) {
+      if (!segment.isEmpty()) {
+        segments.add(segment);
+      }
+    }
+    return segments;
+  }
+
+  private static final class Node {
+    private String segment;
+    private Node[] staticChildren = new Node[0];
+    private Node parameterChild;
+    private final Route[] routes = new Route[HttpMethod.values().length];
+
+    // Precomputed by compile().
+    private boolean hasRoutes;
+    private int depthOfParameters;
+    private RouteMatch[] matches;
+    private RouteMatch methodNotAllowed;
+
+    private Node staticChild(String segment) {
+      for (Node child : staticChildren) {
+        if (child.segment.equals(segment)) {
+          return child;
+        }
+      }
+      Node child = new Node();
+      child.segment = segment;
+      staticChildren = Arrays.copyOf(staticChildren, staticChildren.length + 1);
+      staticChildren[staticChildren.length - 1] = child;
+      return child;
+    }
+
+    private void compile() {
+      StringJoiner allowed = new StringJoiner(", ");
+      matches = new RouteMatch[routes.length];
+
+      for (Route route : routes) {
+        if (route == null) {
+          continue;
+        }
+        hasRoutes = true;
+        depthOfParameters = route.getParameterNames().length;
+        matches[route.getMethod().ordinal()] =
+          new RouteMatch(route, PathParameters.EMPTY, null);
+        allowed.add(route.getMethod().name());
+      }
+
+      methodNotAllowed = hasRoutes ? new RouteMatch(null, null, allowed.toString()) : null;
+
+      for (Node child : staticChildren) {
+        child.compile();
+      }
+      if (parameterChild != null) {
+        parameterChild.compile();
+      }
+    }
+  }
+}
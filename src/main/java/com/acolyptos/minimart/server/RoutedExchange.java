@@ -0,0 +1,90 @@
+package com.acolyptos.minimart.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpPrincipal;
+
+/*
+ * Wraps the exchange given to the RoutingHandler so that attributes belong
+ * to the request. The JDK HttpServer stores exchange attributes on the
+ * shared HttpContext, which would leak path parameters and other
+ * per-request state between concurrent requests routed through "/".
+ */
+final class RoutedExchange extends HttpExchange {
+  private final HttpExchange exchange;
+  private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+
+  RoutedExchange(HttpExchange exchange) {
+    this.exchange = exchange;
+  }
+
+  @Override
+  public Headers getRequestHeaders() { return exchange.getRequestHeaders(); }
+
+  @Override
+  public Headers getResponseHeaders() { return exchange.getResponseHeaders(); }
+
+  @Override
+  public URI getRequestURI() { return exchange.getRequestURI(); }
+
+  @Override
+  public String getRequestMethod() { return exchange.getRequestMethod(); }
+
+  @Override
+  public HttpContext getHttpContext() { return exchange.getHttpContext(); }
+
+  @Override
+  public void close() { exchange.close(); }
+
+  @Override
+  public InputStream getRequestBody() { return exchange.getRequestBody(); }
+
+  @Override
+  public OutputStream getResponseBody() { return exchange.getResponseBody(); }
+
+  @Override
+  public void sendResponseHeaders(int statusCode, long responseLength)
+      throws IOException {
+    exchange.sendResponseHeaders(statusCode, responseLength);
+  }
+
+  @Override
+  public InetSocketAddress getRemoteAddress() { return exchange.getRemoteAddress(); }
+
+  @Override
+  public int getResponseCode() { return exchange.getResponseCode(); }
+
+  @Override
+  public InetSocketAddress getLocalAddress() { return exchange.getLocalAddress(); }
+
+  @Override
+  public String getProtocol() { return exchange.getProtocol(); }
+
+  @Override
+  public Object getAttribute(String name) { return attributes.get(name); }
+
+  @Override
+  public void setAttribute(String name, Object value) {
+    if (value == null) {
+      attributes.remove(name);
+    } else {
+      attributes.put(name, value);
+    }
+  }
+
+  @Override
+  public void setStreams(InputStream input, OutputStream output) {
+    exchange.setStreams(input, output);
+  }
+
+  @Override
+  public HttpPrincipal getPrincipal() { return exchange.getPrincipal(); }
+}
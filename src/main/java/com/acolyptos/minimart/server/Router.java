@@ -1,14 +1,68 @@
 package com.acolyptos.minimart.server;
 
-import com.acolyptos.minimart.handlers.ProductRegisterHandler;
-import com.acolyptos.minimart.handlers.UserLoginHandler;
-import com.acolyptos.minimart.handlers.UserRegisterHandler;
+import java.util.Arrays;
+import com.acolyptos.minimart.config.ApplicationContext;
+import com.acolyptos.minimart.models.Role;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpContext;
 import com.sun.net.httpserver.HttpServer;
 
 public class Router {
-  public static void registerRoutes(HttpServer server) {
-    server.createContext("/api/login", new UserLoginHandler());
-    server.createContext("/api/register", new UserRegisterHandler());
-    server.createContext("/api/addProduct", new ProductRegisterHandler());
+  /*
+   * Registers every route of the application on the given server. All
+   * routes live in one RouteTable served from the "/" context, so the
+   * method and path are matched once per request.
+   *
+   * @param server - The HttpServer that will receive the context.
+   *
+   * @param context - The application context holding the handlers.
+   *
+   * @param filters - Filters applied to every application route, in order.
+   * Protected routes run the AuthenticationFilter and the AuthorizationFilter
+   * of their roles after them.
+   *
+   * @return The "/" context serving every route.
+   */
+  public static HttpContext registerRoutes(
+    HttpServer server,
+    ApplicationContext context,
+    Filter... filters
+  ) {
+    RouteTable routes = new RouteTable();
+    // Roles allowed on each protected route, checked against the token claim.
+    AuthenticationFilter authentication = context.getAuthenticationFilter();
+    Filter[] staff = append(filters, authentication,
+      AuthorizationFilter.allow(Role.EMPLOYEE, Role.MANAGER));
+    Filter[] managers = append(filters, authentication,
+      AuthorizationFilter.allow(Role.MANAGER));
+
+    // Request bodies are small JSON documents, so their limits stay close
+    // to the largest valid request.
+    routes.add(HttpMethod.POST, "/api/login", 2 * 1024,
+      context.getUserLoginHandler(), filters);
+    if (context.getTokenAuthenticator().supportsRefresh()) {
+      routes.add(HttpMethod.POST, "/api/token/refresh", 2 * 1024,
+        context.getTokenRefreshHandler(), filters);
+    }
+    routes.add(HttpMethod.POST, "/api/logout", 2 * 1024,
+      context.getLogoutHandler(), staff);
+    routes.add(HttpMethod.POST, "/api/register", 4 * 1024,
+      context.getUserRegisterHandler(), filters);
+    routes.add(HttpMethod.POST, "/api/addProduct", 4 * 1024,
+      context.getProductRegisterHandler(), managers);
+    routes.add(HttpMethod.GET, "/api/products",
+      context.getProductListHandler(), staff);
+
+    // Metrics are kept outside of the admission control so the server can
+    // still be observed while it is shedding load.
+    routes.add(HttpMethod.GET, "/api/metrics", context.getMetricsHandler());
+
+    return server.createContext("/", new RoutingHandler(routes));
+  }
+
+  private static Filter[] append(Filter[] filters, Filter... more) {
+    Filter[] result = Arrays.copyOf(filters, filters.length + more.length);
+    System.arraycopy(more, 0, result, filters.length, more.length);
+    return result;
   }
 }
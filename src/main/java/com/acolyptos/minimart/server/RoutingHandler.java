@@ -0,0 +1,94 @@
+package com.acolyptos.minimart.server;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import com.acolyptos.minimart.server.nio.RequestBodyLimit;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+/*
+ * Single entry point of the server. Looks the request up in the RouteTable,
+ * answers 404 and 405 itself, and otherwise runs the filters and handler of
+ * the matched route with the path parameters attached to the exchange.
+ *
+ * Requests whose Content-Length exceeds the body limit of the route are
+ * answered with 413 before any filter runs. Every other body is wrapped in
+ * a LimitedInputStream, so chunked bodies are held to the same limit. The
+ * NIO engine asks for the limit as soon as the headers are parsed, and
+ * rejects a larger body before buffering it.
+ */
+public class RoutingHandler implements HttpHandler, RequestBodyLimit {
+  private static final byte[] NOT_FOUND =
+    "Resource not found.".getBytes(StandardCharsets.UTF_8);
+  private static final byte[] METHOD_NOT_ALLOWED =
+    "Method not Allowed.".getBytes(StandardCharsets.UTF_8);
+  private static final byte[] PAYLOAD_TOO_LARGE =
+    "Request body is too large.".getBytes(StandardCharsets.UTF_8);
+
+  private final RouteTable routeTable;
+
+  public RoutingHandler(RouteTable routeTable) {
+    this.routeTable = routeTable.compile();
+  }
+
+  /*
+   * The body limit of the route matching the request. Requests without a
+   * route are answered with 404 or 405 without reading their body, they get
+   * the default limit.
+   */
+  @Override
+  public long maxBodyBytes(String method, String rawPath) {
+    RouteMatch match = routeTable.match(method, rawPath);
+    return match.isFound()
+      ? match.getRoute().getMaxBodyBytes()
+      : Route.DEFAULT_MAX_BODY_BYTES;
+  }
+
+  @Override
+  public void handle(HttpExchange exchange) throws IOException {
+    RouteMatch match = routeTable.match(
+      exchange.getRequestMethod(), exchange.getRequestURI().getRawPath()
+    );
+
+    if (match.isFound()) {
+      Route route = match.getRoute();
+      if (declaredLength(exchange) > route.getMaxBodyBytes()) {
+        // The body is left unread, so the connection cannot be reused.
+        exchange.getResponseHeaders().set("Connection", "close");
+        ResponseWriter.send(exchange, 413, PAYLOAD_TOO_LARGE);
+        return;
+      }
+
+      HttpExchange routed = new RoutedExchange(exchange);
+      routed.setStreams(
+        new LimitedInputStream(exchange.getRequestBody(), route.getMaxBodyBytes()), null
+      );
+      routed.setAttribute(PathParameters.ATTRIBUTE, match.getParameters());
+      new Filter.Chain(route.getFilters(), route.getHandler()).doFilter(routed);
+
+    } else if (match.isMethodNotAllowed()) {
+      exchange.getResponseHeaders().set("Allow", match.getAllowedMethods());
+      ResponseWriter.send(exchange, 405, METHOD_NOT_ALLOWED);
+
+    } else {
+      ResponseWriter.send(exchange, 404, NOT_FOUND);
+    }
+  }
+
+  /*
+   * Returns the Content-Length of the request, -1 when it is absent.
+   * A malformed value counts as too large.
+   */
+  private static long declaredLength(HttpExchange exchange) {
+    String contentLength = exchange.getRequestHeaders().getFirst("Content-Length");
+    if (contentLength == null) {
+      return -1;
+    }
+    try {
+      return Long.parseLong(contentLength.trim());
+    } catch (NumberFormatException exception) {
+      return Long.MAX_VALUE;
+    }
+  }
+}
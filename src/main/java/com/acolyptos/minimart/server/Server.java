@@ -2,29 +2,90 @@ package com.acolyptos.minimart.server;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
-import com.acolyptos.minimart.database.DatabaseProvider;
-import com.acolyptos.minimart.database.MongoDB;
+import java.util.concurrent.ExecutorService;
+import com.acolyptos.minimart.config.AppConfig;
+import com.acolyptos.minimart.config.ApplicationContext;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpContext;
 import com.sun.net.httpserver.HttpServer;
 
 public class Server {
   public static void start() {
+    start(AppConfig.load());
+  }
+
+  public static void start(AppConfig config) {
+    start(config, ServerOptions.fromConfig(config));
+  }
+
+  public static void start(AppConfig config, ServerOptions options) {
     try {
-      DatabaseProvider mongoDB = new MongoDB();
+      // Builds every service and handler once, then pays the one-time costs
+      // of the request paths before the port opens.
+      ApplicationContext context = ApplicationContext.create(config);
+      context.warmUp();
+      MetricsRegistry metricsRegistry = context.getMetricsRegistry();
+
+      ConnectionMetrics connectionMetrics = new ConnectionMetrics();
+      metricsRegistry.register(connectionMetrics);
 
-      HttpServer httpServer = 
-        HttpServer.create(new InetSocketAddress(8080), 0);
+      HttpServer httpServer = options
+        .getEngine()
+        .create(new InetSocketAddress(options.getPort()), 0, options, connectionMetrics);
+
+      // Runs each exchange outside of the dispatcher thread unless the
+      // DISPATCHER mode was explicitly configured.
+      ExecutorService executor = options
+        .getExecutionMode()
+        .createExecutor(options.getWorkerThreads());
+      httpServer.setExecutor(executor);
+
+      // Counts the exchanges being handled so the shutdown can drain them.
+      InFlightFilter inFlight = new InFlightFilter();
+      metricsRegistry.register(inFlight);
+
+      // The BOUNDED mode admits exchanges into its pool through a filter so
+      // that a full queue can still be answered with a 429. The in-flight
+      // count runs after it, on the worker that handles the exchange.
+      BoundedWorkerPool workerPool = null;
+      Filter[] filters = new Filter[] { inFlight };
+      if (options.getExecutionMode() == ExecutionMode.BOUNDED) {
+        workerPool = new BoundedWorkerPool(
+          options.getWorkerThreads(), options.getQueueCapacity()
+        );
+        metricsRegistry.register(workerPool);
+        filters = new Filter[] {
+          new AdmissionFilter(workerPool, options.getRetryAfterSeconds()), inFlight
+        };
+      }
 
       // Register routes to the httpServer
-      Router.registerRoutes(httpServer);
+      HttpContext rootContext = Router.registerRoutes(httpServer, context, filters);
+
+      // The NIO engine tracks its connections itself, the JDK one needs a
+      // filter in front of every route, the metrics one included.
+      if (options.getEngine() == ServerEngine.JDK) {
+        rootContext.getFilters().add(new ConnectionTrackingFilter(
+          connectionMetrics,
+          options.isKeepAlive(),
+          options.getMaxRequestsPerConnection(),
+          options.getIdleTimeoutSeconds()
+        ));
+      }
 
       httpServer.start();
-      System.out.println("Server is running at http://localhost:8080");
+      System.out.println(
+        "Server is running at http://localhost:" + options.getPort() +
+        " (" + options.getEngine() + " engine, " +
+        options.getExecutionMode() + " execution)"
+      );
 
-      Runtime.getRuntime().addShutdownHook(new Thread(() -> {
-        mongoDB.closeConnection();
-        httpServer.stop(0);
-        System.out.println("Server stopped and MongoDB connection is closed.");
-      }));
+      // Stops accepting connections, drains the in-flight requests and only
+      // then closes MongoDB, which those requests may still be using.
+      Runtime.getRuntime().addShutdownHook(new Thread(new GracefulShutdown(
+        httpServer, inFlight, executor, workerPool, context.getPasswordHasher(),
+        context.getDatabase(), options.getShutdownGraceSeconds()
+      ), "shutdown"));
     } catch (IOException e) {
       System.err.println("Failed to start the server - " + e.getMessage());
     }
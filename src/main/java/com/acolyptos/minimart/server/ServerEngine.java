@@ -0,0 +1,88 @@
+package com.acolyptos.minimart.server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import com.acolyptos.minimart.server.nio.NioHttpServer;
+import com.sun.net.httpserver.HttpServer;
+
+/*
+ * Selects the transport that accepts connections and parses HTTP.
+ *
+ * JDK uses the com.sun.net.httpserver implementation shipped with the JDK.
+ * NIO uses NioHttpServer, a selector based event loop with pooled direct
+ * buffers, HTTP/1.1 keep-alive and pipelining. Both are HttpServer
+ * instances, so routes, filters and handlers are shared by the two engines.
+ */
+public enum ServerEngine {
+  JDK,
+  NIO;
+
+  /*
+   * Creates an unstarted server with the keep-alive settings of the options
+   * and its connections reported to the given metrics.
+   *
+   * The JDK engine reads its idle timeout from the sun.net.httpserver
+   * system properties when the first server is created, and only reports
+   * connections once ConnectionTrackingFilter is added to its contexts.
+   *
+   * @param address - The address to listen on.
+   *
+   * @param backlog - The socket backlog, 0 for the system default.
+   *
+   * @param options - The server options with the keep-alive settings.
+   *
+   * @param connectionMetrics - The counters of the connections.
+   *
+   * @return The HttpServer of the engine.
+   *
+   * @throws IOException if the address cannot be bound.
+   */
+  public HttpServer create(
+    InetSocketAddress address,
+    int backlog,
+    ServerOptions options,
+    ConnectionMetrics connectionMetrics
+  ) throws IOException {
+    switch (this) {
+      case NIO:
+        NioHttpServer nioServer = NioHttpServer.create(address, backlog);
+        nioServer.setKeepAlive(
+          options.isKeepAlive(),
+          options.getMaxRequestsPerConnection(),
+          options.getIdleTimeoutSeconds()
+        );
+        nioServer.setConnectionMetrics(connectionMetrics);
+        return nioServer;
+
+      default:
+        // Explicit -D values win over the options. The idle connections are
+        // checked every clock tick, 10s by default, which is too coarse for
+        // short idle timeouts.
+        setPropertyIfAbsent(
+          "sun.net.httpserver.idleInterval", String.valueOf(options.getIdleTimeoutSeconds())
+        );
+        setPropertyIfAbsent("sun.net.httpserver.clockTick", "1000");
+        return HttpServer.create(address, backlog);
+    }
+  }
+
+  private static void setPropertyIfAbsent(String name, String value) {
+    if (System.getProperty(name) == null) {
+      System.setProperty(name, value);
+    }
+  }
+
+  /*
+   * Resolves the engine from its configured name, ignoring case.
+   *
+   * @throws IllegalArgumentException if the name does not match any engine.
+   */
+  public static ServerEngine fromValue(String value) {
+    for (ServerEngine engine : values()) {
+      if (engine.name().equalsIgnoreCase(value.trim())) {
+        return engine;
+      }
+    }
+    throw new IllegalArgumentException("Unknown server engine: " + value);
+  }
+}
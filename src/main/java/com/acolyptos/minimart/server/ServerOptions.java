@@ -0,0 +1,107 @@
+package com.acolyptos.minimart.server;
+
+import com.acolyptos.minimart.config.AppConfig;
+
+/*
+ * Holds the settings used by Server when it creates the HttpServer.
+ * Values are read from the AppConfig and fall back to defaults that keep
+ * the server usable without any extra configuration.
+ */
+public class ServerOptions {
+  private final int port;
+  private final ServerEngine engine;
+  private final ExecutionMode executionMode;
+  private final int workerThreads;
+  private final int queueCapacity;
+  private final int retryAfterSeconds;
+  private final int shutdownGraceSeconds;
+  private final boolean keepAlive;
+  private final int idleTimeoutSeconds;
+  private final int maxRequestsPerConnection;
+
+  public ServerOptions(
+    int port,
+    ServerEngine engine,
+    ExecutionMode executionMode,
+    int workerThreads,
+    int queueCapacity,
+    int retryAfterSeconds,
+    int shutdownGraceSeconds,
+    boolean keepAlive,
+    int idleTimeoutSeconds,
+    int maxRequestsPerConnection
+  ) {
+    this.port = port;
+    this.engine = engine;
+    this.executionMode = executionMode;
+    this.workerThreads = workerThreads;
+    this.queueCapacity = queueCapacity;
+    this.retryAfterSeconds = retryAfterSeconds;
+    this.shutdownGraceSeconds = shutdownGraceSeconds;
+    this.keepAlive = keepAlive;
+    this.idleTimeoutSeconds = idleTimeoutSeconds;
+    this.maxRequestsPerConnection = maxRequestsPerConnection;
+  }
+
+  /*
+   * Reads the server settings from the configuration.
+   *
+   * SERVER_PORT - The port to listen on, 8080 by default.
+   * SERVER_ENGINE - JDK or NIO, JDK by default.
+   * SERVER_EXECUTION_MODE - DISPATCHER, VIRTUAL, PLATFORM or BOUNDED, VIRTUAL by default.
+   * SERVER_WORKER_THREADS - Threads of the PLATFORM and BOUNDED pools, twice the cores by default.
+   * SERVER_QUEUE_CAPACITY - Requests the BOUNDED pool may queue, 256 by default.
+   * SERVER_RETRY_AFTER_SECONDS - Retry-After sent with a 429, 1 by default.
+   * SERVER_SHUTDOWN_GRACE_SECONDS - Time given to in-flight requests on shutdown, 10 by default.
+   * SERVER_KEEP_ALIVE - Whether connections stay open between requests, true by default.
+   * SERVER_IDLE_TIMEOUT_SECONDS - Idle time after which a connection is closed, 30 by default.
+   * SERVER_MAX_REQUESTS_PER_CONNECTION - Requests before a connection is closed, 0 (no limit) by default.
+   *
+   * @param config - The configuration of the application.
+   *
+   * @return The ServerOptions built from the configuration.
+   */
+  public static ServerOptions fromConfig(AppConfig config) {
+    int port = config.getInt("SERVER_PORT", 8080);
+    ServerEngine engine = ServerEngine.fromValue(
+      config.getString("SERVER_ENGINE", ServerEngine.JDK.name())
+    );
+    ExecutionMode executionMode = ExecutionMode.fromValue(
+      config.getString("SERVER_EXECUTION_MODE", ExecutionMode.VIRTUAL.name())
+    );
+    int workerThreads = config.getInt(
+      "SERVER_WORKER_THREADS", Runtime.getRuntime().availableProcessors() * 2
+    );
+    int queueCapacity = config.getInt("SERVER_QUEUE_CAPACITY", 256);
+    int retryAfterSeconds = config.getInt("SERVER_RETRY_AFTER_SECONDS", 1);
+    int shutdownGraceSeconds = config.getInt("SERVER_SHUTDOWN_GRACE_SECONDS", 10);
+    boolean keepAlive = config.getBoolean("SERVER_KEEP_ALIVE", true);
+    int idleTimeoutSeconds = config.getInt("SERVER_IDLE_TIMEOUT_SECONDS", 30);
+    int maxRequestsPerConnection = config.getInt("SERVER_MAX_REQUESTS_PER_CONNECTION", 0);
+
+    return new ServerOptions(
+      port, engine, executionMode, workerThreads, queueCapacity, retryAfterSeconds,
+      shutdownGraceSeconds, keepAlive, idleTimeoutSeconds, maxRequestsPerConnection
+    );
+  }
+
+  public int getPort() { return port; }
+
+  public ServerEngine getEngine() { return engine; }
+
+  public ExecutionMode getExecutionMode() { return executionMode; }
+
+  public int getWorkerThreads() { return workerThreads; }
+
+  public int getQueueCapacity() { return queueCapacity; }
+
+  public int getRetryAfterSeconds() { return retryAfterSeconds; }
+
+  public int getShutdownGraceSeconds() { return shutdownGraceSeconds; }
+
+  public boolean isKeepAlive() { return keepAlive; }
+
+  public int getIdleTimeoutSeconds() { return idleTimeoutSeconds; }
+
+  public int getMaxRequestsPerConnection() { return maxRequestsPerConnection; }
+}
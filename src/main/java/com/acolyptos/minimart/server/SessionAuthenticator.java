@@ -0,0 +1,49 @@
+package com.acolyptos.minimart.server;
+
+import com.acolyptos.minimart.models.Role;
+
+/*
+ * Opaque session tokens resolved through a SessionStore. A lookup is a
+ * hash of the token and a map access, with no signature to verify, and a
+ * logout ends the session at once. Sessions are kept alive by use, so
+ * there is no refresh token.
+ */
+public class SessionAuthenticator implements TokenAuthenticator {
+  private final SessionStore sessionStore;
+
+  public SessionAuthenticator(SessionStore sessionStore) {
+    this.sessionStore = sessionStore;
+  }
+
+  @Override
+  public String issueToken(String userId, Role role) {
+    return sessionStore.create(userId, role);
+  }
+
+  @Override
+  public String issueRefreshToken(String userId, Role role) {
+    return null;
+  }
+
+  @Override
+  public UserPrincipal authenticate(String token) {
+    SessionStore.Session session = sessionStore.get(token);
+    return session == null
+      ? null
+      : new UserPrincipal(session.getUserId(), session.getRole(), token);
+  }
+
+  @Override
+  public void revoke(String token) {
+    sessionStore.revoke(token);
+  }
+
+  @Override
+  public boolean supportsRefresh() {
+    return false;
+  }
+
+  public SessionStore getSessionStore() {
+    return sessionStore;
+  }
+}
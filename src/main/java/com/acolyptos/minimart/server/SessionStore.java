@@ -0,0 +1,249 @@
+package com.acolyptos.minimart.server;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import com.acolyptos.minimart.models.Role;
+
+/*
+ * Server-side sessions behind random opaque tokens.
+ *
+ * The sessions are spread over a fixed number of stripes by the hash of
+ * their token, each one an access-ordered LinkedHashMap behind its own
+ * lock, so concurrent lookups only contend when they hit the same stripe.
+ * Every stripe holds an equal share of the size bound and evicts its
+ * least recently used session when it is full. A session that has not been
+ * used for the idle timeout is expired. Since a stripe is ordered by last
+ * use, the expired sessions are always at its head and are dropped from
+ * there on every insert.
+ */
+public class SessionStore implements MetricsSource {
+  private static final int TOKEN_BYTES = 32;
+
+  private final Stripe[] stripes;
+  private final long idleTimeoutNanos;
+  private final LongSupplier nanoClock;
+  private final SecureRandom random = new SecureRandom();
+
+  private final LongAdder created = new LongAdder();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder expired = new LongAdder();
+  private final LongAdder evicted = new LongAdder();
+  private final LongAdder revoked = new LongAdder();
+
+  /*
+   * @param maxSessions - The most sessions kept, the least recently used
+   * ones are evicted beyond it.
+   *
+   * @param idleTimeoutSeconds - Time without use after which a session expires.
+   *
+   * @param stripeCount - The number of independently locked stripes, rounded
+   * up to a power of two.
+   */
+  public SessionStore(int maxSessions, long idleTimeoutSeconds, int stripeCount) {
+    this(maxSessions, idleTimeoutSeconds, stripeCount, System::nanoTime);
+  }
+
+  SessionStore(int maxSessions, long idleTimeoutSeconds, int stripeCount, LongSupplier nanoClock) {
+    if (maxSessions <= 0) {
+      throw new IllegalArgumentException("Max sessions should be greater than 0.");
+    }
+    if (idleTimeoutSeconds <= 0) {
+      throw new IllegalArgumentException("Session idle timeout should be greater than 0.");
+    }
+    if (stripeCount <= 0) {
+      throw new IllegalArgumentException("Stripe count should be greater than 0.");
+    }
+
+    // No more stripes than sessions, so every stripe can hold one.
+    int stripesRounded = 1;
+    while (stripesRounded < stripeCount && stripesRounded < maxSessions) {
+      stripesRounded <<= 1;
+    }
+
+    this.stripes = new Stripe[stripesRounded];
+    int perStripe = (maxSessions + stripesRounded - 1) / stripesRounded;
+    for (int i = 0; i < stripes.length; i++) {
+      stripes[i] = new Stripe(perStripe);
+    }
+    this.idleTimeoutNanos = TimeUnit.SECONDS.toNanos(idleTimeoutSeconds);
+    this.nanoClock = nanoClock;
+  }
+
+  /*
+   * Opens a session for the user.
+   *
+   * @return The opaque token of the session, 256 random bits in base64url.
+   */
+  public String create(String userId, Role role) {
+    byte[] bytes = new byte[TOKEN_BYTES];
+    random.nextBytes(bytes);
+    String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+    long now = nanoClock.getAsLong();
+    Stripe stripe = stripeOf(token);
+    stripe.lock.lock();
+    try {
+      dropExpired(stripe, now);
+      stripe.sessions.put(token, new Session(userId, role, now));
+    } finally {
+      stripe.lock.unlock();
+    }
+
+    created.increment();
+    return token;
+  }
+
+  /*
+   * Looks the session of the token up and marks it as used.
+   *
+   * @return The session, or null if the token is unknown or has expired.
+   */
+  public Session get(String token) {
+    long now = nanoClock.getAsLong();
+    Stripe stripe = stripeOf(token);
+    Session session;
+
+    stripe.lock.lock();
+    try {
+      session = stripe.sessions.get(token);
+      if (session != null) {
+        if (now - session.lastUsedNanos > idleTimeoutNanos) {
+          stripe.sessions.remove(token);
+          expired.increment();
+          session = null;
+        } else {
+          session.lastUsedNanos = now;
+        }
+      }
+    } finally {
+      stripe.lock.unlock();
+    }
+
+    if (session == null) {
+      misses.increment();
+    } else {
+      hits.increment();
+    }
+    return session;
+  }
+
+  /*
+   * Ends the session of the token at once.
+   *
+   * @return true if the session existed.
+   */
+  public boolean revoke(String token) {
+    Stripe stripe = stripeOf(token);
+    stripe.lock.lock();
+    try {
+      if (stripe.sessions.remove(token) == null) {
+        return false;
+      }
+    } finally {
+      stripe.lock.unlock();
+    }
+    revoked.increment();
+    return true;
+  }
+
+  public int size() {
+    int size = 0;
+    for (Stripe stripe : stripes) {
+      stripe.lock.lock();
+      try {
+        size += stripe.sessions.size();
+      } finally {
+        stripe.lock.unlock();
+      }
+    }
+    return size;
+  }
+
+  /*
+   * Removes the expired sessions at the head of the stripe, the least
+   * recently used ones. Called with the lock of the stripe held.
+   */
+  private void dropExpired(Stripe stripe, long now) {
+    Iterator<Session> sessions = stripe.sessions.values().iterator();
+    while (sessions.hasNext()) {
+      if (now - sessions.next().lastUsedNanos <= idleTimeoutNanos) {
+        return;
+      }
+      sessions.remove();
+      expired.increment();
+    }
+  }
+
+  private Stripe stripeOf(String token) {
+    int hash = token.hashCode();
+    return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+  }
+
+  @Override
+  public String getMetricsName() {
+    return "sessions";
+  }
+
+  @Override
+  public Map<String, Number> snapshotMetrics() {
+    long hitCount = hits.sum();
+    long lookups = hitCount + misses.sum();
+
+    Map<String, Number> metrics = new LinkedHashMap<>();
+    metrics.put("active", size());
+    metrics.put("created", created.sum());
+    metrics.put("hits", hitCount);
+    metrics.put("misses", lookups - hitCount);
+    metrics.put("hitRatePercent", lookups == 0 ? 0 : hitCount * 100 / lookups);
+    metrics.put("expired", expired.sum());
+    metrics.put("evicted", evicted.sum());
+    metrics.put("revoked", revoked.sum());
+    return metrics;
+  }
+
+  /*
+   * The user behind a session token. Only the time of last use changes,
+   * under the lock of its stripe.
+   */
+  public static final class Session {
+    private final String userId;
+    private final Role role;
+    private long lastUsedNanos;
+
+    Session(String userId, Role role, long lastUsedNanos) {
+      this.userId = userId;
+      this.role = role;
+      this.lastUsedNanos = lastUsedNanos;
+    }
+
+    public String getUserId() { return userId; }
+
+    public Role getRole() { return role; }
+  }
+
+  private final class Stripe {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, Session> sessions;
+
+    Stripe(int capacity) {
+      this.sessions = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Session> eldest) {
+          if (size() > capacity) {
+            evicted.increment();
+            return true;
+          }
+          return false;
+        }
+      };
+    }
+  }
+}
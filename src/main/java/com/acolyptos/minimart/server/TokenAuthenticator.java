@@ -0,0 +1,40 @@
+package com.acolyptos.minimart.server;
+
+import com.acolyptos.minimart.models.Role;
+
+/*
+ * Issues the bearer tokens of logged in users and resolves them back to a
+ * UserPrincipal on later requests. AuthMode selects the implementation.
+ */
+public interface TokenAuthenticator {
+
+  /*
+   * @return The access token of a user who just logged in.
+   */
+  String issueToken(String userId, Role role);
+
+  /*
+   * @return The refresh token issued with the access token, or null if the
+   * mode has none.
+   */
+  String issueRefreshToken(String userId, Role role);
+
+  /*
+   * @param token - The bearer token, without the "Bearer " prefix.
+   *
+   * @return The principal of a valid token, or null.
+   */
+  UserPrincipal authenticate(String token);
+
+  /*
+   * Makes the access token unusable at once.
+   *
+   * @param token - The bearer token, without the "Bearer " prefix.
+   */
+  void revoke(String token);
+
+  /*
+   * @return true if access tokens expire and are renewed with refresh tokens.
+   */
+  boolean supportsRefresh();
+}
@@ -0,0 +1,90 @@
+package com.acolyptos.minimart.server;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Token buckets keyed by client, without locks.
+ *
+ * Each bucket is a single AtomicLong holding the time at which it will be
+ * full again, the "theoretical arrival time" of the generic cell rate
+ * algorithm. Taking a token moves that time forward by one refill interval
+ * with a compare-and-set, and a request is refused when the time is further
+ * ahead than the burst allows. A bucket whose time has passed is full and
+ * holds no information, so it is dropped by the next sweep.
+ */
+public class TokenBucketLimiter<K> {
+  private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  private final long refillIntervalNanos;
+  private final long burstNanos;
+  private final Map<K, AtomicLong> buckets = new ConcurrentHashMap<>();
+  private final AtomicLong nextSweepNanos = new AtomicLong(System.nanoTime());
+
+  /*
+   * @param capacity - The tokens of a full bucket, the largest burst.
+   *
+   * @param refillPeriod - The time in which an empty bucket fills up again.
+   *
+   * @param unit - The unit of the refill period.
+   */
+  public TokenBucketLimiter(int capacity, long refillPeriod, TimeUnit unit) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Bucket capacity should be greater than 0.");
+    }
+    if (refillPeriod <= 0) {
+      throw new IllegalArgumentException("Refill period should be greater than 0.");
+    }
+
+    this.refillIntervalNanos = Math.max(1, unit.toNanos(refillPeriod) / capacity);
+    this.burstNanos = refillIntervalNanos * (capacity - 1);
+  }
+
+  /*
+   * Takes a token from the bucket of the key.
+   *
+   * @param key - The client the request is charged to.
+   *
+   * @param nowNanos - The current System.nanoTime().
+   *
+   * @return 0 if a token was taken, otherwise the nanoseconds until the
+   * bucket holds one again.
+   */
+  public long tryAcquire(K key, long nowNanos) {
+    sweep(nowNanos);
+
+    AtomicLong bucket = buckets.computeIfAbsent(key, ignored -> new AtomicLong(nowNanos));
+    while (true) {
+      long fullAt = bucket.get();
+      long arrival = fullAt - nowNanos > 0 ? fullAt : nowNanos;
+      long ahead = arrival - nowNanos;
+      if (ahead > burstNanos) {
+        return ahead - burstNanos;
+      }
+      if (bucket.compareAndSet(fullAt, arrival + refillIntervalNanos)) {
+        return 0;
+      }
+    }
+  }
+
+  /*
+   * @return The buckets currently tracked, full ones included until the
+   * next sweep.
+   */
+  public int size() {
+    return buckets.size();
+  }
+
+  /*
+   * Drops the full buckets, at most once per second and from one thread.
+   */
+  private void sweep(long nowNanos) {
+    long next = nextSweepNanos.get();
+    if (nowNanos - next < 0 || !nextSweepNanos.compareAndSet(next, nowNanos + SWEEP_INTERVAL_NANOS)) {
+      return;
+    }
+    buckets.values().removeIf(bucket -> bucket.get() - nowNanos <= 0);
+  }
+}
@@ -0,0 +1,51 @@
+package com.acolyptos.minimart.server;
+
+import com.acolyptos.minimart.models.Role;
+import com.sun.net.httpserver.HttpExchange;
+
+/*
+ * The authenticated user of a request, as stored on the exchange by the
+ * AuthenticationFilter. Immutable, and built from the token claims alone.
+ */
+public final class UserPrincipal {
+  public static final String ATTRIBUTE = "minimart.principal";
+
+  private final String userId;
+  private final Role role;
+  private final String token;
+
+  public UserPrincipal(String userId, Role role) {
+    this(userId, role, null);
+  }
+
+  /*
+   * @param token - The bearer token the principal was authenticated with,
+   * kept so that it can be revoked.
+   */
+  public UserPrincipal(String userId, Role role, String token) {
+    this.userId = userId;
+    this.role = role;
+    this.token = token;
+  }
+
+  /*
+   * Retrieves the principal stored on the exchange by the AuthenticationFilter.
+   *
+   * @param exchange - The routed exchange.
+   *
+   * @return The principal, or null if the route is not authenticated.
+   */
+  public static UserPrincipal from(HttpExchange exchange) {
+    Object principal = exchange.getAttribute(ATTRIBUTE);
+    return principal instanceof UserPrincipal ? (UserPrincipal) principal : null;
+  }
+
+  public String getUserId() { return userId; }
+
+  public Role getRole() { return role; }
+
+  /*
+   * @return The bearer token of the request, or null.
+   */
+  public String getToken() { return token; }
+}
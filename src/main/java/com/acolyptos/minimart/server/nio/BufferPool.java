@@ -0,0 +1,39 @@
+package com.acolyptos.minimart.server.nio;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/*
+ * Pool of direct buffers of a single size, reused across connections so the
+ * event loop does not allocate native memory per request. Only the event
+ * loop thread touches the pool, so it needs no synchronization.
+ */
+final class BufferPool {
+  private final ArrayDeque<ByteBuffer> buffers = new ArrayDeque<>();
+  private final int bufferSize;
+  private final int maxPooled;
+
+  BufferPool(int bufferSize, int maxPooled) {
+    this.bufferSize = bufferSize;
+    this.maxPooled = maxPooled;
+  }
+
+  ByteBuffer acquire() {
+    ByteBuffer buffer = buffers.pollFirst();
+    if (buffer == null) {
+      return ByteBuffer.allocateDirect(bufferSize);
+    }
+    buffer.clear();
+    return buffer;
+  }
+
+  void release(ByteBuffer buffer) {
+    if (buffer != null && buffers.size() < maxPooled) {
+      buffers.addFirst(buffer);
+    }
+  }
+
+  int getBufferSize() {
+    return bufferSize;
+  }
+}
@@ -0,0 +1,18 @@
+package com.acolyptos.minimart.server.nio;
+
+/*
+ * Raised by the request parser when a request cannot be served. The status
+ * code is sent back to the client before the connection is closed.
+ */
+final class HttpParseException extends Exception {
+  private final int statusCode;
+
+  HttpParseException(int statusCode, String message) {
+    super(message);
+    this.statusCode = statusCode;
+  }
+
+  int getStatusCode() {
+    return statusCode;
+  }
+}
@@ -0,0 +1,206 @@
+package com.acolyptos.minimart.server.nio;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import com.sun.net.httpserver.Headers;
+
+/*
+ * Incremental HTTP/1.x request parser. Bytes are consumed from the read
+ * buffer of a connection as they arrive, so a request split across several
+ * reads, or several pipelined requests in one read, are both handled.
+ *
+ * The request line and headers have to fit in the read buffer. The body is
+ * copied out into its own array, which starts small and grows as the bytes
+ * arrive, so a Content-Length alone does not reserve memory. A body larger
+ * than the limit given for its method and path is rejected with 413 before
+ * any of it is read.
+ */
+final class HttpRequestParser {
+  private static final int INITIAL_BODY_BYTES = 8 * 1024;
+
+  private final long maxBodyBytes;
+  private final RequestBodyLimit bodyLimit;
+
+  // Header scan state, kept so a partial header is not rescanned from the start.
+  private int scanned;
+
+  // Body state, set once the headers of the current request were parsed.
+  private String method;
+  private String target;
+  private String protocol;
+  private Headers headers;
+  private boolean keepAlive;
+  private byte[] body;
+  private int bodyLength;
+  private int bodyRead;
+  private boolean expectContinue;
+
+  HttpRequestParser(long maxBodyBytes, RequestBodyLimit bodyLimit) {
+    this.maxBodyBytes = maxBodyBytes;
+    this.bodyLimit = bodyLimit;
+  }
+
+  /*
+   * Consumes bytes from the buffer until a full request is available.
+   *
+   * @param buffer - The read buffer of the connection, in read mode.
+   *
+   * @return The parsed request, or null if more bytes are needed.
+   *
+   * @throws HttpParseException if the request is malformed or too large.
+   */
+  ParsedRequest parse(ByteBuffer buffer) throws HttpParseException {
+    if (headers == null && !parseHead(buffer)) {
+      return null;
+    }
+
+    if (bodyRead < bodyLength) {
+      int length = Math.min(buffer.remaining(), bodyLength - bodyRead);
+      if (bodyRead + length > body.length) {
+        int capacity = Math.min(body.length * 2, bodyLength);
+        body = Arrays.copyOf(body, Math.max(bodyRead + length, capacity));
+      }
+      buffer.get(body, bodyRead, length);
+      bodyRead += length;
+
+      if (bodyRead < bodyLength) {
+        return null;
+      }
+    }
+
+    ParsedRequest request = new ParsedRequest(
+      method, target, protocol, headers, body, keepAlive
+    );
+    reset();
+    return request;
+  }
+
+  /*
+   * Tells whether the current request asked for a 100 Continue before
+   * sending its body. The flag is cleared once read.
+   */
+  boolean takeExpectContinue() {
+    boolean result = expectContinue && bodyRead < bodyLength;
+    expectContinue = false;
+    return result;
+  }
+
+  private boolean parseHead(ByteBuffer buffer) throws HttpParseException {
+    // Empty lines before a request line are allowed between pipelined requests.
+    while (scanned == 0 && buffer.remaining() >= 2
+        && buffer.get(buffer.position()) == '\r'
+        && buffer.get(buffer.position() + 1) == '\n') {
+      buffer.position(buffer.position() + 2);
+    }
+
+    int start = buffer.position();
+    int end = -1;
+    for (int i = start + Math.max(0, scanned - 3); i + 3 < buffer.limit(); i++) {
+      if (buffer.get(i) == '\r' && buffer.get(i + 1) == '\n'
+          && buffer.get(i + 2) == '\r' && buffer.get(i + 3) == '\n') {
+        end = i;
+        break;
+      }
+    }
+
+    if (end < 0) {
+      scanned = buffer.remaining();
+      if (buffer.limit() == buffer.capacity() && start == 0) {
+        throw new HttpParseException(431, "Request header fields too large.");
+      }
+      return false;
+    }
+
+    byte[] head = new byte[end - start];
+    buffer.get(head);
+    buffer.position(end + 4);
+    scanned = 0;
+
+    String[] lines = new String(head, StandardCharsets.ISO_8859_1).split("\r\n");
+    parseRequestLine(lines[0]);
+
+    headers = new Headers();
+    for (int i = 1; i < lines.length; i++) {
+      int colon = lines[i].indexOf(':');
+      if (colon <= 0) {
+        throw new HttpParseException(400, "Malformed header line.");
+      }
+      headers.add(lines[i].substring(0, colon).trim(), lines[i].substring(colon + 1).trim());
+    }
+
+    if (headers.containsKey("Transfer-Encoding")) {
+      throw new HttpParseException(501, "Chunked request bodies are not supported.");
+    }
+
+    long contentLength = 0;
+    String contentLengthValue = headers.getFirst("Content-Length");
+    if (contentLengthValue != null) {
+      try {
+        contentLength = Long.parseLong(contentLengthValue);
+      } catch (NumberFormatException exception) {
+        throw new HttpParseException(400, "Invalid Content-Length.");
+      }
+    }
+    if (contentLength < 0) {
+      throw new HttpParseException(400, "Invalid Content-Length.");
+    }
+    if (contentLength > maxBodyBytes
+        || (contentLength > 0 && contentLength > bodyLimit.maxBodyBytes(method, rawPath()))) {
+      throw new HttpParseException(413, "Request body too large.");
+    }
+
+    String connection = headers.getFirst("Connection");
+    if ("HTTP/1.1".equals(protocol)) {
+      keepAlive = connection == null || !connection.equalsIgnoreCase("close");
+    } else {
+      keepAlive = connection != null && connection.equalsIgnoreCase("keep-alive");
+    }
+
+    expectContinue = "100-continue".equalsIgnoreCase(headers.getFirst("Expect"));
+    bodyLength = (int) contentLength;
+    body = new byte[Math.min(bodyLength, INITIAL_BODY_BYTES)];
+    bodyRead = 0;
+    return true;
+  }
+
+  private void parseRequestLine(String line) throws HttpParseException {
+    int firstSpace = line.indexOf(' ');
+    int lastSpace = line.lastIndexOf(' ');
+    if (firstSpace <= 0 || lastSpace <= firstSpace) {
+      throw new HttpParseException(400, "Malformed request line.");
+    }
+
+    method = line.substring(0, firstSpace);
+    target = line.substring(firstSpace + 1, lastSpace);
+    protocol = line.substring(lastSpace + 1);
+
+    if (!protocol.equals("HTTP/1.1") && !protocol.equals("HTTP/1.0")) {
+      throw new HttpParseException(505, "HTTP version not supported.");
+    }
+  }
+
+  // Resolved like the exchange does, a malformed target is answered with
+  // 400 once it is dispatched.
+  private String rawPath() {
+    try {
+      String rawPath = URI.create(target).getRawPath();
+      return rawPath == null ? "" : rawPath;
+    } catch (IllegalArgumentException exception) {
+      return target;
+    }
+  }
+
+  private void reset() {
+    method = null;
+    target = null;
+    protocol = null;
+    headers = null;
+    body = null;
+    bodyLength = 0;
+    bodyRead = 0;
+    keepAlive = false;
+    expectContinue = false;
+  }
+}
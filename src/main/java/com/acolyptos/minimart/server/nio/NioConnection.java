@@ -0,0 +1,220 @@
+package com.acolyptos.minimart.server.nio;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * State of one client connection of the NIO engine.
+ *
+ * Everything except the write queue is owned by the event loop thread.
+ * Handler threads only append response bytes to the write queue and, when
+ * too many bytes are waiting, block until the event loop drains them.
+ */
+final class NioConnection {
+  private static final long HIGH_WATERMARK = 256 * 1024;
+  private static final long LOW_WATERMARK = 64 * 1024;
+
+  final SocketChannel channel;
+  final SelectionKey key;
+  final InetSocketAddress remoteAddress;
+  final InetSocketAddress localAddress;
+  final HttpRequestParser parser;
+  final ArrayDeque<ParsedRequest> pending = new ArrayDeque<>();
+
+  ByteBuffer readBuffer;
+  ByteBuffer writeBuffer;
+  NioHttpExchange current;
+  HttpParseException failure;
+  boolean inputClosed;
+  boolean closeAfterWrite;
+  long requests;
+  long idleSinceNanos = System.nanoTime();
+  long lastReadNanos = idleSinceNanos;
+
+  private final ConcurrentLinkedQueue<ByteBuffer> writeQueue = new ConcurrentLinkedQueue<>();
+  private final AtomicLong queuedBytes = new AtomicLong();
+  private final AtomicBoolean flushScheduled = new AtomicBoolean();
+  private final ReentrantLock writeLock = new ReentrantLock();
+  private final Condition drained = writeLock.newCondition();
+  private volatile boolean waitingForDrain;
+  private volatile boolean closed;
+
+  NioConnection(
+    SocketChannel channel,
+    SelectionKey key,
+    ByteBuffer readBuffer,
+    HttpRequestParser parser
+  ) throws IOException {
+    this.channel = channel;
+    this.key = key;
+    this.readBuffer = readBuffer;
+    this.parser = parser;
+    this.remoteAddress = (InetSocketAddress) channel.getRemoteAddress();
+    this.localAddress = (InetSocketAddress) channel.getLocalAddress();
+  }
+
+  /*
+   * Appends response bytes to the write queue. Called from handler threads.
+   *
+   * @return true if the caller should ask the event loop for a flush.
+   *
+   * @throws IOException if the connection was already closed.
+   */
+  boolean enqueue(ByteBuffer bytes) throws IOException {
+    if (closed) {
+      throw new IOException("Connection closed.");
+    }
+    queuedBytes.addAndGet(bytes.remaining());
+    writeQueue.add(bytes);
+    return flushScheduled.compareAndSet(false, true);
+  }
+
+  /*
+   * Blocks the calling handler thread while the write queue is above the
+   * high watermark, so a large streamed response cannot fill the heap.
+   */
+  void awaitWritable(long timeoutMillis) throws IOException {
+    if (queuedBytes.get() < HIGH_WATERMARK) {
+      return;
+    }
+
+    writeLock.lock();
+    try {
+      waitingForDrain = true;
+      long remaining = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+      while (!closed && queuedBytes.get() > LOW_WATERMARK) {
+        if (remaining <= 0) {
+          throw new IOException("Timed out waiting for the client to read the response.");
+        }
+        remaining = drained.awaitNanos(remaining);
+      }
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while writing the response.", exception);
+    } finally {
+      waitingForDrain = false;
+      writeLock.unlock();
+    }
+
+    if (closed) {
+      throw new IOException("Connection closed.");
+    }
+  }
+
+  /*
+   * Writes as much of the queue as the socket accepts, staging the bytes in
+   * a pooled direct buffer. Called from the event loop only.
+   *
+   * @return true if everything queued was written.
+   */
+  boolean flush(BufferPool pool) throws IOException {
+    flushScheduled.set(false);
+
+    while (true) {
+      if (writeBuffer == null || !writeBuffer.hasRemaining()) {
+        ByteBuffer next = writeQueue.peek();
+        if (next == null) {
+          break;
+        }
+
+        if (writeBuffer == null) {
+          writeBuffer = pool.acquire();
+        } else {
+          writeBuffer.clear();
+        }
+
+        while (next != null && writeBuffer.hasRemaining()) {
+          int length = Math.min(next.remaining(), writeBuffer.remaining());
+          writeBuffer.put(next.array(), next.arrayOffset() + next.position(), length);
+          next.position(next.position() + length);
+          if (!next.hasRemaining()) {
+            writeQueue.poll();
+            next = writeQueue.peek();
+          }
+        }
+        writeBuffer.flip();
+      }
+
+      int written = channel.write(writeBuffer);
+      if (queuedBytes.addAndGet(-written) <= LOW_WATERMARK) {
+        signalDrained();
+      }
+
+      if (writeBuffer.hasRemaining()) {
+        return false;
+      }
+    }
+
+    pool.release(writeBuffer);
+    writeBuffer = null;
+    return true;
+  }
+
+  boolean hasQueuedWrites() {
+    return queuedBytes.get() > 0;
+  }
+
+  long getQueuedBytes() {
+    return queuedBytes.get();
+  }
+
+  boolean isClosed() {
+    return closed;
+  }
+
+  /*
+   * A connection is idle when it has no request in progress or waiting and
+   * nothing left to write.
+   */
+  boolean isIdle() {
+    return current == null && pending.isEmpty() && !hasQueuedWrites();
+  }
+
+  /*
+   * Closes the socket and returns the buffers to the pool. Called from the
+   * event loop only.
+   */
+  void close(BufferPool pool) {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    key.cancel();
+
+    try {
+      channel.close();
+    } catch (IOException ignored) {
+      // The connection is being discarded anyway.
+    }
+
+    pool.release(readBuffer);
+    pool.release(writeBuffer);
+    readBuffer = null;
+    writeBuffer = null;
+    writeQueue.clear();
+    queuedBytes.set(0);
+    signalDrained();
+  }
+
+  private void signalDrained() {
+    if (!waitingForDrain) {
+      return;
+    }
+    writeLock.lock();
+    try {
+      drained.signalAll();
+    } finally {
+      writeLock.unlock();
+    }
+  }
+}
@@ -0,0 +1,79 @@
+package com.acolyptos.minimart.server.nio;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import com.sun.net.httpserver.Authenticator;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/*
+ * A context of the NIO engine. Like the JDK implementation, it matches every
+ * request path that starts with its own path.
+ */
+final class NioHttpContext extends HttpContext {
+  private final NioHttpServer server;
+  private final String path;
+  private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+  private final List<Filter> filters = new CopyOnWriteArrayList<>();
+  private volatile HttpHandler handler;
+  private volatile Authenticator authenticator;
+
+  NioHttpContext(NioHttpServer server, String path, HttpHandler handler) {
+    this.server = server;
+    this.path = path;
+    this.handler = handler;
+  }
+
+  @Override
+  public HttpHandler getHandler() {
+    return handler;
+  }
+
+  @Override
+  public void setHandler(HttpHandler handler) {
+    if (handler == null) {
+      throw new NullPointerException("Handler cannot be null.");
+    }
+    this.handler = handler;
+  }
+
+  @Override
+  public String getPath() {
+    return path;
+  }
+
+  @Override
+  public HttpServer getServer() {
+    return server;
+  }
+
+  @Override
+  public Map<String, Object> getAttributes() {
+    return attributes;
+  }
+
+  @Override
+  public List<Filter> getFilters() {
+    return filters;
+  }
+
+  /*
+   * Sets the authenticator checked before the filters of this context, as
+   * the JDK implementation does. Null removes it.
+   */
+  @Override
+  public Authenticator setAuthenticator(Authenticator authenticator) {
+    Authenticator previous = this.authenticator;
+    this.authenticator = authenticator;
+    return previous;
+  }
+
+  @Override
+  public Authenticator getAuthenticator() {
+    return authenticator;
+  }
+}
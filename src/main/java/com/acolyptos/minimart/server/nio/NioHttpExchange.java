@@ -0,0 +1,465 @@
+package com.acolyptos.minimart.server.nio;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import com.sun.net.httpserver.Authenticator;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpPrincipal;
+
+/*
+ * HttpExchange implementation of the NIO engine, so the existing handlers and
+ * filters run unchanged on either engine.
+ *
+ * Response bytes are staged in a small heap buffer and handed to the event
+ * loop in blocks. The status line and headers travel in the same block as
+ * the first bytes of the body, so a small JSON response is a single write.
+ */
+final class NioHttpExchange extends HttpExchange {
+  private static final int BLOCK_SIZE = 8 * 1024;
+  private static final long WRITE_TIMEOUT_MILLIS = 30_000;
+
+  private final NioHttpServer server;
+  private final NioConnection connection;
+  private final NioHttpContext context;
+  private final ParsedRequest request;
+  private final URI requestUri;
+  private final Headers responseHeaders = new Headers();
+  private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+  private final ResponseStream rawResponseBody = new ResponseStream();
+  private final AtomicBoolean closed = new AtomicBoolean();
+
+  private InputStream requestBody;
+  private OutputStream responseBody;
+  private volatile boolean keepAlive;
+  private volatile int responseCode = -1;
+  private volatile HttpPrincipal principal;
+
+  NioHttpExchange(
+    NioHttpServer server,
+    NioConnection connection,
+    NioHttpContext context,
+    ParsedRequest request,
+    URI requestUri
+  ) {
+    this.server = server;
+    this.connection = connection;
+    this.context = context;
+    this.request = request;
+    this.requestUri = requestUri;
+    this.keepAlive = request.keepAlive && server.allowsKeepAlive(connection);
+    this.requestBody = new ByteArrayInputStream(request.body);
+    this.responseBody = rawResponseBody;
+  }
+
+  /*
+   * Runs the authenticator, filters and handler of the context. Exchanges
+   * left without a response because of an exception are answered with 500,
+   * a response that was already started is aborted.
+   */
+  void run() {
+    try {
+      if (authenticate()) {
+        new Filter.Chain(context.getFilters(), context.getHandler()).doFilter(this);
+      }
+    } catch (Throwable throwable) {
+      server.logHandlerFailure(throwable);
+      if (responseCode < 0) {
+        try {
+          sendResponseHeaders(500, -1);
+        } catch (IOException ignored) {
+          // The exchange is being closed anyway.
+        }
+        close();
+      } else {
+        abort();
+      }
+    }
+  }
+
+  /*
+   * Checks the request with the authenticator of the context, if any, like
+   * the JDK implementation. A retry or a failure is answered with its status
+   * code, and the filters and handler do not run.
+   */
+  private boolean authenticate() throws IOException {
+    Authenticator authenticator = context.getAuthenticator();
+    if (authenticator == null) {
+      return true;
+    }
+
+    Authenticator.Result result = authenticator.authenticate(this);
+    if (result instanceof Authenticator.Success) {
+      principal = ((Authenticator.Success) result).getPrincipal();
+      return true;
+    }
+
+    int statusCode = result instanceof Authenticator.Retry
+      ? ((Authenticator.Retry) result).getResponseCode()
+      : ((Authenticator.Failure) result).getResponseCode();
+    sendResponseHeaders(statusCode, -1);
+    close();
+    return false;
+  }
+
+  boolean isKeepAlive() {
+    return keepAlive;
+  }
+
+  @Override
+  public Headers getRequestHeaders() {
+    return request.headers;
+  }
+
+  @Override
+  public Headers getResponseHeaders() {
+    return responseHeaders;
+  }
+
+  @Override
+  public URI getRequestURI() {
+    return requestUri;
+  }
+
+  @Override
+  public String getRequestMethod() {
+    return request.method;
+  }
+
+  @Override
+  public HttpContext getHttpContext() {
+    return context;
+  }
+
+  /*
+   * Completes the exchange. A response that was never started closes the
+   * connection, as does a fixed-length body that was not fully written.
+   * When the stream a filter set with setStreams fails to close, the
+   * response is aborted, as the JDK engine does.
+   */
+  @Override
+  public void close() {
+    if (!closed.compareAndSet(false, true)) {
+      return;
+    }
+
+    try {
+      if (responseCode < 0) {
+        keepAlive = false;
+      } else {
+        if (responseBody != rawResponseBody) {
+          responseBody.close();
+        }
+        rawResponseBody.finish();
+      }
+    } catch (IOException exception) {
+      keepAlive = false;
+      rawResponseBody.abort();
+    } finally {
+      server.completeExchange(connection, this);
+    }
+  }
+
+  /*
+   * Ends a started response without completing its body, no terminating
+   * chunk is written, and closes the connection once the bytes already
+   * handed to the event loop are written.
+   */
+  private void abort() {
+    if (!closed.compareAndSet(false, true)) {
+      return;
+    }
+
+    keepAlive = false;
+    rawResponseBody.abort();
+    server.completeExchange(connection, this);
+  }
+
+  @Override
+  public InputStream getRequestBody() {
+    return requestBody;
+  }
+
+  @Override
+  public OutputStream getResponseBody() {
+    return responseBody;
+  }
+
+  @Override
+  public void sendResponseHeaders(int statusCode, long responseLength) throws IOException {
+    if (responseCode >= 0) {
+      throw new IOException("Headers already sent.");
+    }
+    if (statusCode < 100 || statusCode > 999) {
+      throw new IllegalArgumentException("Invalid status code: " + statusCode);
+    }
+
+    boolean bodyAllowed = statusCode >= 200 && statusCode != 204 && statusCode != 304
+      && !"HEAD".equals(request.method);
+    String connectionHeader = responseHeaders.getFirst("Connection");
+    if (connectionHeader != null && connectionHeader.equalsIgnoreCase("close")) {
+      keepAlive = false;
+    }
+
+    StringBuilder head = new StringBuilder(256);
+    head.append(request.protocol).append(' ')
+      .append(statusCode).append(' ')
+      .append(reasonPhrase(statusCode)).append("\r\n");
+
+    for (Map.Entry<String, List<String>> header : responseHeaders.entrySet()) {
+      String name = header.getKey();
+      if (name.equalsIgnoreCase("Content-Length")
+          || name.equalsIgnoreCase("Transfer-Encoding")
+          || name.equalsIgnoreCase("Connection")) {
+        continue;
+      }
+      for (String value : header.getValue()) {
+        head.append(name).append(": ").append(value).append("\r\n");
+      }
+    }
+
+    long bodyLength;
+    if (!bodyAllowed) {
+      bodyLength = 0;
+      if (statusCode >= 200 && statusCode != 204 && responseLength > 0) {
+        head.append("Content-Length: ").append(responseLength).append("\r\n");
+      }
+    } else if (responseLength > 0) {
+      bodyLength = responseLength;
+      head.append("Content-Length: ").append(responseLength).append("\r\n");
+    } else if (responseLength == 0) {
+      bodyLength = -1;
+      head.append("Transfer-Encoding: chunked\r\n");
+    } else {
+      bodyLength = 0;
+      head.append("Content-Length: 0\r\n");
+    }
+
+    head.append("Connection: ").append(keepAlive ? "keep-alive" : "close").append("\r\n\r\n");
+
+    responseCode = statusCode;
+    rawResponseBody.start(head.toString().getBytes(StandardCharsets.ISO_8859_1), bodyLength);
+  }
+
+  @Override
+  public InetSocketAddress getRemoteAddress() {
+    return connection.remoteAddress;
+  }
+
+  @Override
+  public int getResponseCode() {
+    return responseCode;
+  }
+
+  @Override
+  public InetSocketAddress getLocalAddress() {
+    return connection.localAddress;
+  }
+
+  @Override
+  public String getProtocol() {
+    return request.protocol;
+  }
+
+  @Override
+  public Object getAttribute(String name) {
+    return attributes.get(name);
+  }
+
+  @Override
+  public void setAttribute(String name, Object value) {
+    if (value == null) {
+      attributes.remove(name);
+    } else {
+      attributes.put(name, value);
+    }
+  }
+
+  @Override
+  public void setStreams(InputStream input, OutputStream output) {
+    if (input != null) {
+      requestBody = input;
+    }
+    if (output != null) {
+      responseBody = output;
+    }
+  }
+
+  @Override
+  public HttpPrincipal getPrincipal() {
+    return principal;
+  }
+
+  private static String reasonPhrase(int statusCode) {
+    switch (statusCode) {
+      case 100: return "Continue";
+      case 200: return "OK";
+      case 201: return "Created";
+      case 202: return "Accepted";
+      case 204: return "No Content";
+      case 304: return "Not Modified";
+      case 400: return "Bad Request";
+      case 401: return "Unauthorized";
+      case 403: return "Forbidden";
+      case 404: return "Not Found";
+      case 405: return "Method Not Allowed";
+      case 408: return "Request Timeout";
+      case 409: return "Conflict";
+      case 413: return "Content Too Large";
+      case 429: return "Too Many Requests";
+      case 431: return "Request Header Fields Too Large";
+      case 500: return "Internal Server Error";
+      case 501: return "Not Implemented";
+      case 503: return "Service Unavailable";
+      case 505: return "HTTP Version Not Supported";
+      default: return "";
+    }
+  }
+
+  /*
+   * Body stream of the response. Handles the fixed-length, chunked and
+   * empty cases chosen by sendResponseHeaders.
+   */
+  private final class ResponseStream extends OutputStream {
+    private byte[] head;
+    private byte[] block;
+    private int count;
+    private long remaining;
+    private boolean chunked;
+    private boolean started;
+    private boolean finished;
+
+    void start(byte[] head, long bodyLength) {
+      this.head = head;
+      this.chunked = bodyLength < 0;
+      this.remaining = Math.max(bodyLength, 0);
+      this.block = chunked || remaining > 0
+        ? new byte[(int) Math.min(BLOCK_SIZE, chunked ? BLOCK_SIZE : remaining)]
+        : null;
+      this.started = true;
+    }
+
+    @Override
+    public void write(int value) throws IOException {
+      write(new byte[] { (byte) value }, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+      if (!started) {
+        throw new IOException("sendResponseHeaders() has not been called.");
+      }
+      if (finished) {
+        throw new IOException("Response body already closed.");
+      }
+      if (!chunked) {
+        if (length > remaining) {
+          throw new IOException("Too many bytes for the declared Content-Length.");
+        }
+        remaining -= length;
+      }
+
+      while (length > 0) {
+        int copied = Math.min(length, block.length - count);
+        System.arraycopy(bytes, offset, block, count, copied);
+        count += copied;
+        offset += copied;
+        length -= copied;
+
+        if (count == block.length) {
+          send(false);
+        }
+      }
+    }
+
+    @Override
+    public void flush() throws IOException {
+      if (started && !finished && (count > 0 || head != null)) {
+        send(false);
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      NioHttpExchange.this.close();
+    }
+
+    void abort() {
+      finished = true;
+      head = null;
+      count = 0;
+    }
+
+    void finish() throws IOException {
+      if (finished) {
+        return;
+      }
+      if (!chunked && remaining > 0) {
+        keepAlive = false;
+      }
+      send(true);
+      finished = true;
+    }
+
+    private void send(boolean last) throws IOException {
+      int headLength = head == null ? 0 : head.length;
+      byte[] out;
+      int position = 0;
+
+      if (chunked) {
+        byte[] size = count > 0
+          ? (Integer.toHexString(count) + "\r\n").getBytes(StandardCharsets.ISO_8859_1)
+          : new byte[0];
+        int trailerLength = last ? 5 : 0;
+        out = new byte[headLength + size.length + count + (count > 0 ? 2 : 0) + trailerLength];
+        position = copy(head, out, position);
+        position = copy(size, out, position);
+        System.arraycopy(block, 0, out, position, count);
+        position += count;
+        if (count > 0) {
+          out[position++] = '\r';
+          out[position++] = '\n';
+        }
+        if (last) {
+          copy("0\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1), out, position);
+        }
+      } else {
+        out = new byte[headLength + count];
+        position = copy(head, out, position);
+        if (count > 0) {
+          System.arraycopy(block, 0, out, position, count);
+        }
+      }
+
+      head = null;
+      count = 0;
+
+      if (out.length > 0) {
+        server.write(connection, ByteBuffer.wrap(out));
+        if (!last) {
+          server.awaitWritable(connection, WRITE_TIMEOUT_MILLIS);
+        }
+      }
+    }
+
+    private int copy(byte[] source, byte[] target, int position) {
+      if (source == null) {
+        return position;
+      }
+      System.arraycopy(source, 0, target, position, source.length);
+      return position + source.length;
+    }
+  }
+}
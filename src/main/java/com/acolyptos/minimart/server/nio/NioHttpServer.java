@@ -0,0 +1,633 @@
+package com.acolyptos.minimart.server.nio;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.acolyptos.minimart.server.ConnectionMetrics;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/*
+ * HttpServer implemented on a single NIO selector thread.
+ *
+ * The event loop accepts connections, reads and parses requests into pooled
+ * direct buffers and writes responses back, keeping HTTP/1.1 connections
+ * open between requests. Pipelined requests are queued per connection and
+ * answered in order. Handlers run on the configured executor, or on the
+ * event loop itself when none is set, exactly like the JDK implementation.
+ *
+ * Connections without activity for the idle timeout are closed by a sweep
+ * of the event loop, and the keep-alive settings cap how many requests a
+ * connection may carry. Connection events are reported to ConnectionMetrics.
+ */
+public final class NioHttpServer extends HttpServer {
+  private static final Logger LOG = LoggerFactory.getLogger(NioHttpServer.class);
+
+  public static final int DEFAULT_BUFFER_SIZE = 16 * 1024;
+  public static final long DEFAULT_MAX_BODY_BYTES = 1024 * 1024;
+  public static final int DEFAULT_IDLE_TIMEOUT_SECONDS = 30;
+  private static final int MAX_PIPELINED_REQUESTS = 16;
+  private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+  private static final byte[] CONTINUE =
+    "HTTP/1.1 100 Continue\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1);
+
+  private final List<NioHttpContext> contexts = new CopyOnWriteArrayList<>();
+  private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+  private final Set<NioConnection> connections = ConcurrentHashMap.newKeySet();
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final BufferPool bufferPool;
+  private final long maxBodyBytes;
+
+  private Selector selector;
+  private ServerSocketChannel serverChannel;
+  private Thread eventLoop;
+  private volatile Executor executor;
+  private volatile boolean running;
+  private volatile boolean keepAlive = true;
+  private volatile int maxRequestsPerConnection;
+  private volatile long idleTimeoutNanos = TimeUnit.SECONDS.toNanos(DEFAULT_IDLE_TIMEOUT_SECONDS);
+  private volatile ConnectionMetrics connectionMetrics = new ConnectionMetrics();
+  private long nextSweepNanos;
+
+  public NioHttpServer(int bufferSize, long maxBodyBytes) {
+    this.bufferPool = new BufferPool(bufferSize, 1024);
+    this.maxBodyBytes = maxBodyBytes;
+  }
+
+  /*
+   * Creates a NIO server bound to the given address, mirroring
+   * HttpServer.create(address, backlog).
+   */
+  public static NioHttpServer create(InetSocketAddress address, int backlog) throws IOException {
+    NioHttpServer server = new NioHttpServer(DEFAULT_BUFFER_SIZE, DEFAULT_MAX_BODY_BYTES);
+    if (address != null) {
+      server.bind(address, backlog);
+    }
+    return server;
+  }
+
+  @Override
+  public void bind(InetSocketAddress address, int backlog) throws IOException {
+    if (serverChannel != null) {
+      throw new IllegalStateException("Server already bound.");
+    }
+    selector = Selector.open();
+    serverChannel = ServerSocketChannel.open();
+    serverChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+    serverChannel.bind(address, backlog);
+    serverChannel.configureBlocking(false);
+  }
+
+  @Override
+  public void start() {
+    if (serverChannel == null) {
+      throw new IllegalStateException("Server not bound.");
+    }
+    if (running) {
+      throw new IllegalStateException("Server already started.");
+    }
+
+    try {
+      serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    } catch (IOException exception) {
+      throw new IllegalStateException("Unable to register the server socket.", exception);
+    }
+
+    running = true;
+    eventLoop = Thread.ofPlatform().name("nio-event-loop").start(this::runEventLoop);
+  }
+
+  @Override
+  public void setExecutor(Executor executor) {
+    if (running) {
+      throw new IllegalStateException("Server already started.");
+    }
+    this.executor = executor;
+  }
+
+  @Override
+  public Executor getExecutor() {
+    return executor;
+  }
+
+  /*
+   * Sets the keep-alive behaviour of the connections.
+   *
+   * @param keepAlive - false to close every connection after one response.
+   *
+   * @param maxRequestsPerConnection - Requests after which a connection is
+   * closed, 0 for no limit.
+   *
+   * @param idleTimeoutSeconds - Seconds without activity after which an
+   * idle connection is closed.
+   */
+  public void setKeepAlive(boolean keepAlive, int maxRequestsPerConnection, int idleTimeoutSeconds) {
+    if (maxRequestsPerConnection < 0 || idleTimeoutSeconds <= 0) {
+      throw new IllegalArgumentException("Invalid keep-alive settings.");
+    }
+    this.keepAlive = keepAlive;
+    this.maxRequestsPerConnection = maxRequestsPerConnection;
+    this.idleTimeoutNanos = TimeUnit.SECONDS.toNanos(idleTimeoutSeconds);
+  }
+
+  public void setConnectionMetrics(ConnectionMetrics connectionMetrics) {
+    if (running) {
+      throw new IllegalStateException("Server already started.");
+    }
+    this.connectionMetrics = connectionMetrics;
+  }
+
+  /*
+   * Stops accepting connections, then waits up to the given delay for the
+   * exchanges in progress to complete and their responses to be written
+   * before closing every connection.
+   */
+  @Override
+  public void stop(int delaySeconds) {
+    if (delaySeconds < 0) {
+      throw new IllegalArgumentException("Negative delay.");
+    }
+    if (!running) {
+      return;
+    }
+
+    execute(() -> {
+      try {
+        serverChannel.close();
+      } catch (IOException exception) {
+        LOG.warn("Failed to close the server socket: " + exception.getMessage());
+      }
+    });
+
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(delaySeconds);
+    while (System.nanoTime() < deadline && (inFlight.get() > 0 || hasQueuedWrites())) {
+      try {
+        Thread.sleep(10);
+      } catch (InterruptedException exception) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+
+    running = false;
+    selector.wakeup();
+    try {
+      eventLoop.join(TimeUnit.SECONDS.toMillis(5));
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Override
+  public HttpContext createContext(String path, HttpHandler handler) {
+    NioHttpContext context = newContext(path);
+    context.setHandler(handler);
+    return context;
+  }
+
+  @Override
+  public HttpContext createContext(String path) {
+    return newContext(path);
+  }
+
+  @Override
+  public void removeContext(String path) {
+    NioHttpContext context = findExactContext(path);
+    if (context == null) {
+      throw new IllegalArgumentException("No context with path " + path);
+    }
+    contexts.remove(context);
+  }
+
+  @Override
+  public void removeContext(HttpContext context) {
+    if (!contexts.remove(context)) {
+      throw new IllegalArgumentException("Context not registered on this server.");
+    }
+  }
+
+  @Override
+  public InetSocketAddress getAddress() {
+    try {
+      return (InetSocketAddress) serverChannel.getLocalAddress();
+    } catch (IOException exception) {
+      return null;
+    }
+  }
+
+  void write(NioConnection connection, ByteBuffer bytes) throws IOException {
+    if (connection.enqueue(bytes)) {
+      execute(() -> flush(connection));
+    }
+  }
+
+  void awaitWritable(NioConnection connection, long timeoutMillis) throws IOException {
+    // The event loop cannot wait for itself to drain the queue.
+    if (Thread.currentThread() != eventLoop) {
+      connection.awaitWritable(timeoutMillis);
+    }
+  }
+
+  void completeExchange(NioConnection connection, NioHttpExchange exchange) {
+    execute(() -> onExchangeComplete(connection, exchange));
+  }
+
+  /*
+   * Whether the response to the current request may keep the connection
+   * open. Called once per exchange, after its request was counted.
+   */
+  boolean allowsKeepAlive(NioConnection connection) {
+    int maxRequests = maxRequestsPerConnection;
+    return keepAlive && (maxRequests == 0 || connection.requests < maxRequests);
+  }
+
+  void logHandlerFailure(Throwable throwable) {
+    LOG.error("Unhandled error in handler: " + throwable.getMessage(), throwable);
+  }
+
+  private void execute(Runnable task) {
+    if (Thread.currentThread() == eventLoop) {
+      task.run();
+    } else {
+      tasks.add(task);
+      selector.wakeup();
+    }
+  }
+
+  private void runEventLoop() {
+    while (running) {
+      try {
+        selector.select(1000);
+        runTasks();
+        closeIdleConnections();
+
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+          SelectionKey key = keys.next();
+          keys.remove();
+
+          if (!key.isValid()) {
+            continue;
+          }
+          if (key.isAcceptable()) {
+            accept();
+            continue;
+          }
+
+          NioConnection connection = (NioConnection) key.attachment();
+          if (key.isWritable()) {
+            flush(connection);
+          }
+          if (key.isValid() && key.isReadable()) {
+            read(connection);
+          }
+        }
+      } catch (IOException | RuntimeException exception) {
+        LOG.error("Error in NIO event loop: " + exception.getMessage(), exception);
+      }
+    }
+
+    for (NioConnection connection : new ArrayList<>(connections)) {
+      close(connection);
+    }
+    try {
+      selector.close();
+    } catch (IOException ignored) {
+      // Nothing left to release.
+    }
+  }
+
+  private void runTasks() {
+    Runnable task;
+    while ((task = tasks.poll()) != null) {
+      task.run();
+    }
+  }
+
+  /*
+   * Closes the connections that had no activity for the idle timeout,
+   * including those holding a request that stopped arriving half way.
+   */
+  private void closeIdleConnections() {
+    long now = System.nanoTime();
+    if (now - nextSweepNanos < 0) {
+      return;
+    }
+    nextSweepNanos = now + SWEEP_INTERVAL_NANOS;
+
+    long timeout = idleTimeoutNanos;
+    for (NioConnection connection : connections) {
+      long lastActivity = Math.max(connection.idleSinceNanos, connection.lastReadNanos);
+      if (connection.current == null && !connection.hasQueuedWrites()
+          && now - lastActivity >= timeout) {
+        close(connection, connection.isIdle());
+      }
+    }
+  }
+
+  private void accept() throws IOException {
+    SocketChannel channel;
+    while ((channel = serverChannel.accept()) != null) {
+      channel.configureBlocking(false);
+      channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+
+      SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+      NioConnection connection = new NioConnection(
+        channel, key, bufferPool.acquire(), new HttpRequestParser(maxBodyBytes, this::maxBodyBytes)
+      );
+      key.attach(connection);
+      connections.add(connection);
+      connectionMetrics.connectionOpened();
+    }
+  }
+
+  private void read(NioConnection connection) {
+    int read;
+    try {
+      read = connection.channel.read(connection.readBuffer);
+    } catch (IOException exception) {
+      close(connection);
+      return;
+    }
+
+    if (read > 0) {
+      connection.lastReadNanos = System.nanoTime();
+    }
+
+    if (read < 0) {
+      connection.inputClosed = true;
+      if (connection.current == null && connection.pending.isEmpty()) {
+        close(connection);
+        return;
+      }
+      connection.closeAfterWrite = true;
+    }
+
+    processInput(connection);
+  }
+
+  /*
+   * Parses every complete request in the read buffer and dispatches the next
+   * one if the connection is idle. Reading is paused while too many
+   * pipelined requests are waiting or the buffer is full.
+   */
+  private void processInput(NioConnection connection) {
+    if (connection.isClosed()) {
+      return;
+    }
+
+    ByteBuffer buffer = connection.readBuffer;
+    buffer.flip();
+    try {
+      while (connection.failure == null
+          && connection.pending.size() < MAX_PIPELINED_REQUESTS) {
+        ParsedRequest request = connection.parser.parse(buffer);
+        if (request == null) {
+          if (connection.parser.takeExpectContinue()
+              && connection.current == null && connection.pending.isEmpty()) {
+            write(connection, ByteBuffer.wrap(CONTINUE.clone()));
+          }
+          break;
+        }
+        connection.pending.add(request);
+        if (!request.keepAlive) {
+          break;
+        }
+      }
+    } catch (HttpParseException exception) {
+      connection.failure = exception;
+    } catch (IOException exception) {
+      close(connection);
+      return;
+    } finally {
+      if (!connection.isClosed()) {
+        buffer.compact();
+      }
+    }
+
+    boolean paused = connection.failure != null || connection.inputClosed
+      || connection.pending.size() >= MAX_PIPELINED_REQUESTS
+      || !buffer.hasRemaining();
+    updateInterest(connection, SelectionKey.OP_READ, !paused);
+
+    dispatchNext(connection);
+  }
+
+  private void dispatchNext(NioConnection connection) {
+    if (connection.isClosed() || connection.current != null) {
+      return;
+    }
+
+    ParsedRequest request = connection.pending.poll();
+    if (request == null) {
+      if (connection.failure != null) {
+        writeError(connection, connection.failure.getStatusCode());
+      } else if (connection.inputClosed) {
+        connection.closeAfterWrite = true;
+        flush(connection);
+      }
+      return;
+    }
+
+    URI uri;
+    try {
+      uri = URI.create(request.target);
+    } catch (IllegalArgumentException exception) {
+      writeError(connection, 400);
+      return;
+    }
+
+    long now = System.nanoTime();
+    connection.requests++;
+    connectionMetrics.requestStarted(
+      connection.requests == 1 ? -1 : now - connection.idleSinceNanos
+    );
+
+    NioHttpContext context = findContext(uri.getPath());
+    if (context == null || context.getHandler() == null) {
+      NioHttpExchange exchange = new NioHttpExchange(this, connection, null, request, uri);
+      connection.current = exchange;
+      inFlight.incrementAndGet();
+      try {
+        exchange.sendResponseHeaders(404, -1);
+      } catch (IOException ignored) {
+        // The connection is closed by completeExchange below.
+      }
+      exchange.close();
+      return;
+    }
+
+    NioHttpExchange exchange = new NioHttpExchange(this, connection, context, request, uri);
+    connection.current = exchange;
+    inFlight.incrementAndGet();
+
+    Executor handlerExecutor = executor;
+    if (handlerExecutor == null) {
+      exchange.run();
+      return;
+    }
+
+    try {
+      handlerExecutor.execute(exchange::run);
+    } catch (RejectedExecutionException exception) {
+      try {
+        exchange.sendResponseHeaders(503, -1);
+      } catch (IOException ignored) {
+        // The connection is closed by completeExchange below.
+      }
+      exchange.close();
+    }
+  }
+
+  private void onExchangeComplete(NioConnection connection, NioHttpExchange exchange) {
+    inFlight.decrementAndGet();
+    if (connection.current != exchange || connection.isClosed()) {
+      return;
+    }
+
+    connection.current = null;
+    connection.idleSinceNanos = System.nanoTime();
+    if (!exchange.isKeepAlive()) {
+      connection.closeAfterWrite = true;
+      connection.pending.clear();
+      flush(connection);
+      return;
+    }
+
+    // Parses anything that was left in the buffer while the previous
+    // request was being served, then moves to the next pipelined request.
+    processInput(connection);
+  }
+
+  private void writeError(NioConnection connection, int statusCode) {
+    String response = "HTTP/1.1 " + statusCode + " \r\nContent-Length: 0\r\nConnection: close\r\n\r\n";
+    connection.closeAfterWrite = true;
+    connection.pending.clear();
+    try {
+      connection.enqueue(ByteBuffer.wrap(response.getBytes(StandardCharsets.ISO_8859_1)));
+    } catch (IOException exception) {
+      close(connection);
+      return;
+    }
+    flush(connection);
+  }
+
+  private void flush(NioConnection connection) {
+    if (connection.isClosed()) {
+      return;
+    }
+
+    try {
+      boolean drained = connection.flush(bufferPool);
+      updateInterest(connection, SelectionKey.OP_WRITE, !drained);
+
+      if (drained && connection.closeAfterWrite && connection.current == null) {
+        close(connection);
+      }
+    } catch (IOException exception) {
+      close(connection);
+    }
+  }
+
+  private void close(NioConnection connection) {
+    close(connection, false);
+  }
+
+  private void close(NioConnection connection, boolean idle) {
+    if (connection.isClosed()) {
+      return;
+    }
+    connection.close(bufferPool);
+    connections.remove(connection);
+    connectionMetrics.connectionClosed(connection.requests, idle);
+  }
+
+  private void updateInterest(NioConnection connection, int operation, boolean enabled) {
+    if (!connection.key.isValid()) {
+      return;
+    }
+    int current = connection.key.interestOps();
+    int updated = enabled ? current | operation : current & ~operation;
+    if (updated != current) {
+      connection.key.interestOps(updated);
+    }
+  }
+
+  private boolean hasQueuedWrites() {
+    for (NioConnection connection : connections) {
+      if (connection.hasQueuedWrites()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private NioHttpContext newContext(String path) {
+    if (path == null || !path.startsWith("/")) {
+      throw new IllegalArgumentException("Context path must start with /.");
+    }
+    if (findExactContext(path) != null) {
+      throw new IllegalArgumentException("Context " + path + " already exists.");
+    }
+    NioHttpContext context = new NioHttpContext(this, path, null);
+    contexts.add(context);
+    return context;
+  }
+
+  private NioHttpContext findExactContext(String path) {
+    for (NioHttpContext context : contexts) {
+      if (context.getPath().equals(path)) {
+        return context;
+      }
+    }
+    return null;
+  }
+
+  /*
+   * Body limit of a request, asked from the handler of its context when it
+   * implements RequestBodyLimit. The engine limit applies otherwise.
+   */
+  private long maxBodyBytes(String method, String rawPath) {
+    NioHttpContext context = findContext(rawPath);
+    if (context != null && context.getHandler() instanceof RequestBodyLimit) {
+      return ((RequestBodyLimit) context.getHandler()).maxBodyBytes(method, rawPath);
+    }
+    return maxBodyBytes;
+  }
+
+  private NioHttpContext findContext(String path) {
+    NioHttpContext match = null;
+    if (path == null) {
+      return null;
+    }
+    for (NioHttpContext context : contexts) {
+      String contextPath = context.getPath();
+      if (path.startsWith(contextPath)
+          && (match == null || contextPath.length() > match.getPath().length())) {
+        match = context;
+      }
+    }
+    return match;
+  }
+}
@@ -0,0 +1,32 @@
+package com.acolyptos.minimart.server.nio;
+
+import com.sun.net.httpserver.Headers;
+
+/*
+ * A complete HTTP/1.x request read from a connection, waiting to be turned
+ * into an exchange.
+ */
+final class ParsedRequest {
+  final String method;
+  final String target;
+  final String protocol;
+  final Headers headers;
+  final byte[] body;
+  final boolean keepAlive;
+
+  ParsedRequest(
+    String method,
+    String target,
+    String protocol,
+    Headers headers,
+    byte[] body,
+    boolean keepAlive
+  ) {
+    this.method = method;
+    this.target = target;
+    this.protocol = protocol;
+    this.headers = headers;
+    this.body = body;
+    this.keepAlive = keepAlive;
+  }
+}
@@ -0,0 +1,22 @@
+package com.acolyptos.minimart.server.nio;
+
+/*
+ * Implemented by context handlers that accept smaller request bodies than
+ * the engine does, such as the RoutingHandler with its per-route limits.
+ *
+ * The NIO engine buffers a body before running the handler, so it asks the
+ * handler of the context for the limit as soon as the headers are parsed,
+ * and answers a larger Content-Length with 413 before reading any of it.
+ */
+@FunctionalInterface
+public interface RequestBodyLimit {
+
+  /*
+   * @param method - The method of the request.
+   *
+   * @param rawPath - The raw path of the request, without the query.
+   *
+   * @return The largest body accepted for the request.
+   */
+  long maxBodyBytes(String method, String rawPath);
+}
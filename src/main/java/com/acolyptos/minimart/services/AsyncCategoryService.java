@@ -0,0 +1,49 @@
+package com.acolyptos.minimart.services;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.bson.types.ObjectId;
+import com.acolyptos.minimart.models.Category;
+import com.acolyptos.minimart.repositories.AsyncCategoryRepository;
+
+/*
+ * The lookups of CategoryService on the async repository. The futures fail
+ * with the exceptions the sync methods throw: an IllegalArgumentException
+ * for a missing argument and a ServiceException for anything else.
+ */
+public class AsyncCategoryService {
+  private final AsyncCategoryRepository categoryRepository;
+
+  public AsyncCategoryService (AsyncCategoryRepository categoryRepository) {
+    this.categoryRepository = categoryRepository;
+  }
+
+  public CompletableFuture<Category> getCategoryById (ObjectId id) {
+    if (id == null) {
+      return CompletableFuture.failedFuture(new IllegalArgumentException("Id is required."));
+    }
+
+    return categoryRepository.getCategoryById(id)
+      .exceptionally(throwable -> ServiceFailures.rethrow(
+        throwable, "Category not found: ", "Database Error: "
+      ));
+  }
+
+  public CompletableFuture<Category> getCategoryByName (String name) {
+    if (name == null) {
+      return CompletableFuture.failedFuture(new IllegalArgumentException("Name is required."));
+    }
+
+    return categoryRepository.getCategoryByName(name)
+      .exceptionally(throwable -> ServiceFailures.rethrow(
+        throwable, "Category not found: ", "Database Error: "
+      ));
+  }
+
+  public CompletableFuture<List<Category>> getAllCategories () {
+    return categoryRepository.getAllCategories()
+      .exceptionally(throwable -> ServiceFailures.rethrow(
+        throwable, "List is Empty: ", "Database Error: "
+      ));
+  }
+}
@@ -0,0 +1,54 @@
+package com.acolyptos.minimart.services;
+
+import java.util.concurrent.CompletableFuture;
+import org.bson.types.ObjectId;
+import com.acolyptos.minimart.models.Product;
+import com.acolyptos.minimart.repositories.AsyncProductRepository;
+
+/*
+ * The insert of ProductService on the async repository, see
+ * AsyncCategoryService. Listing stays on ProductService, which streams the
+ * products onto the response instead of collecting them.
+ */
+public class AsyncProductService {
+  private final AsyncProductRepository productRepository;
+
+  public AsyncProductService (AsyncProductRepository productRepository) {
+    this.productRepository = productRepository;
+  }
+
+  public CompletableFuture<ObjectId> insertProduct (
+    String name,
+    ObjectId categoryId,
+    ObjectId supplierId,
+    int stock,
+    double price
+  ) {
+    if (name == null || name.trim().isEmpty()) {
+      return invalid("Name is required.");
+    }
+    if (categoryId == null) {
+      return invalid("Category Id is required.");
+    }
+    if (supplierId == null) {
+      return invalid("Supplier Id is required.");
+    }
+    if (stock < 0) {
+      return invalid("Stock should be greater than 0.");
+    }
+    if (price < 0) {
+      return invalid("Price should be greater than 0.");
+    }
+
+    Product product = new Product(name, supplierId, categoryId, stock, price);
+
+    return productRepository.insertProduct(product)
+      .exceptionally(throwable -> ServiceFailures.rethrow(
+        throwable, "Error in saving the product.", "Error in saving the product."
+      ));
+  }
+
+  private static <T> CompletableFuture<T> invalid (String message) {
+    return CompletableFuture.failedFuture(new IllegalArgumentException(message));
+  }
+}
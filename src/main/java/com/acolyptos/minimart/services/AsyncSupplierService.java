@@ -0,0 +1,40 @@
+package com.acolyptos.minimart.services;
+
+import java.util.concurrent.CompletableFuture;
+import org.bson.types.ObjectId;
+import com.acolyptos.minimart.models.Supplier;
+import com.acolyptos.minimart.repositories.AsyncSupplierRepository;
+
+/*
+ * The lookups of SupplierService on the async repository, see
+ * AsyncCategoryService.
+ */
+public class AsyncSupplierService {
+  private final AsyncSupplierRepository supplierRepository;
+
+  public AsyncSupplierService (AsyncSupplierRepository supplierRepository) {
+    this.supplierRepository = supplierRepository;
+  }
+
+  public CompletableFuture<Supplier> getSupplierByName (String name) {
+    if (name == null || name.trim().isEmpty()) {
+      return CompletableFuture.failedFuture(new IllegalArgumentException("Name is required."));
+    }
+
+    return supplierRepository.getSupplierByName(name)
+      .exceptionally(throwable -> ServiceFailures.rethrow(
+        throwable, "Retrieval Error: ", "Database Error: "
+      ));
+  }
+
+  public CompletableFuture<Supplier> getSupplierById (ObjectId id) {
+    if (id == null) {
+      return CompletableFuture.failedFuture(new IllegalArgumentException("Id is required."));
+    }
+
+    return supplierRepository.getSupplierById(id)
+      .exceptionally(throwable -> ServiceFailures.rethrow(
+        throwable, "Retrieval Error: ", "Database Error: "
+      ));
+  }
+}
@@ -15,10 +15,6 @@ public class CategoryService {
   private static final Logger LOG = 
     LoggerFactory.getLogger(CategoryService.class);
 
-  public CategoryService () {
-    this.categoryRepository =  new CategoryRepository();
-  }
-
   public CategoryService (CategoryRepository categoryRepository) {
     this.categoryRepository = categoryRepository;
   }
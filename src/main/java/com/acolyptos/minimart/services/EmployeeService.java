@@ -18,14 +18,6 @@ public class EmployeeService {
     this.employeeRepository = employeeRepository;
   }
 
-  /*
-   * Initializes the EmployeeService and establishes the access to
-   * EmployeeRepository.
-   */
-  public EmployeeService() {
-    this.employeeRepository = new EmployeeRepository();
-  }
-
   /*
    * Validates data that will be given and creates an Employee object before
    * passing it to EmployeeRepository
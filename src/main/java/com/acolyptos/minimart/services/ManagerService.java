@@ -17,13 +17,6 @@ public class ManagerService {
     this.managerRepository = managerRepository;
   }
 
-  /*
-   * Initializes the ManagerService and establishes access to EmployeeRepository.
-   */
-  public ManagerService() {
-    this.managerRepository = new ManagerRepository();
-  }
-
   /*
    * Validates data that will be given and creates a Manager object before passing
    * it to EmployeeRepository.
@@ -0,0 +1,336 @@
+package com.acolyptos.minimart.services;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.acolyptos.minimart.config.AppConfig;
+import com.acolyptos.minimart.database.AsyncResults;
+import com.acolyptos.minimart.exceptions.ServiceUnavailableException;
+import com.acolyptos.minimart.server.MetricsSource;
+import com.acolyptos.minimart.utilities.PasswordUtility;
+
+/*
+ * Runs BCrypt on its own pool of threads, one per core by default, in front
+ * of a queue with a fixed depth.
+ *
+ * A burst of logins can then only use these threads, and the request
+ * threads serving the rest of the API keep their cores. Work that does not
+ * fit in the queue, or that is not started within the queue-time limit, is
+ * abandoned with a ServiceUnavailableException, so the login latency stays
+ * bounded instead of growing with the burst.
+ *
+ * New hashes use the configured cost, either fixed or calibrated at startup
+ * to a target latency. Stored hashes carry their own cost, so a password
+ * hashed with another cost is rehashed after its next successful check.
+ */
+public class PasswordHasher implements MetricsSource {
+  private static final Logger LOG = LoggerFactory.getLogger(PasswordHasher.class);
+
+  private final ThreadPoolExecutor executor;
+  // Stores the rehashed passwords, so the database round trip does not
+  // hold a BCrypt thread.
+  private final ExecutorService rehashWriter =
+    Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("rehash-", 0).factory());
+  private final int cost;
+  private final int queueCapacity;
+  private final long maxQueueNanos;
+  private final int retryAfterSeconds;
+
+  private final LongAdder started = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+  private final LongAdder expired = new LongAdder();
+  private final LongAdder rehashed = new LongAdder();
+  private final LongAdder queueWaitNanos = new LongAdder();
+  private final LongAccumulator maxQueueWaitNanos = new LongAccumulator(Math::max, 0);
+
+  /*
+   * @param threads - The threads running BCrypt.
+   *
+   * @param queueCapacity - The operations that may wait for a thread.
+   *
+   * @param maxQueueMillis - The longest time an operation may wait for a
+   * thread before it is abandoned.
+   *
+   * @param cost - The BCrypt cost of new hashes.
+   */
+  public PasswordHasher(int threads, int queueCapacity, long maxQueueMillis, int cost) {
+    if (threads <= 0) {
+      throw new IllegalArgumentException("BCrypt threads should be greater than 0.");
+    }
+    if (queueCapacity <= 0) {
+      throw new IllegalArgumentException("BCrypt queue capacity should be greater than 0.");
+    }
+    if (maxQueueMillis <= 0) {
+      throw new IllegalArgumentException("BCrypt queue time should be greater than 0.");
+    }
+    if (cost < PasswordUtility.MIN_COST || cost > PasswordUtility.MAX_COST) {
+      throw new IllegalArgumentException(
+        "BCrypt cost should be between " + PasswordUtility.MIN_COST +
+        " and " + PasswordUtility.MAX_COST + "."
+      );
+    }
+
+    this.cost = cost;
+    this.queueCapacity = queueCapacity;
+    this.maxQueueNanos = TimeUnit.MILLISECONDS.toNanos(maxQueueMillis);
+    this.retryAfterSeconds = (int) Math.max(1, (maxQueueMillis + 999) / 1000);
+
+    // Daemon threads, so an idle pool never keeps the JVM alive.
+    this.executor = new ThreadPoolExecutor(
+      threads,
+      threads,
+      0L,
+      TimeUnit.MILLISECONDS,
+      new ArrayBlockingQueue<>(queueCapacity),
+      Thread.ofPlatform().name("bcrypt-", 0).daemon().factory(),
+      new ThreadPoolExecutor.AbortPolicy()
+    );
+  }
+
+  /*
+   * Reads the pool settings from the configuration.
+   *
+   * BCRYPT_THREADS - Threads running BCrypt, the number of cores by default.
+   * BCRYPT_QUEUE_CAPACITY - Operations that may wait for a thread, 64 by default.
+   * BCRYPT_MAX_QUEUE_MILLIS - Longest wait for a thread, 1000 by default.
+   * BCRYPT_COST - Cost of new hashes, 10 by default.
+   * BCRYPT_TARGET_MILLIS - When greater than 0, the cost is instead
+   * calibrated at startup so that one hash takes about this long, between
+   * cost 8 and 20.
+   *
+   * @param config - The configuration of the application.
+   *
+   * @return The PasswordHasher built from the configuration.
+   */
+  public static PasswordHasher fromConfig(AppConfig config) {
+    int threads = config.getInt("BCRYPT_THREADS", Runtime.getRuntime().availableProcessors());
+    int queueCapacity = config.getInt("BCRYPT_QUEUE_CAPACITY", 64);
+    long maxQueueMillis = config.getLong("BCRYPT_MAX_QUEUE_MILLIS", 1000);
+    int cost = config.getInt("BCRYPT_COST", PasswordUtility.DEFAULT_COST);
+    long targetMillis = config.getLong("BCRYPT_TARGET_MILLIS", 0);
+
+    if (targetMillis > 0) {
+      cost = PasswordUtility.calibrateCost(targetMillis);
+      LOG.info("Calibrated BCrypt cost " + cost + " for a target of " + targetMillis + "ms.");
+    }
+
+    return new PasswordHasher(threads, queueCapacity, maxQueueMillis, cost);
+  }
+
+  /*
+   * Hashes the password on the BCrypt pool.
+   *
+   * @throws ServiceUnavailableException if the pool is saturated.
+   */
+  public String hashPassword(String password) {
+    return run(() -> PasswordUtility.hashPassword(password, cost));
+  }
+
+  /*
+   * Checks the password against the hash on the BCrypt pool.
+   *
+   * @throws ServiceUnavailableException if the pool is saturated.
+   */
+  public boolean checkPassword(String plainPassword, String hashedPassword) {
+    return run(() -> PasswordUtility.checkPassword(plainPassword, hashedPassword));
+  }
+
+  /*
+   * @return true if the hash was made with another cost than the current one.
+   */
+  public boolean needsRehash(String hashedPassword) {
+    return PasswordUtility.costOf(hashedPassword) != cost;
+  }
+
+  /*
+   * Hashes a password that was just checked again, with the current cost,
+   * when its stored hash uses another cost. The new hash is made in the
+   * background, so the login that triggered it does not wait for a second
+   * BCrypt round. When the pool is full the rehash is skipped, and the next
+   * login tries again.
+   *
+   * @param plainPassword - The password that matched the stored hash.
+   *
+   * @param hashedPassword - The stored hash.
+   *
+   * @param onRehashed - Receives the new hash, on a virtual thread rather
+   * than a BCrypt one, as it stores the hash in the database.
+   */
+  public void rehashIfNeeded(
+    String plainPassword,
+    String hashedPassword,
+    Consumer<String> onRehashed
+  ) {
+    if (!needsRehash(hashedPassword)) {
+      return;
+    }
+
+    try {
+      CompletableFuture
+        .supplyAsync(() -> PasswordUtility.hashPassword(plainPassword, cost), executor)
+        .thenAcceptAsync(onRehashed, rehashWriter)
+        .whenComplete((ignored, failure) -> {
+          if (failure == null) {
+            rehashed.increment();
+          } else {
+            Throwable cause = AsyncResults.unwrap(failure);
+            LOG.warn("Rehash failed: " + cause.getMessage(), cause);
+          }
+        });
+    } catch (RejectedExecutionException exception) {
+      LOG.debug("Skipped a rehash, the BCrypt pool is full.");
+    }
+  }
+
+  public int getCost() { return cost; }
+
+  /*
+   * Queues the operation and waits for its result. When the operation has
+   * not started within the queue-time limit it is abandoned: the worker
+   * that eventually dequeues it skips it instead of spending a BCrypt round
+   * on a request that already failed.
+   */
+  private <T> T run(Callable<T> operation) {
+    Operation<T> task = new Operation<>(operation);
+    try {
+      executor.execute(task);
+    } catch (RejectedExecutionException exception) {
+      rejected.increment();
+      throw unavailable();
+    }
+
+    try {
+      try {
+        return task.get(maxQueueNanos, TimeUnit.NANOSECONDS);
+      } catch (TimeoutException exception) {
+        if (task.abandon()) {
+          expired.increment();
+          throw unavailable();
+        }
+        // Already running, the result is worth waiting for.
+        return task.get();
+      }
+    } catch (InterruptedException exception) {
+      task.abandon();
+      Thread.currentThread().interrupt();
+      throw unavailable();
+    } catch (ExecutionException exception) {
+      Throwable cause = exception.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IllegalStateException(cause);
+    }
+  }
+
+  private ServiceUnavailableException unavailable() {
+    return new ServiceUnavailableException(
+      "Too many password operations in progress.", retryAfterSeconds
+    );
+  }
+
+  /*
+   * Stops taking new work and lets the queued operations finish, the
+   * background rehashes included.
+   */
+  public void shutdown() {
+    executor.shutdown();
+  }
+
+  /*
+   * Waits for the operations left after shutdown(), then for the rehashed
+   * passwords still being written to the database.
+   *
+   * @return true if they all finished within the timeout.
+   */
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    if (!executor.awaitTermination(timeout, unit)) {
+      return false;
+    }
+    // Every write was handed over by a BCrypt thread, so none can follow.
+    rehashWriter.shutdown();
+    return rehashWriter.awaitTermination(
+      Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS
+    );
+  }
+
+  @Override
+  public String getMetricsName() {
+    return "passwordHasher";
+  }
+
+  /*
+   * The maximum queue wait is reset on every snapshot so that it describes
+   * the interval since the previous scrape.
+   */
+  @Override
+  public Map<String, Number> snapshotMetrics() {
+    long startedCount = started.sum();
+    long averageWait = startedCount == 0 ? 0 : queueWaitNanos.sum() / startedCount;
+
+    Map<String, Number> metrics = new LinkedHashMap<>();
+    metrics.put("cost", cost);
+    metrics.put("threads", executor.getMaximumPoolSize());
+    metrics.put("activeThreads", executor.getActiveCount());
+    metrics.put("queueDepth", executor.getQueue().size());
+    metrics.put("queueCapacity", queueCapacity);
+    metrics.put("started", startedCount);
+    metrics.put("rejected", rejected.sum());
+    metrics.put("expired", expired.sum());
+    metrics.put("rehashed", rehashed.sum());
+    metrics.put("queueWaitAvgMicros", TimeUnit.NANOSECONDS.toMicros(averageWait));
+    metrics.put("queueWaitMaxMicros",
+      TimeUnit.NANOSECONDS.toMicros(maxQueueWaitNanos.getThenReset()));
+    return metrics;
+  }
+
+  /*
+   * A queued operation that either starts or is abandoned by its caller,
+   * whichever happens first.
+   */
+  private final class Operation<T> extends FutureTask<T> {
+    private static final int QUEUED = 0;
+    private static final int RUNNING = 1;
+    private static final int ABANDONED = 2;
+
+    private final AtomicInteger state = new AtomicInteger(QUEUED);
+    private final long enqueuedAt = System.nanoTime();
+
+    Operation(Callable<T> operation) {
+      super(operation);
+    }
+
+    @Override
+    public void run() {
+      if (!state.compareAndSet(QUEUED, RUNNING)) {
+        return;
+      }
+      long waited = System.nanoTime() - enqueuedAt;
+      started.increment();
+      queueWaitNanos.add(waited);
+      maxQueueWaitNanos.accumulate(waited);
+      super.run();
+    }
+
+    boolean abandon() {
+      return state.compareAndSet(QUEUED, ABANDONED);
+    }
+  }
+}
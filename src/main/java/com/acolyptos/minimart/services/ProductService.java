@@ -1,5 +1,6 @@
 package com.acolyptos.minimart.services;
 
+import java.util.function.Consumer;
 import org.bson.types.ObjectId;
 import com.acolyptos.minimart.exceptions.DatabaseException;
 import com.acolyptos.minimart.exceptions.ServiceException;
@@ -13,10 +14,6 @@ public class ProductService {
     this.productRepository = productRepository;
   }
 
-  public ProductService () {
-    this.productRepository = new ProductRepository();
-  }
-
   public ObjectId insertProduct (
     String name,
     ObjectId categoryId,
@@ -53,4 +50,16 @@ public class ProductService {
       );
     }
   }
+
+  public void forEachProduct (Consumer<Product> consumer) {
+    try {
+      productRepository.forEachProduct(consumer);
+
+    } catch (DatabaseException exception) {
+      throw new ServiceException(
+        "Error in retrieving the products." + exception.getMessage(), 
+        exception
+      );
+    }
+  }
 }
@@ -0,0 +1,37 @@
+package com.acolyptos.minimart.services;
+
+import java.util.concurrent.CompletionException;
+import com.acolyptos.minimart.database.AsyncResults;
+import com.acolyptos.minimart.exceptions.DatabaseException;
+import com.acolyptos.minimart.exceptions.ResourceNotFoundException;
+import com.acolyptos.minimart.exceptions.ServiceException;
+
+/*
+ * Wraps the failures of the async repositories into the ServiceException
+ * the sync services throw for them, for use in exceptionally().
+ */
+final class ServiceFailures {
+
+  private ServiceFailures() {}
+
+  /*
+   * @param throwable - The failure of the repository future.
+   *
+   * @param notFound - The message prefix when nothing matched.
+   *
+   * @param databaseError - The message prefix when MongoDB failed.
+   *
+   * @throws ServiceException for a ResourceNotFoundException or a
+   * DatabaseException, anything else is passed on as it is.
+   */
+  static <T> T rethrow(Throwable throwable, String notFound, String databaseError) {
+    Throwable cause = AsyncResults.unwrap(throwable);
+    if (cause instanceof ResourceNotFoundException) {
+      throw new ServiceException(notFound + cause.getMessage(), cause);
+    }
+    if (cause instanceof DatabaseException) {
+      throw new ServiceException(databaseError + cause.getMessage(), cause);
+    }
+    throw new CompletionException(cause);
+  }
+}
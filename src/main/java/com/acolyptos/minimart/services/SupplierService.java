@@ -14,10 +14,6 @@ public class SupplierService {
   private final SupplierRepository supplierRepository;
   private final Logger LOG = LoggerFactory.getLogger(SupplierService.class);
 
-  public SupplierService () {
-    this.supplierRepository = new SupplierRepository();
-  }
-
   public SupplierService (SupplierRepository supplierRepository) {
     this.supplierRepository = supplierRepository;
   }
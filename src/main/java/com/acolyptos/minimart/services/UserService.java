@@ -1,30 +1,75 @@
 package com.acolyptos.minimart.services;
 
 import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import com.acolyptos.minimart.exceptions.AuthenticationException;
 import com.acolyptos.minimart.exceptions.DatabaseException;
+import com.acolyptos.minimart.exceptions.DuplicateResourceException;
 import com.acolyptos.minimart.exceptions.ServiceException;
+import com.acolyptos.minimart.exceptions.ServiceUnavailableException;
 import com.acolyptos.minimart.models.Role;
 import com.acolyptos.minimart.models.User;
 import com.acolyptos.minimart.repositories.UserRepository;
-import com.acolyptos.minimart.utilities.PasswordUtility;
+import com.acolyptos.minimart.utilities.BloomFilter;
 
 /**
  * Service class for managing User-related business logic before database operations.
  * This class provides validation methods before passing the data to UserRepository.
 */
 public class UserService {
+  private static final Logger LOG = LoggerFactory.getLogger(UserService.class);
+
+  // Headroom for the users registered after startup, and the rate at which
+  // a new username still needs a query.
+  private static final long MIN_EXPECTED_USERNAMES = 10_000;
+  private static final double USERNAME_FALSE_POSITIVE_RATE = 0.01;
+
   private final UserRepository userRepository;
+  private final PasswordHasher passwordHasher;
+
+  // Null until loadUsernames() ran, every username is then looked up.
+  private volatile BloomFilter usernames;
 
-  public UserService (UserRepository userRepository) {
+  /**
+   * @param userRepository - The repository of the users.
+   *
+   * @param passwordHasher - The pool that runs BCrypt off the request threads.
+   */
+  public UserService (UserRepository userRepository, PasswordHasher passwordHasher) {
     this.userRepository = userRepository;
+    this.passwordHasher = passwordHasher;
   }
 
   /**
-   * Initializes the UserService and establishes the access to UserRepository.
+   * Loads every existing username into a Bloom filter. Afterwards
+   * createUser only queries the database for usernames the filter might
+   * contain, a new username is inserted directly and the unique index
+   * rejects the rare one that was taken in the meantime.
+   *
+   * Runs after the IndexRegistry was applied, and keeps querying every
+   * username when the unique index is missing.
+   *
+   * @throws ServiceException if the index is missing or the usernames
+   * cannot be read.
    */
-  public UserService() {
-    this.userRepository = new UserRepository();
+  public void loadUsernames() {
+    try {
+      if (!userRepository.hasUniqueUsernameIndex()) {
+        throw new ServiceException("The unique username index is missing.");
+      }
+
+      long expected = Math.max(MIN_EXPECTED_USERNAMES, userRepository.estimateUserCount() * 2);
+      BloomFilter filter = new BloomFilter(expected, USERNAME_FALSE_POSITIVE_RATE);
+      userRepository.forEachUsername(filter::add);
+
+      this.usernames = filter;
+    } catch (DatabaseException exception) {
+      throw new ServiceException(
+        "Loading usernames failed: " + exception.getMessage(),
+        exception
+      );
+    }
   }
 
   /**
@@ -45,6 +90,8 @@ public class UserService {
    * @throws AuthenticationException if the user already exists upon checking.
    * 
    * @throws ServiceException if the service error occurs during creation.
+   *
+   * @throws ServiceUnavailableException if the BCrypt pool is saturated.
    */
   public ObjectId createUser(String username, String password, String role) {
     if (username == null || username.trim().isEmpty())
@@ -56,10 +103,13 @@ public class UserService {
     if (role == null)
       throw new IllegalArgumentException("Role is required.");
 
-    if (userRepository.getUserByUsername(username) != null)
+    // A username the filter has never seen is definitely new.
+    BloomFilter knownUsernames = usernames;
+    if ((knownUsernames == null || knownUsernames.mightContain(username))
+        && userRepository.usernameExists(username))
       throw new AuthenticationException("Username already exists.");
 
-    String hashedPassword = PasswordUtility.hashPassword(password);
+    String hashedPassword = passwordHasher.hashPassword(password);
 
     User user = new User();
     user.setUsername(username);
@@ -77,9 +127,18 @@ public class UserService {
 
     try {
       ObjectId result = userRepository.insertUser(user);
+      if (knownUsernames != null) {
+        knownUsernames.add(username);
+      }
       System.out.println(user.getUsername() + " Succesfully added!");
 
       return result;
+    } catch (DuplicateResourceException exception) {
+      if (knownUsernames != null) {
+        knownUsernames.add(username);
+      }
+      throw new AuthenticationException("Username already exists.");
+
     } catch (DatabaseException exception) {
       System.err.println("Error in service layer: " + exception.getMessage());
       throw new ServiceException(
@@ -106,6 +165,8 @@ public class UserService {
    * @throws AuthenticationException if user not found by the given username.
    * 
    * @throws ServiceException if the service error occurs during Authentication.
+   *
+   * @throws ServiceUnavailableException if the BCrypt pool is saturated.
    */
   public User authenticateUser(String username, String password) {
     if (username == null)
@@ -120,10 +181,20 @@ public class UserService {
         throw new AuthenticationException("User not found.");
       }
 
-      if (!PasswordUtility.checkPassword(password, user.getPassword().toString())) {
+      String storedHash = user.getPassword();
+      if (!passwordHasher.checkPassword(password, storedHash)) {
         throw new AuthenticationException("Invalid Password.");
       }
 
+      // Brings hashes made with an older cost to the current one.
+      passwordHasher.rehashIfNeeded(password, storedHash, newHash -> {
+        try {
+          userRepository.updatePassword(user.getId(), storedHash, newHash);
+        } catch (DatabaseException exception) {
+          LOG.warn("Error in rehashing password of user " + user.getId(), exception);
+        }
+      });
+
       System.out.println("User logged in Succesfully.");
       return user;
 
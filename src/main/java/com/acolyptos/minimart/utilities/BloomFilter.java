@@ -0,0 +1,109 @@
+package com.acolyptos.minimart.utilities;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+ * A Bloom filter of strings, safe to read and add to from any thread.
+ *
+ * mightContain() never answers false for a string that was added, and
+ * answers true for a string that was not added with about the false
+ * positive rate it was sized for, as long as no more than the expected
+ * number of strings were added.
+ *
+ * The bit positions are derived from one 64-bit hash of the string with
+ * double hashing, so a lookup reads the characters once.
+ */
+public class BloomFilter {
+  private final AtomicLongArray words;
+  private final long bitCount;
+  private final int hashCount;
+
+  /*
+   * @param expectedInsertions - The number of strings the filter is sized for.
+   *
+   * @param falsePositiveRate - The rate of false positives at that size,
+   * between 0 and 1 exclusive.
+   */
+  public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+    if (expectedInsertions <= 0) {
+      throw new IllegalArgumentException("Expected insertions should be greater than 0.");
+    }
+    if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+      throw new IllegalArgumentException("False positive rate should be between 0 and 1.");
+    }
+
+    double ln2 = Math.log(2);
+    long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (ln2 * ln2));
+    int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, (bits + 63) / 64);
+
+    this.words = new AtomicLongArray(wordCount);
+    this.bitCount = wordCount * 64L;
+    this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * ln2));
+  }
+
+  public void add(String value) {
+    long hash = hash(value);
+    int first = (int) hash;
+    int second = (int) (hash >>> 32);
+
+    for (int i = 1; i <= hashCount; i++) {
+      long bit = index(first + i * second);
+      int word = (int) (bit >>> 6);
+      long mask = 1L << bit;
+
+      long current = words.get(word);
+      while ((current & mask) == 0) {
+        long witness = words.compareAndExchange(word, current, current | mask);
+        if (witness == current) {
+          break;
+        }
+        current = witness;
+      }
+    }
+  }
+
+  /*
+   * @return false if the value was definitely never added, true if it
+   * probably was.
+   */
+  public boolean mightContain(String value) {
+    long hash = hash(value);
+    int first = (int) hash;
+    int second = (int) (hash >>> 32);
+
+    for (int i = 1; i <= hashCount; i++) {
+      long bit = index(first + i * second);
+      if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public long getBitCount() { return bitCount; }
+
+  public int getHashCount() { return hashCount; }
+
+  private long index(int combined) {
+    // Flips negative values, as in the double hashing of Kirsch and Mitzenmacher.
+    return (combined < 0 ? ~combined : combined) % bitCount;
+  }
+
+  /*
+   * FNV-1a over the UTF-16 characters, finished with the mixer of
+   * MurmurHash3 so both halves of the result are well distributed.
+   */
+  private static long hash(String value) {
+    long hash = 0xcbf29ce484222325L;
+    for (int i = 0; i < value.length(); i++) {
+      hash ^= value.charAt(i);
+      hash *= 0x100000001b3L;
+    }
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+}
@@ -0,0 +1,120 @@
+package com.acolyptos.minimart.utilities;
+
+import com.acolyptos.minimart.config.AppConfig;
+import com.acolyptos.minimart.models.LoginResponse;
+import com.acolyptos.minimart.models.ProductRegistrationRequest;
+import com.acolyptos.minimart.models.ProductRegistrationResponse;
+import com.acolyptos.minimart.models.RefreshTokenRequest;
+import com.acolyptos.minimart.models.User;
+import com.acolyptos.minimart.models.UserRegistrationRequest;
+import com.acolyptos.minimart.models.UserRegistrationResponse;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.StreamReadConstraints;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+
+/*
+ * The single ObjectMapper of the application, with readers and writers
+ * built once for every request and response type. ApplicationContext
+ * creates it from the configuration and hands it to the handlers.
+ *
+ * ObjectReader and ObjectWriter are immutable and thread safe, and each one
+ * keeps the (de)serializer it resolved for its type, so handlers skip the
+ * type lookup of ObjectMapper.readValue on every request.
+ *
+ * StreamReadConstraints keep hostile bodies from building huge strings,
+ * numbers or deeply nested trees while they are parsed.
+ *
+ * When JSON_BYTECODE_ACCESSORS is true the Blackbird module is registered,
+ * which replaces reflective getter and setter calls with generated lambdas.
+ */
+public class JsonUtility {
+  private static final StreamReadConstraints READ_CONSTRAINTS = StreamReadConstraints.builder()
+    .maxNestingDepth(32)
+    .maxStringLength(16 * 1024)
+    .maxNumberLength(64)
+    .build();
+
+  private final ObjectMapper mapper;
+
+  private final ObjectReader userReader;
+  private final ObjectReader userRegistrationReader;
+  private final ObjectReader productRegistrationReader;
+  private final ObjectReader refreshTokenReader;
+
+  private final ObjectWriter loginResponseWriter;
+  private final ObjectWriter userRegistrationResponseWriter;
+  private final ObjectWriter productRegistrationResponseWriter;
+
+  /*
+   * @param bytecodeAccessors - Registers the Blackbird module when true.
+   */
+  public JsonUtility(boolean bytecodeAccessors) {
+    this.mapper = createMapper(bytecodeAccessors);
+
+    this.userReader = mapper.readerFor(User.class);
+    this.userRegistrationReader = mapper.readerFor(UserRegistrationRequest.class);
+    this.productRegistrationReader = mapper.readerFor(ProductRegistrationRequest.class);
+    this.refreshTokenReader = mapper.readerFor(RefreshTokenRequest.class);
+
+    this.loginResponseWriter = mapper.writerFor(LoginResponse.class);
+    this.userRegistrationResponseWriter = mapper.writerFor(UserRegistrationResponse.class);
+    this.productRegistrationResponseWriter = mapper.writerFor(ProductRegistrationResponse.class);
+  }
+
+  /*
+   * Reads JSON_BYTECODE_ACCESSORS, false by default.
+   *
+   * @param config - The configuration of the application.
+   *
+   * @return The JsonUtility built from the configuration.
+   */
+  public static JsonUtility fromConfig(AppConfig config) {
+    return new JsonUtility(config.getBoolean("JSON_BYTECODE_ACCESSORS", false));
+  }
+
+  /*
+   * Returns the shared ObjectMapper, for the responses that have no
+   * dedicated writer and for streaming generators.
+   */
+  public ObjectMapper getMapper() {
+    return mapper;
+  }
+
+  /*
+   * Creates an ObjectMapper configured like the shared one. Also used by
+   * the benchmarks to compare both accessor strategies in the same JVM.
+   *
+   * @param bytecodeAccessors - Registers the Blackbird module when true.
+   *
+   * @return A new ObjectMapper.
+   */
+  public static ObjectMapper createMapper(boolean bytecodeAccessors) {
+    JsonFactory factory = JsonFactory.builder()
+      .streamReadConstraints(READ_CONSTRAINTS)
+      .build();
+    ObjectMapper mapper = new ObjectMapper(factory);
+    if (bytecodeAccessors) {
+      mapper.registerModule(new BlackbirdModule());
+    }
+    return mapper;
+  }
+
+  public ObjectReader getUserReader() { return userReader; }
+
+  public ObjectReader getUserRegistrationReader() { return userRegistrationReader; }
+
+  public ObjectReader getProductRegistrationReader() { return productRegistrationReader; }
+
+  public ObjectReader getRefreshTokenReader() { return refreshTokenReader; }
+
+  public ObjectWriter getLoginResponseWriter() { return loginResponseWriter; }
+
+  public ObjectWriter getUserRegistrationResponseWriter() { return userRegistrationResponseWriter; }
+
+  public ObjectWriter getProductRegistrationResponseWriter() {
+    return productRegistrationResponseWriter;
+  }
+}
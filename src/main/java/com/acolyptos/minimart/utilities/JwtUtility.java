@@ -2,61 +2,226 @@ package com.acolyptos.minimart.utilities;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
-import io.github.cdimascio.dotenv.Dotenv;
 
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
 
 import java.util.Map;
 import java.util.HashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 import javax.crypto.SecretKey;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.acolyptos.minimart.config.AppConfig;
+
+/*
+ * Issues and verifies the HS256 tokens of the application.
+ *
+ * The parser is immutable and built once. A token that passed verification
+ * is kept in a bounded cache, keyed by its SHA-256 digest, until it expires,
+ * so the next requests that present it cost a hash and a map lookup instead
+ * of a signature check and a JSON parse.
+ *
+ * Access tokens are short-lived. The refresh tokens issued with them are
+ * traded for a new pair without a password check, once each. Every token
+ * carries a random id, and a token revoked by a logout or a refresh stays
+ * in the RevocationList until it expires.
+ *
+ * ApplicationContext builds one instance from the validated configuration
+ * and shares it between the authenticator and the handlers, so the cache
+ * and the revocation list are the same for every route.
+ */
 public class JwtUtility {
-  private static final Dotenv DOTENV = Dotenv.load();
-  private static final String SECRET_KEY = DOTENV.get("SECRET_KEY");
-  private static final SecretKey key = Keys.hmacShaKeyFor(SECRET_KEY.getBytes(StandardCharsets.UTF_8));
+  private static final Logger LOG = LoggerFactory.getLogger(JwtUtility.class);
+
+  public static final long ACCESS_TOKEN_LIFETIME_MILLIS = TimeUnit.MINUTES.toMillis(15);
+  public static final long REFRESH_TOKEN_LIFETIME_MILLIS = TimeUnit.DAYS.toMillis(7);
+
+  private static final String TYPE_CLAIM = "typ";
+  private static final String REFRESH_TYPE = "refresh";
+
+  private final SecretKey key;
+  private final JwtParser parser;
+  private final VerifiedTokenCache cache;
+  private final RevocationList revoked = new RevocationList(
+      REFRESH_TOKEN_LIFETIME_MILLIS, TimeUnit.MINUTES.toMillis(10));
+
+  /*
+   * @param secretKey - The HS256 key, at least 32 bytes long.
+   *
+   * @param cacheSize - The most verified tokens kept in memory.
+   */
+  public JwtUtility(String secretKey, int cacheSize) {
+    this.key = Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8));
+    this.parser = Jwts.parser()
+        .verifyWith(key)
+        .build();
+    this.cache = new VerifiedTokenCache(cacheSize);
+  }
+
+  /*
+   * Reads the key and the cache size from the configuration.
+   *
+   * SECRET_KEY - The HS256 key, required.
+   * JWT_CACHE_SIZE - Verified tokens kept in memory, 10000 by default.
+   *
+   * @param config - The configuration of the application.
+   *
+   * @return The JwtUtility built from the configuration.
+   */
+  public static JwtUtility fromConfig(AppConfig config) {
+    return new JwtUtility(
+        config.getRequired("SECRET_KEY"),
+        config.getInt("JWT_CACHE_SIZE", 10_000));
+  }
+
+  public String generateToken(String userId, String role) {
+    return buildToken(userId, role, null, ACCESS_TOKEN_LIFETIME_MILLIS);
+  }
+
+  /*
+   * Issues the long-lived token that /api/token/refresh trades for a new
+   * access token. It is refused everywhere else.
+   */
+  public String generateRefreshToken(String userId, String role) {
+    return buildToken(userId, role, REFRESH_TYPE, REFRESH_TOKEN_LIFETIME_MILLIS);
+  }
 
-  public static String generateToken(String userId, String role) {
-    long expirationTime = 1000 * 60 * 60; // 1 hour
+  private String buildToken(String userId, String role, String type, long lifetimeMillis) {
+    long now = System.currentTimeMillis();
 
     return Jwts.builder()
+        .id(Long.toHexString(newTokenId()))
         .subject(userId)
         .claim("role", role)
-        .issuedAt(new Date())
-        .expiration(new Date(System.currentTimeMillis() + expirationTime))
+        .claim(TYPE_CLAIM, type)
+        .issuedAt(new Date(now))
+        .expiration(new Date(now + lifetimeMillis))
         .signWith(key, Jwts.SIG.HS256)
         .compact();
   }
 
-  public static boolean validateToken(String token) {
+  private static long newTokenId() {
+    long tokenId;
+    do {
+      tokenId = ThreadLocalRandom.current().nextLong();
+    } while (tokenId == 0);
+    return tokenId;
+  }
+
+  /*
+   * Verifies the token once and returns its claims, from the cache when the
+   * token was already verified and has not expired yet.
+   *
+   * @param token - The compact token, without the "Bearer " prefix.
+   *
+   * @return The user id and role carried by the token.
+   *
+   * @throws JwtException - When the token is malformed, expired, revoked,
+   * signed with another key, has no expiration or is a refresh token.
+   */
+  public VerifiedToken verifyToken(String token) {
+    VerifiedToken verified = verify(token);
+    if (verified.isRefresh()) {
+      throw new JwtException("Refresh tokens cannot be used for authentication.");
+    }
+    return verified;
+  }
+
+  /*
+   * Verifies a token issued by generateRefreshToken.
+   *
+   * @throws JwtException - When the token is not a valid, unrevoked refresh
+   * token.
+   */
+  public VerifiedToken verifyRefreshToken(String token) {
+    VerifiedToken verified = verify(token);
+    if (!verified.isRefresh()) {
+      throw new JwtException("Not a refresh token.");
+    }
+    return verified;
+  }
+
+  /*
+   * Revokes the token until it expires. Tokens issued without an id cannot
+   * be revoked and only expire.
+   *
+   * @return true if this call revoked the token, false if it already was.
+   */
+  public boolean revokeToken(VerifiedToken token) {
+    if (token.getTokenId() == 0) {
+      return false;
+    }
+    return revoked.revoke(token.getTokenId(), token.getExpiresAtMillis());
+  }
+
+  private VerifiedToken verify(String token) {
+    if (token == null || token.isEmpty()) {
+      throw new MalformedJwtException("Token is empty.");
+    }
+
+    long now = System.currentTimeMillis();
+    VerifiedTokenCache.Digest digest = VerifiedTokenCache.digest(token);
+
+    VerifiedToken verified = cache.get(digest, now);
+    if (verified == null) {
+      verified = parse(token);
+      cache.put(digest, verified, now);
+    }
+
+    if (revoked.isRevoked(verified.getTokenId(), verified.getExpiresAtMillis())) {
+      throw new JwtException("Token has been revoked.");
+    }
+    return verified;
+  }
+
+  private VerifiedToken parse(String token) {
+    Claims claims = parser.parseSignedClaims(token).getPayload();
+    Date expiration = claims.getExpiration();
+    if (expiration == null) {
+      throw new MalformedJwtException("Token has no expiration.");
+    }
+
+    return new VerifiedToken(
+        claims.getSubject(),
+        claims.get("role", String.class),
+        parseTokenId(claims.getId()),
+        REFRESH_TYPE.equals(claims.get(TYPE_CLAIM, String.class)),
+        expiration.getTime());
+  }
+
+  private static long parseTokenId(String id) {
+    if (id == null) {
+      return 0;
+    }
     try {
-      Jwts.parser()
-          .verifyWith(key)
-          .build()
-          .parseSignedClaims(token);
+      return Long.parseUnsignedLong(id, 16);
+    } catch (NumberFormatException exception) {
+      throw new MalformedJwtException("Token id is malformed.");
+    }
+  }
 
+  public boolean validateToken(String token) {
+    try {
+      verifyToken(token);
       return true;
-    } catch (JwtException e) {
-      System.err.println(e.getMessage());
+    } catch (JwtException | IllegalArgumentException e) {
+      LOG.debug("Rejected token: " + e.getMessage());
       return false;
     }
   }
 
-  public static Map<String, String> extraceUserIdAndRole(String token) {
-    Claims claim = Jwts.parser()
-        .verifyWith(key)
-        .build()
-        .parseSignedClaims(token)
-        .getPayload();
-
-    String userId = claim.getSubject();
-    String role = claim.get("role", String.class);
+  public Map<String, String> extraceUserIdAndRole(String token) {
+    VerifiedToken verified = verifyToken(token);
 
     Map<String, String> result = new HashMap<>();
 
-    result.put("userId", userId);
-    result.put("role", role);
+    result.put("userId", verified.getUserId());
+    result.put("role", verified.getRole());
 
     return result;
 
@@ -3,11 +3,88 @@ package com.acolyptos.minimart.utilities;
 import org.mindrot.jbcrypt.BCrypt;
 
 public class PasswordUtility {
+  // The cost of BCrypt.gensalt(), where a calibration starts from.
+  public static final int DEFAULT_COST = 10;
+  // A calibration never picks less, whatever the target time. Each step
+  // below the default halves the work of an offline guess.
+  public static final int MIN_CALIBRATED_COST = 8;
+  // The bounds accepted by BCrypt.gensalt(int).
+  public static final int MIN_COST = 4;
+  public static final int MAX_COST = 30;
+  // A calibration never picks more, a hash would take minutes.
+  private static final int MAX_CALIBRATED_COST = 20;
+
+  private static final int CALIBRATION_ROUNDS = 3;
+
   public static String hashPassword(String password) {
     return BCrypt.hashpw(password, BCrypt.gensalt());
   }
 
+  /*
+   * @param password - The plain password.
+   *
+   * @param cost - The log2 of the BCrypt rounds, between 4 and 30.
+   *
+   * @return The BCrypt hash, with the cost embedded in it.
+   */
+  public static String hashPassword(String password, int cost) {
+    return BCrypt.hashpw(password, BCrypt.gensalt(cost));
+  }
+
   public static boolean checkPassword(String plainPassword, String hashedPassword) {
     return BCrypt.checkpw(plainPassword, hashedPassword);
   }
+
+  /*
+   * Reads the cost from a hash of the form $2a$10$...
+   *
+   * @return The cost, or -1 if the hash is not a BCrypt hash.
+   */
+  public static int costOf(String hashedPassword) {
+    if (hashedPassword == null || hashedPassword.length() < 7
+        || hashedPassword.charAt(0) != '$') {
+      return -1;
+    }
+    int offset = hashedPassword.charAt(2) == '$' ? 3 : 4;
+    if (hashedPassword.length() < offset + 3 || hashedPassword.charAt(offset + 2) != '$') {
+      return -1;
+    }
+    char tens = hashedPassword.charAt(offset);
+    char units = hashedPassword.charAt(offset + 1);
+    if (tens < '0' || tens > '9' || units < '0' || units > '9') {
+      return -1;
+    }
+    return (tens - '0') * 10 + (units - '0');
+  }
+
+  /*
+   * Finds the highest cost whose hash still takes at most the target time on
+   * this machine. Every cost step doubles the work, so the cost is derived
+   * from the fastest of a few hashes at the default cost, going down when
+   * those are slower than the target and up when there is room.
+   *
+   * @param targetMillis - The time a single hash should take.
+   *
+   * @return The cost, between MIN_CALIBRATED_COST and 20.
+   */
+  public static int calibrateCost(long targetMillis) {
+    long fastest = Long.MAX_VALUE;
+    for (int i = 0; i < CALIBRATION_ROUNDS; i++) {
+      long startedAt = System.nanoTime();
+      hashPassword("calibration", DEFAULT_COST);
+      fastest = Math.min(fastest, System.nanoTime() - startedAt);
+    }
+
+    long targetNanos = targetMillis * 1_000_000;
+    int cost = DEFAULT_COST;
+    while (cost > MIN_CALIBRATED_COST && fastest > targetNanos) {
+      fastest /= 2;
+      cost--;
+    }
+    while (cost < MAX_CALIBRATED_COST && fastest * 2 <= targetNanos) {
+      fastest *= 2;
+      cost++;
+    }
+    return cost;
+  }
 }
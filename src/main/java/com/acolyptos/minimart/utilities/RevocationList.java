@@ -0,0 +1,154 @@
+package com.acolyptos.minimart.utilities;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+ * The ids of revoked tokens, kept only until the tokens expire.
+ *
+ * Ids are grouped by the time their token expires, one bucket per interval,
+ * in a ring that covers the longest token lifetime. A token is looked up in
+ * the single bucket of its expiry only, an open-addressed table of longs,
+ * so the check on every request neither locks nor allocates. When the ring
+ * comes back to a bucket, the tokens it held have all expired and the
+ * bucket is reused for the new interval, which is how entries expire.
+ *
+ * Ids must not be 0, the value of an empty slot.
+ */
+public class RevocationList {
+  private static final int INITIAL_CAPACITY = 16;
+
+  private final long bucketMillis;
+  private final Bucket[] buckets;
+
+  /*
+   * @param maxLifetimeMillis - The longest lifetime of a revocable token.
+   *
+   * @param bucketMillis - The expiry interval grouped in one bucket.
+   */
+  public RevocationList(long maxLifetimeMillis, long bucketMillis) {
+    if (bucketMillis <= 0 || maxLifetimeMillis <= 0) {
+      throw new IllegalArgumentException("Lifetime and bucket interval should be greater than 0.");
+    }
+
+    this.bucketMillis = bucketMillis;
+    // One more bucket than the lifetime spans, so the bucket being filled
+    // never shares a slot with one whose tokens are still valid.
+    this.buckets = new Bucket[(int) ((maxLifetimeMillis + bucketMillis - 1) / bucketMillis) + 2];
+    for (int i = 0; i < buckets.length; i++) {
+      buckets[i] = new Bucket();
+    }
+  }
+
+  /*
+   * Revokes a token until it expires.
+   *
+   * @param tokenId - The id of the token, not 0.
+   *
+   * @param expiresAtMillis - The expiry of the token.
+   *
+   * @return true if the token was not revoked yet.
+   */
+  public boolean revoke(long tokenId, long expiresAtMillis) {
+    if (tokenId == 0) {
+      throw new IllegalArgumentException("Token id should not be 0.");
+    }
+
+    long interval = Math.floorDiv(expiresAtMillis, bucketMillis);
+    Bucket bucket = buckets[(int) Math.floorMod(interval, (long) buckets.length)];
+    return bucket.add(interval, tokenId);
+  }
+
+  /*
+   * @param tokenId - The id of the token.
+   *
+   * @param expiresAtMillis - The expiry of the token.
+   *
+   * @return true if the token was revoked.
+   */
+  public boolean isRevoked(long tokenId, long expiresAtMillis) {
+    if (tokenId == 0) {
+      return false;
+    }
+
+    long interval = Math.floorDiv(expiresAtMillis, bucketMillis);
+    Bucket bucket = buckets[(int) Math.floorMod(interval, (long) buckets.length)];
+    return bucket.contains(interval, tokenId);
+  }
+
+  /*
+   * Ids of the tokens expiring in one interval. Writers synchronize on the
+   * bucket, readers only read the volatile fields and array elements.
+   */
+  private static final class Bucket {
+    private volatile long interval = Long.MIN_VALUE;
+    private volatile AtomicLongArray slots = new AtomicLongArray(INITIAL_CAPACITY);
+    private int size;
+
+    boolean contains(long expectedInterval, long tokenId) {
+      if (interval != expectedInterval) {
+        return false;
+      }
+
+      AtomicLongArray table = slots;
+      int mask = table.length() - 1;
+      for (int index = spread(tokenId) & mask; ; index = (index + 1) & mask) {
+        long slot = table.get(index);
+        if (slot == tokenId) {
+          return true;
+        }
+        if (slot == 0) {
+          return false;
+        }
+      }
+    }
+
+    synchronized boolean add(long expectedInterval, long tokenId) {
+      if (interval != expectedInterval) {
+        if (expectedInterval < interval) {
+          // The token belongs to an interval that has already expired.
+          return false;
+        }
+        slots = new AtomicLongArray(INITIAL_CAPACITY);
+        size = 0;
+        interval = expectedInterval;
+      }
+
+      // Keeps the table at most half full so probes stay short.
+      if ((size + 1) * 2 > slots.length()) {
+        AtomicLongArray grown = new AtomicLongArray(slots.length() * 2);
+        for (int i = 0; i < slots.length(); i++) {
+          long slot = slots.get(i);
+          if (slot != 0) {
+            insert(grown, slot);
+          }
+        }
+        slots = grown;
+      }
+
+      if (insert(slots, tokenId)) {
+        size++;
+        return true;
+      }
+      return false;
+    }
+
+    private static boolean insert(AtomicLongArray table, long tokenId) {
+      int mask = table.length() - 1;
+      for (int index = spread(tokenId) & mask; ; index = (index + 1) & mask) {
+        long slot = table.get(index);
+        if (slot == tokenId) {
+          return false;
+        }
+        if (slot == 0) {
+          table.set(index, tokenId);
+          return true;
+        }
+      }
+    }
+
+    private static int spread(long tokenId) {
+      long hash = tokenId * 0x9e3779b97f4a7c15L;
+      return (int) (hash ^ (hash >>> 32));
+    }
+  }
+}
@@ -0,0 +1,39 @@
+package com.acolyptos.minimart.utilities;
+
+/*
+ * The claims of a token whose signature and expiry were already checked.
+ * Immutable, so the same instance can be shared by every request that
+ * presents the token.
+ */
+public final class VerifiedToken {
+  private final String userId;
+  private final String role;
+  private final long tokenId;
+  private final boolean refresh;
+  private final long expiresAtMillis;
+
+  VerifiedToken(String userId, String role, long tokenId, boolean refresh, long expiresAtMillis) {
+    this.userId = userId;
+    this.role = role;
+    this.tokenId = tokenId;
+    this.refresh = refresh;
+    this.expiresAtMillis = expiresAtMillis;
+  }
+
+  public String getUserId() { return userId; }
+
+  public String getRole() { return role; }
+
+  /*
+   * @return The id of the token, 0 for tokens issued without one.
+   */
+  public long getTokenId() { return tokenId; }
+
+  public boolean isRefresh() { return refresh; }
+
+  public long getExpiresAtMillis() { return expiresAtMillis; }
+
+  public boolean isExpired(long nowMillis) {
+    return nowMillis >= expiresAtMillis;
+  }
+}
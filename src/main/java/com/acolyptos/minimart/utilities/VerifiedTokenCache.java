@@ -0,0 +1,123 @@
+package com.acolyptos.minimart.utilities;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+ * Bounded cache of verified tokens, so a token is parsed and its signature
+ * checked once instead of on every request that carries it.
+ *
+ * Entries are keyed by the SHA-256 digest of the token rather than the
+ * token itself, so the cache holds no usable credentials. A digest
+ * collision would need a SHA-256 collision. Entries are dropped when their
+ * token expires. When the cache is full, expired entries are swept first
+ * and then arbitrary ones, since every entry can be rebuilt by verifying
+ * the token again.
+ */
+final class VerifiedTokenCache {
+  private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException exception) {
+      throw new IllegalStateException("SHA-256 is not available.", exception);
+    }
+  });
+
+  private final int maxEntries;
+  private final Map<Digest, VerifiedToken> entries = new ConcurrentHashMap<>();
+  private final AtomicBoolean evicting = new AtomicBoolean();
+
+  VerifiedTokenCache(int maxEntries) {
+    this.maxEntries = maxEntries;
+  }
+
+  /*
+   * @return The cached claims of the token, or null when the token is not
+   * cached or has expired.
+   */
+  VerifiedToken get(Digest digest, long nowMillis) {
+    VerifiedToken token = entries.get(digest);
+    if (token != null && token.isExpired(nowMillis)) {
+      entries.remove(digest, token);
+      return null;
+    }
+    return token;
+  }
+
+  void put(Digest digest, VerifiedToken token, long nowMillis) {
+    if (entries.size() >= maxEntries) {
+      evict(nowMillis);
+    }
+    entries.put(digest, token);
+  }
+
+  int size() { return entries.size(); }
+
+  /*
+   * Runs on one thread at a time. Others keep inserting meanwhile, which
+   * can overshoot the bound by the number of concurrent callers.
+   */
+  private void evict(long nowMillis) {
+    if (!evicting.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      entries.values().removeIf(token -> token.isExpired(nowMillis));
+
+      int excess = entries.size() - maxEntries * 9 / 10;
+      Iterator<Digest> keys = entries.keySet().iterator();
+      while (excess-- > 0 && keys.hasNext()) {
+        keys.next();
+        keys.remove();
+      }
+    } finally {
+      evicting.set(false);
+    }
+  }
+
+  static Digest digest(String token) {
+    MessageDigest sha256 = SHA_256.get();
+    byte[] hash = sha256.digest(token.getBytes(StandardCharsets.UTF_8));
+    ByteBuffer buffer = ByteBuffer.wrap(hash);
+    return new Digest(buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong());
+  }
+
+  /*
+   * The 256 bits of a digest as four longs, so lookups compare primitives.
+   */
+  static final class Digest {
+    private final long first;
+    private final long second;
+    private final long third;
+    private final long fourth;
+
+    private Digest(long first, long second, long third, long fourth) {
+      this.first = first;
+      this.second = second;
+      this.third = third;
+      this.fourth = fourth;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof Digest)) {
+        return false;
+      }
+      Digest digest = (Digest) other;
+      return first == digest.first && second == digest.second
+        && third == digest.third && fourth == digest.fourth;
+    }
+
+    @Override
+    public int hashCode() {
+      // The bits of a SHA-256 digest are already uniformly distributed.
+      return (int) first;
+    }
+  }
+}
@@ -0,0 +1,72 @@
+package com.acolyptos.minimart.config;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class AppConfigTest {
+  static final String SECRET_KEY = "0123456789abcdef0123456789abcdef";
+
+  @Test
+  void typedValuesTest() {
+    AppConfig config = new AppConfig(Map.of(
+      "SERVER_PORT", " 9090 ",
+      "SERVER_KEEP_ALIVE", "FALSE",
+      "BCRYPT_MAX_QUEUE_MILLIS", "2500"
+    ));
+
+    assertEquals(9090, config.getInt("SERVER_PORT", 8080));
+    assertFalse(config.getBoolean("SERVER_KEEP_ALIVE", true));
+    assertEquals(2500L, config.getLong("BCRYPT_MAX_QUEUE_MILLIS", 1000));
+
+    assertEquals(256, config.getInt("SERVER_QUEUE_CAPACITY", 256), "Missing keys use the default");
+    assertTrue(config.getBoolean("JSON_BYTECODE_ACCESSORS", true));
+    assertEquals("JWT", config.getString("AUTH_MODE", "JWT"));
+  }
+
+  @Test
+  void invalidValuesTest() {
+    AppConfig config = new AppConfig(Map.of(
+      "SERVER_PORT", "eighty",
+      "SERVER_KEEP_ALIVE", "yes"
+    ));
+
+    IllegalArgumentException exception = assertThrows(
+      IllegalArgumentException.class, () -> config.getInt("SERVER_PORT", 8080)
+    );
+    assertTrue(exception.getMessage().contains("SERVER_PORT"));
+    assertThrows(IllegalArgumentException.class, () -> config.getBoolean("SERVER_KEEP_ALIVE", true));
+    assertThrows(IllegalArgumentException.class, () -> config.getRequired("MONGO_URI"));
+  }
+
+  @Test
+  void validateTest() {
+    assertDoesNotThrow(() -> new AppConfig(Map.of(
+      "MONGO_URI", "mongodb://localhost", "DB_NAME", "minimart", "SECRET_KEY", SECRET_KEY
+    )).validate());
+
+    assertThrows(IllegalArgumentException.class, () -> new AppConfig(Map.of(
+      "MONGO_URI", "mongodb://localhost", "DB_NAME", "minimart"
+    )).validate());
+    assertThrows(IllegalArgumentException.class, () -> new AppConfig(Map.of(
+      "MONGO_URI", "mongodb://localhost", "DB_NAME", "minimart", "SECRET_KEY", "short"
+    )).validate(), "An HS256 key needs at least 256 bits");
+  }
+
+  @Test
+  void systemPropertyOverrideTest() {
+    System.setProperty("MINIMART_TEST_VALUE", "42");
+    try {
+      AppConfig config = AppConfig.load();
+      System.setProperty("MINIMART_TEST_VALUE", "43");
+
+      assertEquals(42, config.getInt("MINIMART_TEST_VALUE", 0));
+    } finally {
+      System.clearProperty("MINIMART_TEST_VALUE");
+    }
+  }
+}
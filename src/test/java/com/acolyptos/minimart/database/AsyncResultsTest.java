@@ -0,0 +1,73 @@
+package com.acolyptos.minimart.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscription;
+import com.acolyptos.minimart.exceptions.DatabaseException;
+import com.mongodb.MongoTimeoutException;
+
+class AsyncResultsTest {
+
+  // Emits the items once they are requested, or fails with the error.
+  static <T> Publisher<T> publisherOf(List<T> items, RuntimeException error) {
+    return subscriber -> subscriber.onSubscribe(new Subscription() {
+      @Override
+      public void request(long n) {
+        items.forEach(subscriber::onNext);
+        if (error == null) {
+          subscriber.onComplete();
+        } else {
+          subscriber.onError(error);
+        }
+      }
+
+      @Override
+      public void cancel() {}
+    });
+  }
+
+  @Test
+  void toListTest() {
+    CompletableFuture<List<String>> result = AsyncResults.toList(
+      publisherOf(List.of("a", "b", "c"), null)
+    );
+
+    assertEquals(List.of("a", "b", "c"), result.join());
+  }
+
+  @Test
+  void firstTest() {
+    assertEquals("a", AsyncResults.first(publisherOf(List.of("a"), null)).join());
+    assertNull(AsyncResults.first(publisherOf(List.<String>of(), null)).join(),
+      "An empty publisher should complete with null");
+  }
+
+  @Test
+  void pendingTest() {
+    // A publisher that never signals leaves the future pending.
+    CompletableFuture<String> result = AsyncResults.first(subscriber -> {});
+
+    assertFalse(result.isDone());
+  }
+
+  @Test
+  void failureTest() {
+    CompletableFuture<String> result = AsyncResults.first(
+      publisherOf(List.of(), new MongoTimeoutException("no server"))
+    );
+
+    CompletionException exception = assertThrows(CompletionException.class, result::join);
+    Throwable cause = AsyncResults.unwrap(exception);
+    assertInstanceOf(DatabaseException.class, cause);
+    assertEquals("Database Timeout: no server", cause.getMessage());
+    assertInstanceOf(MongoTimeoutException.class, cause.getCause());
+  }
+}
@@ -0,0 +1,148 @@
+package com.acolyptos.minimart.database.codecs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWriter;
+import org.bson.BsonDouble;
+import org.bson.BsonInt32;
+import org.bson.BsonInt64;
+import org.bson.BsonNull;
+import org.bson.BsonObjectId;
+import org.bson.BsonString;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.codecs.pojo.PojoCodecProvider;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import com.acolyptos.minimart.models.Category;
+import com.acolyptos.minimart.models.Employee;
+import com.acolyptos.minimart.models.Manager;
+import com.acolyptos.minimart.models.Product;
+import com.acolyptos.minimart.models.Role;
+import com.acolyptos.minimart.models.Supplier;
+import com.acolyptos.minimart.models.User;
+import com.mongodb.MongoClientSettings;
+
+class ModelCodecTest {
+  static final CodecRegistry MODELS = CodecRegistries.fromRegistries(
+    MongoClientSettings.getDefaultCodecRegistry(),
+    CodecRegistries.fromProviders(new ModelCodecProvider())
+  );
+  static final CodecRegistry POJO = CodecRegistries.fromRegistries(
+    MongoClientSettings.getDefaultCodecRegistry(),
+    CodecRegistries.fromProviders(PojoCodecProvider.builder().automatic(true).build())
+  );
+
+  static <T> BsonDocument encode(CodecRegistry registry, Class<T> type, T value) {
+    BsonDocument document = new BsonDocument();
+    registry.get(type).encode(new BsonDocumentWriter(document), value,
+      EncoderContext.builder().build());
+    return document;
+  }
+
+  static <T> T decode(CodecRegistry registry, Class<T> type, BsonDocument document) {
+    return registry.get(type).decode(new BsonDocumentReader(document),
+      DecoderContext.builder().build());
+  }
+
+  @Test
+  void sameDocumentsAsPojoCodecTest() {
+    User user = new User("johndoe", "$2a$10$hash", Role.MANAGER);
+    user.setId(new ObjectId());
+    Category category = new Category("Beverages", null);
+    category.setId(new ObjectId());
+    Supplier supplier = new Supplier("Acme", "Main Street", "555-0100", "acme@example.com");
+    Employee employee = new Employee("John Doe", "john@example.com", new ObjectId());
+    Manager manager = new Manager("Jane Doe", "jane@example.com", new ObjectId());
+
+    assertEquals(encode(POJO, User.class, user), encode(MODELS, User.class, user));
+    assertEquals(encode(POJO, Category.class, category),
+      encode(MODELS, Category.class, category), "Null fields are left out");
+    assertEquals(encode(POJO, Supplier.class, supplier), encode(MODELS, Supplier.class, supplier));
+    assertEquals(encode(POJO, Employee.class, employee), encode(MODELS, Employee.class, employee));
+    assertEquals(encode(POJO, Manager.class, manager), encode(MODELS, Manager.class, manager));
+  }
+
+  // The POJO codec cannot encode a Product, its setCategory and setSupplier
+  // setters look like properties without a getter.
+  @Test
+  void productDocumentTest() {
+    Product product = new Product("Coffee", new ObjectId(), new ObjectId(), 24, 3.5);
+    product.setId(new ObjectId());
+
+    BsonDocument expected = new BsonDocument()
+      .append("_id", new BsonObjectId(product.getId()))
+      .append("name", new BsonString("Coffee"))
+      .append("categoryId", new BsonObjectId(product.getCategoryId()))
+      .append("supplierId", new BsonObjectId(product.getSupplierId()))
+      .append("stock", new BsonInt32(24))
+      .append("price", new BsonDouble(3.5));
+    assertEquals(expected, encode(MODELS, Product.class, product));
+  }
+
+  @Test
+  void roundTripTest() {
+    ObjectId id = new ObjectId();
+    Product product = new Product("Coffee", new ObjectId(), new ObjectId(), 24, 3.5);
+    product.setId(id);
+
+    Product decoded = decode(MODELS, Product.class, encode(MODELS, Product.class, product));
+    assertEquals(id, decoded.getId());
+    assertEquals("Coffee", decoded.getName());
+    assertEquals(product.getCategoryId(), decoded.getCategoryId());
+    assertEquals(product.getSupplierId(), decoded.getSupplierId());
+    assertEquals(24, decoded.getStock());
+    assertEquals(3.5, decoded.getPrice());
+
+    Manager manager = new Manager("Jane Doe", "jane@example.com", new ObjectId());
+    Manager decodedManager = decode(MODELS, Manager.class, encode(MODELS, Manager.class, manager));
+    assertEquals("Jane Doe", decodedManager.getName());
+    assertEquals(manager.getUserId(), decodedManager.getUserId());
+  }
+
+  @Test
+  void lenientDecodeTest() {
+    BsonDocument document = new BsonDocument()
+      .append("_id", new BsonObjectId(new ObjectId()))
+      .append("legacy", new BsonArray())
+      .append("username", new BsonString("johndoe"))
+      .append("nested", new BsonDocument("a", new BsonInt32(1)))
+      .append("password", BsonNull.VALUE)
+      .append("role", new BsonString("EMPLOYEE"));
+
+    User user = decode(MODELS, User.class, document);
+    assertEquals("johndoe", user.getUsername());
+    assertNull(user.getPassword());
+    assertEquals(Role.EMPLOYEE, user.getRole());
+
+    Product product = decode(MODELS, Product.class, new BsonDocument()
+      .append("stock", new BsonInt64(12))
+      .append("price", new BsonInt32(4)));
+    assertEquals(12, product.getStock());
+    assertEquals(4.0, product.getPrice());
+
+    product = decode(MODELS, Product.class, new BsonDocument("stock", new BsonDouble(7.0)));
+    assertEquals(7, product.getStock());
+  }
+
+  @Test
+  void generateIdTest() {
+    Codec<Category> codec = MODELS.get(Category.class);
+    assertTrue(codec instanceof ModelCodec);
+
+    ModelCodec<Category> collectible = (ModelCodec<Category>) codec;
+    Category category = new Category("Beverages", "Drinks");
+    collectible.generateIdIfAbsentFromDocument(category);
+
+    assertNotNull(category.getId());
+    assertEquals(new BsonObjectId(category.getId()), collectible.getDocumentId(category));
+  }
+}
@@ -0,0 +1,97 @@
+package com.acolyptos.minimart.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import com.sun.net.httpserver.HttpHandler;
+
+class RouteTableTest {
+  static final HttpHandler LIST = exchange -> {};
+  static final HttpHandler CREATE = exchange -> {};
+  static final HttpHandler FIND = exchange -> {};
+  static final HttpHandler SEARCH = exchange -> {};
+
+  RouteTable routeTable;
+
+  @BeforeEach
+  void setup() {
+    routeTable = new RouteTable();
+    routeTable.add(HttpMethod.GET, "/api/products", LIST);
+    routeTable.add(HttpMethod.POST, "/api/products", CREATE);
+    routeTable.add(HttpMethod.GET, "/api/products/{id}", FIND);
+    routeTable.add(HttpMethod.GET, "/api/products/search", SEARCH);
+    routeTable.add(HttpMethod.DELETE, "/api/suppliers/{supplierId}/products/{id}", FIND);
+    routeTable.compile();
+  }
+
+  @Test
+  void staticRouteTest() {
+    RouteMatch match = routeTable.match("GET", "/api/products");
+
+    assertTrue(match.isFound());
+    assertSame(LIST, match.getRoute().getHandler());
+    assertEquals(0, match.getParameters().size());
+    assertSame(match, routeTable.match("GET", "/api/products/"),
+      "Static matches should be shared and ignore a trailing slash");
+  }
+
+  @Test
+  void dispatchOnMethodTest() {
+    assertSame(CREATE, routeTable.match("POST", "/api/products").getRoute().getHandler());
+  }
+
+  @Test
+  void pathParameterTest() {
+    RouteMatch match = routeTable.match("GET", "/api/products/67d23929622cd64ddeac2356");
+
+    assertTrue(match.isFound());
+    assertSame(FIND, match.getRoute().getHandler());
+    assertEquals("67d23929622cd64ddeac2356", match.getParameters().get("id"));
+    assertNull(match.getParameters().get("name"));
+  }
+
+  @Test
+  void multipleParametersTest() {
+    RouteMatch match = routeTable.match("DELETE", "/api/suppliers/s%20one/products/p1");
+
+    assertTrue(match.isFound());
+    assertEquals("s one", match.getParameters().get("supplierId"));
+    assertEquals("p1", match.getParameters().get("id"));
+  }
+
+  @Test
+  void staticSegmentWinsOverParameterTest() {
+    assertSame(SEARCH, routeTable.match("GET", "/api/products/search").getRoute().getHandler());
+  }
+
+  @Test
+  void methodNotAllowedTest() {
+    RouteMatch match = routeTable.match("DELETE", "/api/products");
+
+    assertFalse(match.isFound());
+    assertTrue(match.isMethodNotAllowed());
+    assertEquals("GET, POST", match.getAllowedMethods());
+  }
+
+  @Test
+  void notFoundTest() {
+    assertSame(RouteMatch.NOT_FOUND, routeTable.match("GET", "/api/categories"));
+    assertSame(RouteMatch.NOT_FOUND, routeTable.match("GET", "/api/products/1/2"));
+    assertSame(RouteMatch.NOT_FOUND, routeTable.match("GET", "/api"));
+  }
+
+  @Test
+  void duplicateRouteTest() {
+    RouteTable table = new RouteTable();
+    table.add(HttpMethod.GET, "/api/products/{id}", FIND);
+
+    assertThrows(IllegalArgumentException.class, () ->
+      table.add(HttpMethod.GET, "/api/products/{productId}", FIND)
+    );
+  }
+}
@@ -0,0 +1,97 @@
+package com.acolyptos.minimart.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import com.acolyptos.minimart.models.Role;
+
+class SessionStoreTest {
+  AtomicLong clock;
+  SessionStore sessionStore;
+
+  @BeforeEach
+  void setup() {
+    clock = new AtomicLong();
+    sessionStore = new SessionStore(100, 60, 4, clock::get);
+  }
+
+  @Test
+  void createTest() {
+    String token = sessionStore.create("user-1", Role.MANAGER);
+    assertNotEquals(token, sessionStore.create("user-1", Role.MANAGER));
+
+    SessionStore.Session session = sessionStore.get(token);
+    assertNotNull(session);
+    assertEquals("user-1", session.getUserId());
+    assertEquals(Role.MANAGER, session.getRole());
+    assertNull(sessionStore.get("unknown"));
+  }
+
+  @Test
+  void revokeTest() {
+    String token = sessionStore.create("user-1", Role.EMPLOYEE);
+
+    assertTrue(sessionStore.revoke(token));
+    assertFalse(sessionStore.revoke(token), "A session should only be revoked once");
+    assertNull(sessionStore.get(token));
+  }
+
+  @Test
+  void idleTimeoutTest() {
+    String token = sessionStore.create("user-1", Role.EMPLOYEE);
+
+    clock.addAndGet(TimeUnit.SECONDS.toNanos(50));
+    assertNotNull(sessionStore.get(token), "A lookup should keep the session alive");
+
+    clock.addAndGet(TimeUnit.SECONDS.toNanos(50));
+    assertNotNull(sessionStore.get(token));
+
+    clock.addAndGet(TimeUnit.SECONDS.toNanos(61));
+    assertNull(sessionStore.get(token));
+    assertEquals(1L, sessionStore.snapshotMetrics().get("expired"));
+  }
+
+  @Test
+  void evictionTest() {
+    SessionStore single = new SessionStore(2, 60, 1, clock::get);
+    String first = single.create("user-1", Role.EMPLOYEE);
+    String second = single.create("user-2", Role.EMPLOYEE);
+
+    single.get(first);
+    String third = single.create("user-3", Role.EMPLOYEE);
+
+    assertEquals(2, single.size());
+    assertNull(single.get(second), "The least recently used session should be evicted");
+    assertNotNull(single.get(first));
+    assertNotNull(single.get(third));
+    assertEquals(1L, single.snapshotMetrics().get("evicted"));
+  }
+
+  @Test
+  void boundTest() {
+    for (int i = 0; i < 1_000; i++) {
+      sessionStore.create("user-" + i, Role.EMPLOYEE);
+    }
+    assertTrue(sessionStore.size() <= 100);
+  }
+
+  @Test
+  void hitRateTest() {
+    String token = sessionStore.create("user-1", Role.EMPLOYEE);
+    sessionStore.get(token);
+    sessionStore.get(token);
+    sessionStore.get(token);
+    sessionStore.get("unknown");
+
+    assertEquals(3L, sessionStore.snapshotMetrics().get("hits"));
+    assertEquals(1L, sessionStore.snapshotMetrics().get("misses"));
+    assertEquals(75L, sessionStore.snapshotMetrics().get("hitRatePercent"));
+  }
+}
@@ -0,0 +1,52 @@
+package com.acolyptos.minimart.utilities;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class BloomFilterTest {
+
+  @Test
+  void addedValuesTest() {
+    BloomFilter filter = new BloomFilter(10_000, 0.01);
+    for (int i = 0; i < 10_000; i++) {
+      filter.add("user" + i);
+    }
+
+    for (int i = 0; i < 10_000; i++) {
+      assertTrue(filter.mightContain("user" + i), "Added values should always be found");
+    }
+  }
+
+  @Test
+  void falsePositiveRateTest() {
+    BloomFilter filter = new BloomFilter(10_000, 0.01);
+    for (int i = 0; i < 10_000; i++) {
+      filter.add("user" + i);
+    }
+
+    int falsePositives = 0;
+    for (int i = 0; i < 100_000; i++) {
+      if (filter.mightContain("other" + i)) {
+        falsePositives++;
+      }
+    }
+    assertTrue(falsePositives < 2_000,
+      "False positives should stay close to 1%, got " + falsePositives);
+  }
+
+  @Test
+  void emptyFilterTest() {
+    BloomFilter filter = new BloomFilter(100, 0.01);
+
+    assertFalse(filter.mightContain("johndoe"));
+    assertFalse(filter.mightContain(""));
+  }
+
+  @Test
+  void invalidSizeTest() {
+    assertThrows(IllegalArgumentException.class, () -> new BloomFilter(0, 0.01));
+    assertThrows(IllegalArgumentException.class, () -> new BloomFilter(100, 1));
+  }
+}
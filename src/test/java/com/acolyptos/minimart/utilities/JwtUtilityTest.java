@@ -0,0 +1,40 @@
+package com.acolyptos.minimart.utilities;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import com.acolyptos.minimart.config.AppConfig;
+import io.jsonwebtoken.JwtException;
+
+class JwtUtilityTest {
+  static final String KEY = "first-test-secret-key-of-32-bytes";
+  static final String OTHER_KEY = "other-test-secret-key-of-32-bytes";
+
+  @Test
+  void issueAndVerifyTest() {
+    JwtUtility jwtUtility = new JwtUtility(KEY, 100);
+
+    VerifiedToken verified = jwtUtility.verifyToken(jwtUtility.generateToken("42", "MANAGER"));
+    assertEquals("42", verified.getUserId());
+    assertEquals("MANAGER", verified.getRole());
+
+    String refreshToken = jwtUtility.generateRefreshToken("42", "MANAGER");
+    assertThrows(JwtException.class, () -> jwtUtility.verifyToken(refreshToken),
+      "A refresh token should not authenticate");
+    assertTrue(jwtUtility.revokeToken(jwtUtility.verifyRefreshToken(refreshToken)));
+    assertThrows(JwtException.class, () -> jwtUtility.verifyRefreshToken(refreshToken));
+  }
+
+  @Test
+  void separateInstancesTest() {
+    JwtUtility first = JwtUtility.fromConfig(new AppConfig(Map.of("SECRET_KEY", KEY)));
+    JwtUtility other = JwtUtility.fromConfig(new AppConfig(Map.of("SECRET_KEY", OTHER_KEY)));
+
+    String token = first.generateToken("42", "EMPLOYEE");
+    assertTrue(first.validateToken(token));
+    assertFalse(other.validateToken(token), "Another key should reject the token");
+  }
+}
@@ -0,0 +1,65 @@
+package com.acolyptos.minimart.utilities;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RevocationListTest {
+  static final long MINUTE = 60_000;
+  static final long NOW = 1_700_000_000_000L;
+
+  RevocationList revocationList;
+
+  @BeforeEach
+  void setup() {
+    revocationList = new RevocationList(60 * MINUTE, 10 * MINUTE);
+  }
+
+  @Test
+  void revokeTest() {
+    assertFalse(revocationList.isRevoked(42, NOW + MINUTE));
+
+    assertTrue(revocationList.revoke(42, NOW + MINUTE));
+    assertFalse(revocationList.revoke(42, NOW + MINUTE),
+      "A token should only be revoked once");
+
+    assertTrue(revocationList.isRevoked(42, NOW + MINUTE));
+    assertFalse(revocationList.isRevoked(43, NOW + MINUTE));
+    assertFalse(revocationList.isRevoked(42, NOW + 30 * MINUTE),
+      "The expiry is part of the lookup");
+  }
+
+  @Test
+  void growTest() {
+    for (long id = 1; id <= 10_000; id++) {
+      revocationList.revoke(id, NOW + (id % 60) * MINUTE);
+    }
+
+    for (long id = 1; id <= 10_000; id++) {
+      assertTrue(revocationList.isRevoked(id, NOW + (id % 60) * MINUTE));
+    }
+    assertFalse(revocationList.isRevoked(10_001, NOW));
+  }
+
+  @Test
+  void expiryTest() {
+    revocationList.revoke(42, NOW);
+
+    // A token expiring one ring later reuses the bucket and clears it.
+    long later = NOW + 80 * MINUTE;
+    revocationList.revoke(7, later);
+
+    assertTrue(revocationList.isRevoked(7, later));
+    assertFalse(revocationList.isRevoked(42, NOW));
+    assertFalse(revocationList.revoke(42, NOW),
+      "Tokens of an expired interval are not tracked again");
+  }
+
+  @Test
+  void invalidIdTest() {
+    assertFalse(revocationList.isRevoked(0, NOW));
+    assertThrows(IllegalArgumentException.class, () -> revocationList.revoke(0, NOW));
+  }
+}